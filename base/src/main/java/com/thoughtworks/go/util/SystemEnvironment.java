@@ -118,6 +118,9 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     public static final String MATERIAL_UPDATE_IDLE_INTERVAL_PROPERTY = "material.update.idle.interval";
     private static GoSystemProperty<Long> MATERIAL_UPDATE_IDLE_INTERVAL = new GoLongSystemProperty(MATERIAL_UPDATE_IDLE_INTERVAL_PROPERTY, 60000L);
+    public static final String MATERIAL_UPDATE_MAX_IDLE_INTERVAL_PROPERTY = "material.update.max.idle.interval";
+    private static GoSystemProperty<Long> MATERIAL_UPDATE_MAX_IDLE_INTERVAL = new GoLongSystemProperty(MATERIAL_UPDATE_MAX_IDLE_INTERVAL_PROPERTY, 15 * 60000L);
+    public static GoSystemProperty<Integer> MATERIAL_UPDATE_HOST_CONCURRENCY = new GoIntSystemProperty("material.update.host.concurrency", 0);
 
     public static GoSystemProperty<Integer> PLUGIN_LOCATION_MONITOR_INTERVAL_IN_SECONDS = new GoIntSystemProperty("pluginLocationMonitor.sleepTimeInSecs", -1);
     public static final String PLUGINS_PATH = "plugins";
@@ -179,6 +182,8 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static GoSystemProperty<Long> GO_CONFIG_REPO_GC_EXPIRE = new GoLongSystemProperty("go.config.repo.gc.expire", 24L);
     public static GoSystemProperty<Long> GO_CONFIG_REPO_GC_LOOSE_OBJECT_WARNING_THRESHOLD = new GoLongSystemProperty("go.config.repo.gc.warning.looseobject.threshold", 10000L);
     public static GoSystemProperty<Boolean> GO_CONFIG_REPO_PERIODIC_GC = new GoBooleanSystemProperty("go.config.repo.gc.periodic", false);
+    public static GoSystemProperty<Boolean> GO_CONFIG_REPO_ASYNC_CHECKIN = new GoBooleanSystemProperty("go.config.repo.checkin.async", true);
+    public static GoSystemProperty<Boolean> GO_CONFIG_REPO_INCREMENTAL_MERGE = new GoBooleanSystemProperty("go.config.repo.merge.incremental", true);
 
     public static GoSystemProperty<String> GO_UPDATE_SERVER_PUBLIC_KEY_FILE_NAME = new GoStringSystemProperty("go.update.server.public.key.file.name", "go_update_server.pub");
     public static GoSystemProperty<String> GO_UPDATE_SERVER_URL = new GoStringSystemProperty("go.update.server.url", "https://update.gocd.org/channels/supported/latest.json");
@@ -194,18 +199,28 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static GoSystemProperty<Boolean> AUTO_REGISTER_LOCAL_AGENT_ENABLED = new GoBooleanSystemProperty("go.auto.register.local.agent.enabled", true);
 
     public static GoSystemProperty<Boolean> GO_SERVER_SHALLOW_CLONE = new GoBooleanSystemProperty("go.server.shallowClone", false);
+    public static GoSystemProperty<Boolean> GO_SERVER_GIT_REMOTE_BRANCH_PRE_CHECK = new GoBooleanSystemProperty("go.server.git.remoteBranchPreCheck", true);
+    public static GoSystemProperty<Boolean> GO_SERVER_GIT_SHARED_OBJECT_STORE = new GoBooleanSystemProperty("go.server.git.sharedObjectStore", true);
     public static GoSystemProperty<Boolean> GO_SERVER_SCHEDULED_PIPELINE_LOADER_GLOBAL_MATERIAL_LOOKUP = new GoBooleanSystemProperty("go.server.scheduledPipelineLoader.globalMaterialLookup", false);
 
     public static GoSystemProperty<Boolean> GO_API_WITH_SAFE_MODE = new GoBooleanSystemProperty("go.api.with.safe.mode", true);
     public static GoSystemProperty<Integer> MAX_PENDING_AGENTS_ALLOWED = new GoIntSystemProperty("max.pending.agents.allowed", 100);
     public static GoSystemProperty<Boolean> CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS = new GoBooleanSystemProperty("go.modifications.removeDuplicates", true);
+    public static GoSystemProperty<Integer> MODIFICATIONS_SAVE_BATCH_SIZE = new GoIntSystemProperty("go.modifications.save.batch.size", 500);
+    public static GoSystemProperty<Integer> MODIFIED_FILES_PREVIEW_SIZE = new GoIntSystemProperty("go.modified.files.preview.size", 1000);
     public static GoSystemProperty<String> GO_AGENT_KEYSTORE_PASSWORD = new GoStringSystemProperty("go.agent.keystore.password", "agent5s0repa55w0rd");
     public static GoSystemProperty<String> GO_SERVER_KEYSTORE_PASSWORD = new GoStringSystemProperty("go.server.keystore.password", "serverKeystorepa55w0rd");
     public static final GoSystemProperty<Boolean> GO_DIAGNOSTICS_MODE = new GoBooleanSystemProperty("go.diagnostics.mode", false);
 
     public static GoIntSystemProperty DEPENDENCY_MATERIAL_UPDATE_LISTENERS = new GoIntSystemProperty("dependency.material.check.threads", 3);
+    public static GoSystemProperty<Boolean> DEPENDENCY_MATERIAL_REVISION_ON_STAGE_PASS = new GoBooleanSystemProperty("dependency.material.revision.on.stage.pass", true);
 
     public static GoIntSystemProperty CONFIG_MATERIAL_POST_UPDATE_LISTENERS = new GoIntSystemProperty("config.material.post.update.threads", 2);
+    public static GoIntSystemProperty CONFIG_REPO_PARSE_THREADS = new GoIntSystemProperty("config.repo.parse.threads", 8);
+    public static GoIntSystemProperty CONFIG_REPO_PARSE_THREADS_PER_PLUGIN = new GoIntSystemProperty("config.repo.parse.threads.per.plugin", 4);
+    public static GoSystemProperty<Boolean> CONFIG_REPO_PARSE_CACHE = new GoBooleanSystemProperty("config.repo.parse.cache", true);
+
+    public static GoIntSystemProperty PRIORITY_MATERIAL_UPDATE_LISTENERS = new GoIntSystemProperty("material.update.priority.threads", 1);
 
     public static GoSystemProperty<String> GO_SERVER_MODE = new GoStringSystemProperty("go.server.mode", "production");
     public static GoBooleanSystemProperty REAUTHENTICATION_ENABLED = new GoBooleanSystemProperty("go.security.reauthentication.enabled", true);
@@ -494,10 +509,22 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return DEPENDENCY_MATERIAL_UPDATE_LISTENERS.getValue();
     }
 
+    public int getNumberOfPriorityMaterialUpdateListeners() {
+        return PRIORITY_MATERIAL_UPDATE_LISTENERS.getValue();
+    }
+
     public int getNumberOfConfigMaterialPostUpdateListeners() {
         return CONFIG_MATERIAL_POST_UPDATE_LISTENERS.getValue();
     }
 
+    public int getNumberOfConfigRepoParseThreads() {
+        return CONFIG_REPO_PARSE_THREADS.getValue();
+    }
+
+    public int getNumberOfConfigRepoParseThreadsPerPlugin() {
+        return CONFIG_REPO_PARSE_THREADS_PER_PLUGIN.getValue();
+    }
+
     public String getAgentMd5() {
         return getPropertyImpl(GoConstants.AGENT_JAR_MD5, BLANK_STRING);
     }
@@ -747,6 +774,14 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return MATERIAL_UPDATE_IDLE_INTERVAL.getValue();
     }
 
+    public long getMaterialUpdateMaxIdleInterval() {
+        return MATERIAL_UPDATE_MAX_IDLE_INTERVAL.getValue();
+    }
+
+    public int getMaterialUpdateHostConcurrency() {
+        return MATERIAL_UPDATE_HOST_CONCURRENCY.getValue();
+    }
+
     public boolean isDefaultDbProvider() {
         return GO_DATABASE_PROVIDER.getValue().equals(H2_DATABASE);
     }
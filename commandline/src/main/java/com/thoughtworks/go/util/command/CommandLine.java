@@ -438,4 +438,22 @@ public class CommandLine {
     public ConsoleResult runOrBomb(ProcessTag processTag, String... input) {
         return runOrBomb(true, processTag, input);
     }
+
+    /**
+     * Hands standard output to the consumer line by line as the process writes it, instead of collecting it. The
+     * returned result only carries standard error.
+     */
+    public ConsoleResult runOrBomb(StreamConsumer stdOutConsumer, ProcessTag processTag) {
+        LOG.debug("Running {}", this);
+        InMemoryConsumer errorConsumer = new InMemoryConsumer();
+        ProcessWrapper process = execute(new ProcessOutputStreamConsumer<>(stdOutConsumer, errorConsumer), new EnvironmentVariableContext(), processTag);
+        int returnValue = process.waitForExit();
+
+        ConsoleResult result = new ConsoleResult(returnValue, new ArrayList<>(), errorConsumer.asList(), arguments, secrets, true);
+
+        if (result.failed()) {
+            throw new CommandLineException(this, result);
+        }
+        return result;
+    }
 }
@@ -21,6 +21,8 @@ package com.thoughtworks.go.dto;
 public class DurationBean {
     private Long jobId;
     private long duration;
+    private long expectedDurationP50;
+    private long expectedDurationP90;
 
     public DurationBean() {
     }
@@ -30,6 +32,12 @@ public class DurationBean {
         this.duration = duration;
     }
 
+    public DurationBean(Long jobId, long duration, long expectedDurationP50, long expectedDurationP90) {
+        this(jobId, duration);
+        this.expectedDurationP50 = expectedDurationP50;
+        this.expectedDurationP90 = expectedDurationP90;
+    }
+
     public DurationBean(long jobId) {
         this(jobId, 0L);
     }
@@ -46,6 +54,14 @@ public class DurationBean {
         return duration;
     }
 
+    public long getExpectedDurationP50() {
+        return expectedDurationP50;
+    }
+
+    public long getExpectedDurationP90() {
+        return expectedDurationP90;
+    }
+
     public Long getJobId() {
         return jobId;
     }
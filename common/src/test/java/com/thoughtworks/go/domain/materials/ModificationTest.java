@@ -22,10 +22,7 @@ import com.thoughtworks.go.util.json.JsonHelper;
 import org.junit.Test;
 
 import java.io.*;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 
 import static com.thoughtworks.go.domain.materials.Modification.ANONYMOUS;
 import static org.hamcrest.Matchers.*;
@@ -122,4 +119,78 @@ public class ModificationTest {
         assertThat(modification.getCardNumbersFromComment().size(), is(2));
         assertThat(modification.getCardNumbersFromComment(), hasItems("3455","1234"));
     }
+
+    @Test
+    public void shouldKeepOnlyAPreviewOfTheModifiedFilesAlongWithTheirCount() {
+        Modification modification = modificationWithFiles(5);
+
+        Modification preview = modification.withModifiedFilesPreview(2, null);
+
+        assertThat(preview.getModifiedFiles(), is(modification.getModifiedFiles().subList(0, 2)));
+        assertThat(preview.getModifiedFilesCount(), is(5));
+        assertThat(preview.hasMoreModifiedFiles(), is(true));
+        assertThat(preview.getRevision(), is(modification.getRevision()));
+        assertThat(modification.getModifiedFiles().size(), is(5));
+    }
+
+    @Test
+    public void shouldNotCopyAModificationWhichHasNoMoreFilesThanThePreviewSize() {
+        Modification modification = modificationWithFiles(2);
+
+        assertThat(modification.withModifiedFilesPreview(2, null), is(sameInstance(modification)));
+        assertThat(modification.withModifiedFilesPreview(0, null), is(sameInstance(modification)));
+        assertThat(modification.hasMoreModifiedFiles(), is(false));
+    }
+
+    @Test
+    public void shouldLoadModifiedFilesWhichAreNotPartOfThePreviewWhenAskedForThem() {
+        Modification modification = modificationWithFiles(5);
+        modification.setId(42);
+        List<String> loadedPages = new ArrayList<>();
+        Modification preview = modification.withModifiedFilesPreview(2, (modificationId, offset, limit) -> {
+            loadedPages.add(modificationId + ":" + offset + ":" + limit);
+            return modification.getModifiedFiles().subList(offset, Math.min(offset + limit, 5));
+        });
+
+        assertThat(preview.getModifiedFiles(0, 2), is(modification.getModifiedFiles().subList(0, 2)));
+        assertThat(loadedPages.isEmpty(), is(true));
+        assertThat(preview.getModifiedFiles(2, 2), is(modification.getModifiedFiles().subList(2, 4)));
+        assertThat(preview.getAllModifiedFiles(), is(modification.getModifiedFiles()));
+        assertThat(new Modification(preview).getAllModifiedFiles(), is(modification.getModifiedFiles()));
+        assertThat(loadedPages, contains("42:2:2", "42:0:5", "42:0:5"));
+    }
+
+    @Test
+    public void shouldEqualThePreviewItWasMadeFromButNotAModificationWithAnotherNumberOfFiles() {
+        Modification modification = modificationWithFiles(5);
+
+        assertThat(modification.withModifiedFilesPreview(2, null), is(modification));
+        assertThat(modification.withModifiedFilesPreview(2, null).hashCode(), is(modification.hashCode()));
+        assertThat(modificationWithFiles(4), is(not(modification)));
+    }
+
+    @Test
+    public void shouldNotEqualAModificationWithOtherFilesOrAPreviewOfOtherFiles() {
+        Date modifiedTime = new Date();
+        Modification modification = new Modification("user", "comment", "foo@bar.com", modifiedTime, "rev");
+        modification.createModifiedFile("file", "folder", ModifiedAction.added);
+        modification.createModifiedFile("other", "folder", ModifiedAction.added);
+        modification.createModifiedFile("third", "folder", ModifiedAction.added);
+        Modification withOtherAction = new Modification("user", "comment", "foo@bar.com", modifiedTime, "rev");
+        withOtherAction.createModifiedFile("file", "folder", ModifiedAction.modified);
+        withOtherAction.createModifiedFile("other", "folder", ModifiedAction.added);
+        withOtherAction.createModifiedFile("third", "folder", ModifiedAction.added);
+
+        assertThat(withOtherAction, is(not(modification)));
+        assertThat(withOtherAction.withModifiedFilesPreview(1, null), is(not(modification)));
+        assertThat(modification.withModifiedFilesPreview(1, null), is(not(withOtherAction)));
+    }
+
+    private Modification modificationWithFiles(int numberOfFiles) {
+        Modification modification = new Modification("user", "comment", "foo@bar.com", new Date(), "rev");
+        for (int i = 0; i < numberOfFiles; i++) {
+            modification.createModifiedFile("file" + i, "folder", ModifiedAction.added);
+        }
+        return modification;
+    }
 }
@@ -195,6 +195,17 @@ public class ModificationsTest {
         assertThat(modifications.shouldBeIgnoredByFilterIn(materialConfig), is(false));
     }
 
+    @Test
+    public void shouldCheckModifiedFilesLeftOutOfThePreviewAgainstTheFilter() {
+        HgMaterialConfig materialConfig = MaterialConfigsMother.hgMaterialConfig();
+        materialConfig.setFilter(new Filter(Arrays.asList(new IgnoredFiles("*.doc"))));
+        Modification modification = aCheckIn("100", "a.doc", "b.doc", "a.java");
+        Modifications modifications = new Modifications(modification.withModifiedFilesPreview(2,
+                (modificationId, offset, limit) -> modification.getModifiedFiles().subList(offset, Math.min(offset + limit, 3))));
+
+        assertThat(modifications.shouldBeIgnoredByFilterIn(materialConfig), is(false));
+    }
+
     @Test
     public void shouldIgnoreModificationsIfAllTheIgnoresMatch() {
         HgMaterialConfig materialConfig = MaterialConfigsMother.hgMaterialConfig();
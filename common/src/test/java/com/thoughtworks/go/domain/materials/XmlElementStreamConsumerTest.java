@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials;
+
+import org.jdom2.input.SAXBuilder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class XmlElementStreamConsumerTest {
+    private final List<String> revisions = new ArrayList<>();
+    private final XmlElementStreamConsumer consumer = new XmlElementStreamConsumer("logentry", new SAXBuilder(),
+            logEntry -> revisions.add(logEntry.getAttributeValue("revision") + ":" + logEntry.getChildText("msg")));
+
+    @Test
+    public void shouldHandOverEachElementAsSoonAsItIsComplete() {
+        consumer.consumeLine("<?xml version=\"1.0\"?>");
+        consumer.consumeLine("<log>");
+        consumer.consumeLine("<logentry");
+        consumer.consumeLine("   revision=\"3\">");
+        consumer.consumeLine("<msg>first line");
+        consumer.consumeLine("&lt;/logentry&gt; second line</msg>");
+        assertThat(revisions.isEmpty(), is(true));
+
+        consumer.consumeLine("</logentry>");
+        assertThat(revisions, contains("3:first line\n</logentry> second line"));
+    }
+
+    @Test
+    public void shouldSplitElementsSharingALine() {
+        consumer.consumeLine("<logentries><logentry revision=\"1\"><msg>one</msg></logentry><logentry revision=\"2\">");
+        consumer.consumeLine("<msg>two</msg></logentry><logentry revision=\"3\"><msg>three</msg></logentry></logentries>");
+        consumer.finish();
+
+        assertThat(revisions, contains("1:one", "2:two", "3:three"));
+    }
+
+    @Test
+    public void shouldFailOnFinishWhenAnElementCouldNotBeParsed() {
+        consumer.consumeLine("<logentry revision=\"1\"><msg>one</logentry>");
+        consumer.consumeLine("<logentry revision=\"2\"><msg>two</msg></logentry>");
+
+        try {
+            consumer.finish();
+            fail("should have failed on the broken log entry");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("Unable to parse logentry: <logentry revision=\"1\">"));
+        }
+    }
+
+    @Test
+    public void shouldFailOnFinishWhenTheOutputEndsInTheMiddleOfAnElement() {
+        consumer.consumeLine("<logentry revision=\"1\"><msg>one</msg>");
+
+        try {
+            consumer.finish();
+            fail("should have failed on the incomplete log entry");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("Output ended in the middle of a logentry"));
+        }
+    }
+
+    @Test
+    public void shouldIgnoreElementsWhoseNamesOnlyStartWithTheElementName() {
+        consumer.consumeLine("<logentryheader>ignored</logentryheader><logentry revision=\"1\"><msg>one</msg></logentry>");
+        consumer.finish();
+
+        assertThat(revisions, contains("1:one"));
+    }
+}
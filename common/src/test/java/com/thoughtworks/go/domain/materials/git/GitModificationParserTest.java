@@ -16,17 +16,24 @@
 package com.thoughtworks.go.domain.materials.git;
 
 import com.thoughtworks.go.domain.materials.Modification;
-import com.thoughtworks.go.junit5.FileSource;
+import com.thoughtworks.go.domain.materials.ModifiedFile;
 import com.thoughtworks.go.util.DateUtils;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
 class GitModificationParserTest {
+    private static final String FIRST_COMMIT = commit("9fef97af1cd3a8920fefe5f656cb5795d690ee1b", "Chris Turner", "cturner@thoughtworks.com",
+        "Added remote file", "Added remote file\n", "This is signing message with\nmultiple lines\n")
+        + files("M", "README.md", "A", "dir with spaces/remote file");
+    private static final String SECOND_COMMIT = commit("ewehsjf232349fef97af1cd3a8920fefe5f656cb57", "Bob Ford", "bford@thoughtworks.com",
+        "Initial commit", "Initial commit\n\n  - Added remote file\n  - Added .gitignore\n", "")
+        + files("A", ".gitignore", "D", "old-file");
 
     @Test
     void shouldReturnEmptyListPassedANull() {
@@ -42,10 +49,9 @@ class GitModificationParserTest {
         assertThat(list).isEmpty();
     }
 
-    @ParameterizedTest
-    @FileSource(files = "/git/log.yaml")
-    void shouldParseTheYaml(String inputYaml) {
-        List<Modification> modifications = new GitModificationParser().parse(inputYaml);
+    @Test
+    void shouldParseCommitsAndTheirModifiedFiles() {
+        List<Modification> modifications = new GitModificationParser().parse(FIRST_COMMIT + "\0" + SECOND_COMMIT);
 
         assertThat(modifications).hasSize(2);
 
@@ -66,6 +72,7 @@ class GitModificationParserTest {
             .containsEntry("committerName", "Chris Turner")
             .containsEntry("committerEmail", "cturner@thoughtworks.com")
             .containsEntry("commitDate", "2009-02-11 17:26:36 -0800");
+        assertThat(files(firstModification)).containsExactly("modified README.md", "added dir with spaces/remote file");
 
         Modification secondModification = modifications.get(1);
         assertThat(secondModification.getRevision()).isEqualTo("ewehsjf232349fef97af1cd3a8920fefe5f656cb57");
@@ -75,36 +82,88 @@ class GitModificationParserTest {
             "\n" +
             "  - Added remote file\n" +
             "  - Added .gitignore");
-
-        assertThat(secondModification.getModifiedTime()).isEqualTo(DateUtils.parseISO8601("2009-02-11 17:26:36 -0800"));
         assertThat(secondModification.getAdditionalDataMap())
             .hasSize(8)
             .containsEntry("subject", "Initial commit")
-            .containsEntry("signed", "N")
-            .containsEntry("signerName", null)
-            .containsEntry("signingKey", null)
-            .containsEntry("signingMessage", null)
-            .containsEntry("committerName", "Chris Turner")
-            .containsEntry("committerEmail", "cturner@thoughtworks.com")
-            .containsEntry("commitDate", "2009-02-11 17:26:36 -0800");
+            .containsEntry("signingMessage", null);
+        assertThat(files(secondModification)).containsExactly("added .gitignore", "deleted old-file");
     }
 
-    @ParameterizedTest
-    @FileSource(files = "/git/with-spaces-in-raw-body.yaml")
-    void shouldParseYamlWhereRawBodyStartWithSpaces(String inputYaml) {
-        List<Modification> modifications = new GitModificationParser().parse(inputYaml);
+    @Test
+    void shouldParseCommitsWithoutModifiedFiles() {
+        String emptyCommit = commit("e9ee30707d05dec3cfde8f663abcc1cd18002f75", "Bob Ford", "bford@thoughtworks.com", "empty", "empty\n", "");
+
+        List<Modification> modifications = new GitModificationParser().parse(emptyCommit + "\0" + SECOND_COMMIT);
 
         assertThat(modifications).hasSize(2);
-        String secondLastCommit = "Multiple space\n" +
+        assertThat(modifications.get(0).getModifiedFiles()).isEmpty();
+        assertThat(files(modifications.get(1))).containsExactly("added .gitignore", "deleted old-file");
+    }
+
+    @Test
+    void shouldPreserveLeadingSpacesInCommitMessages() {
+        String message = "Multiple space\n" +
             "     Five spaces\n" +
             "    Four spaces\n" +
             "   Three spaces\n" +
             "  Two spaces\n" +
             " One space\n" +
             "No space";
-        String lastCommit = "Added remote file";
+        String output = commit("9fef97af1cd3a8920fefe5f656cb5795d690ee1b", "Bob Ford", "bford@thoughtworks.com", "Multiple space", message + "\n", "");
+
+        List<Modification> modifications = new GitModificationParser().parse(output);
+
+        assertThat(modifications.get(0).getComment()).isEqualTo(message);
+    }
+
+    @Test
+    void shouldParseOutputFedOneLineAtATime() {
+        String output = FIRST_COMMIT + "\0" + SECOND_COMMIT;
+        List<Modification> streamed = new ArrayList<>();
+        GitModificationParser parser = new GitModificationParser(streamed::add);
+
+        String[] lines = output.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            parser.consumeLine(lines[i]);
+            if (i == 1) {
+                assertThat(streamed).isEmpty();
+            }
+        }
+        assertThat(streamed).hasSize(1);
+        assertThat(parser.finish()).isEmpty();
+
+        assertThat(streamed).hasSize(2);
+        assertThat(streamed.get(1).getComment()).isEqualTo(new GitModificationParser().parse(output).get(1).getComment());
+        assertThat(files(streamed.get(0))).containsExactly("modified README.md", "added dir with spaces/remote file");
+    }
+
+    @Test
+    void shouldFailOnTruncatedOutput() {
+        String truncated = FIRST_COMMIT.substring(0, FIRST_COMMIT.indexOf("Added remote file"));
+
+        assertThatThrownBy(() -> new GitModificationParser().parse(truncated))
+            .hasMessageContaining("Unable to parse git log output");
+    }
+
+    private static String commit(String hash, String author, String email, String subject, String body, String signingMessage) {
+        String date = "2009-02-11 17:26:36 -0800";
+        String[] fields = {hash, author, email, date, subject, body, "N", "", "", signingMessage, "Chris Turner", "cturner@thoughtworks.com", date};
+        return "\u001e" + String.join("\u001f", fields) + "\u001f";
+    }
+
+    private static String files(String... statusAndPaths) {
+        StringBuilder builder = new StringBuilder("\n");
+        for (String token : statusAndPaths) {
+            builder.append(token).append('\0');
+        }
+        return builder.toString();
+    }
 
-        assertThat(modifications.stream().map(Modification::getComment))
-            .contains(lastCommit, secondLastCommit);
+    private static List<String> files(Modification modification) {
+        List<String> files = new ArrayList<>();
+        for (ModifiedFile file : modification.getModifiedFiles()) {
+            files.add(file.getAction() + " " + file.getFileName());
+        }
+        return files;
     }
 }
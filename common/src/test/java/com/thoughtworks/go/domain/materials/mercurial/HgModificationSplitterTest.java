@@ -16,11 +16,11 @@
 package com.thoughtworks.go.domain.materials.mercurial;
 
 import java.util.List;
-import java.util.Arrays;
 import java.util.ArrayList;
 
 import com.thoughtworks.go.domain.materials.Modification;
-import com.thoughtworks.go.util.command.ConsoleResult;
+import com.thoughtworks.go.domain.materials.XmlElementStreamConsumer;
+import org.jdom2.input.SAXBuilder;
 import org.junit.Test;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -29,7 +29,10 @@ import org.joda.time.DateTime;
 public class HgModificationSplitterTest {
 
     @Test public void shouldBeAbleToParseModifications() throws Exception {
-        ConsoleResult result = new ConsoleResult(0, Arrays.asList(("<changeset>\n"
+        List<Modification> list = new ArrayList<>();
+        XmlElementStreamConsumer consumer = new XmlElementStreamConsumer("changeset", new SAXBuilder(),
+                changeset -> list.add(HgModificationSplitter.parseChangeset(changeset)));
+        for (String line : ("<changeset>\n"
                 + "<node>ca3ebb67f527c0ad7ed26b789056823d8b9af23f</node>\n"
                 + "<author>cruise</author>\n"
                 + "<date>Tue, 09 Dec 2008 18:56:14 +0800</date>\n"
@@ -44,9 +47,10 @@ public class HgModificationSplitterTest {
                 + "<deleted>\n"
                 + "</deleted>\n"
                 + "</files>\n"
-                + "</changeset>").split("\n")), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
-        HgModificationSplitter splitter = new HgModificationSplitter(result);
-        List<Modification> list = splitter.modifications();
+                + "</changeset>").split("\n")) {
+            consumer.consumeLine(line);
+        }
+        consumer.finish();
         assertThat(list.size(), is(1));
         assertThat(list.get(0).getModifiedTime(), is(new DateTime("2008-12-09T18:56:14+08:00").toDate()));
     }
@@ -18,6 +18,7 @@ package com.thoughtworks.go.util;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.ModifiedAction;
 import com.thoughtworks.go.domain.materials.ModifiedFile;
+import com.thoughtworks.go.domain.materials.XmlElementStreamConsumer;
 import org.apache.commons.io.IOUtils;
 import org.jdom2.input.SAXBuilder;
 import org.junit.Test;
@@ -25,6 +26,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -68,6 +70,23 @@ public class SvnLogXmlParserTest {
             + "</logentry>\n"
             + "</log>";
 
+    @Test
+    public void shouldStreamTheSameModificationsAsParsingTheWholeOutput() throws IOException {
+        String xml;
+        try (InputStream stream = getClass().getResourceAsStream("jemstep_svn_log.xml")) {
+            xml = IOUtils.toString(stream, UTF_8);
+        }
+        SvnLogXmlParser parser = new SvnLogXmlParser();
+        List<Modification> streamed = new ArrayList<>();
+        XmlElementStreamConsumer consumer = parser.streamingParser("", new SAXBuilder(), streamed::add);
+        for (String line : xml.split("\n")) {
+            consumer.consumeLine(line);
+        }
+        consumer.finish();
+
+        assertThat(streamed, is(parser.parse(xml, "", new SAXBuilder())));
+    }
+
     @Test
     public void shouldParseSvnLogContainingNullComments() throws IOException {
         String xml;
@@ -144,6 +144,73 @@ public class BasicCruiseConfig implements CruiseConfig {
         resetAllPipelineConfigsCache();
     }
 
+    @Override
+    public CruiseConfig copyForMerge() {
+        if (strategy instanceof MergeStrategy)
+            throw new RuntimeException("cannot copy an already merged configuration for merge");
+        BasicCruiseConfig copy = new BasicCruiseConfig();
+        ((BasicStrategy) copy.strategy).origin = strategy.getOrigin();
+        copy.serverConfig = serverConfig;
+        copy.elasticConfig = elasticConfig;
+        copy.packageRepositories = packageRepositories;
+        copy.scms = scms;
+        copy.configRepos = configRepos;
+        copy.artifactStores = artifactStores;
+        copy.secretConfigs = secretConfigs;
+        copy.groups = groups;
+        copy.templatesConfig = templatesConfig;
+        copy.environments = environments;
+        copy.md5 = md5;
+        copy.errors = errors;
+        copy.partials = new ArrayList<>(partials);
+        return copy;
+    }
+
+    @Override
+    public CruiseConfig copyForPartialReplacement() {
+        if (!(strategy instanceof MergeStrategy))
+            throw new RuntimeException("cannot copy a configuration which is not merged for partial replacement");
+        MergeStrategy mergeStrategy = (MergeStrategy) strategy;
+        BasicCruiseConfig copy = new BasicCruiseConfig();
+        copy.strategy = copy.new MergeStrategy(mergeStrategy.parts, mergeStrategy.forEdit);
+        copy.serverConfig = serverConfig;
+        copy.elasticConfig = elasticConfig;
+        copy.packageRepositories = packageRepositories;
+        copy.scms = scms;
+        copy.configRepos = new ConfigReposConfig();
+        copy.configRepos.addAll(configRepos);
+        copy.artifactStores = artifactStores;
+        copy.secretConfigs = secretConfigs;
+        copy.groups = new PipelineGroups(groups);
+        copy.templatesConfig = templatesConfig;
+        copy.environments = new EnvironmentsConfig();
+        copy.environments.addAll(environments);
+        copy.md5 = md5;
+        copy.partials = new ArrayList<>(partials);
+        return copy;
+    }
+
+    @Override
+    public void replacePartial(PartialConfig previous, PartialConfig replacement) {
+        if (!(strategy instanceof MergeStrategy))
+            throw new RuntimeException("cannot replace a partial in a configuration which is not merged");
+        ((MergeStrategy) strategy).replacePart(previous, replacement);
+        int index = indexOfSame(partials, previous);
+        if (index >= 0) {
+            partials.set(index, replacement);
+        }
+        resetAllPipelineConfigsCache();
+    }
+
+    private static <T> int indexOfSame(List<T> list, T item) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private List<PartialConfig> removePartialsThatDoNotCorrespondToTheCurrentConfigReposList(List<PartialConfig> partList) {
         List<Object> notToBeMerged = new ArrayList<>();
         for (PartialConfig partialConfig : partList) {
@@ -343,6 +410,120 @@ public class BasicCruiseConfig implements CruiseConfig {
             return environments;
         }
 
+        private void replacePart(PartialConfig previous, PartialConfig replacement) {
+            if (forEdit)
+                throw bomb("cannot replace a partial in a configuration merged for edit");
+            int index = indexOfSame(parts, previous);
+            if (index < 0)
+                throw bomb("cannot replace a partial which is not merged into this configuration");
+            parts.set(index, replacement);
+
+            Set<String> groupNames = new LinkedHashSet<>();
+            Set<CaseInsensitiveString> environmentNames = new LinkedHashSet<>();
+            for (PartialConfig part : Arrays.asList(previous, replacement)) {
+                part.getGroups().forEach(group -> groupNames.add(group.getGroup()));
+                part.getEnvironments().forEach(environment -> environmentNames.add(environment.name()));
+            }
+
+            // new collections, so that lookups cached on the old ones are not carried over
+            PipelineGroups remergedGroups = new PipelineGroups();
+            remergedGroups.addAll(groups);
+            for (String groupName : groupNames) {
+                remergePipelineConfigs(remergedGroups, groupName);
+            }
+            groups = remergedGroups;
+
+            EnvironmentsConfig remergedEnvironments = new EnvironmentsConfig();
+            remergedEnvironments.addAll(environments);
+            for (CaseInsensitiveString environmentName : environmentNames) {
+                remergeEnvironmentConfigs(remergedEnvironments, environmentName);
+            }
+            environments = remergedEnvironments;
+
+            SCMs remergedScms = new SCMs();
+            for (SCM scm : scms) {
+                if (scm.isLocal()) {
+                    remergedScms.add(scm);
+                }
+            }
+            for (PartialConfig part : this.parts) {
+                remergedScms.addAll(part.getScms());
+            }
+            scms = remergedScms;
+        }
+
+        // same grouping as mergePipelineConfigs, for a single group name: the local part first, then each part in order
+        private void remergePipelineConfigs(PipelineGroups groups, String groupName) {
+            int position = -1;
+            List<PipelineConfigs> contributions = new ArrayList<>();
+            for (int i = 0; i < groups.size(); i++) {
+                if (Objects.equals(groups.get(i).getGroup(), groupName)) {
+                    position = i;
+                    PipelineConfigs local = groups.get(i).getLocal();
+                    if (local != null) {
+                        contributions.add(local);
+                    }
+                    break;
+                }
+            }
+            for (PartialConfig part : this.parts) {
+                for (PipelineConfigs partPipesConf : part.getGroups()) {
+                    if (Objects.equals(partPipesConf.getGroup(), groupName)) {
+                        contributions.add(partPipesConf);
+                    }
+                }
+            }
+
+            if (contributions.isEmpty()) {
+                if (position >= 0) {
+                    groups.remove(position);
+                }
+                return;
+            }
+            PipelineConfigs remerged = contributions.size() == 1 ? contributions.get(0) : new MergePipelineConfigs(contributions);
+            if (position >= 0) {
+                groups.set(position, remerged);
+            } else {
+                groups.add(remerged);
+            }
+        }
+
+        // same grouping as mergeEnvironmentConfigs, for a single environment name
+        private void remergeEnvironmentConfigs(EnvironmentsConfig environments, CaseInsensitiveString environmentName) {
+            int position = -1;
+            List<EnvironmentConfig> contributions = new ArrayList<>();
+            for (int i = 0; i < environments.size(); i++) {
+                if (environments.get(i).name().equals(environmentName)) {
+                    position = i;
+                    EnvironmentConfig local = environments.get(i).getLocal();
+                    if (local != null) {
+                        contributions.add(local);
+                    }
+                    break;
+                }
+            }
+            for (PartialConfig part : this.parts) {
+                for (EnvironmentConfig partEnvConf : part.getEnvironments()) {
+                    if (partEnvConf.name().equals(environmentName)) {
+                        contributions.add(partEnvConf);
+                    }
+                }
+            }
+
+            if (contributions.isEmpty()) {
+                if (position >= 0) {
+                    environments.remove(position);
+                }
+                return;
+            }
+            EnvironmentConfig remerged = contributions.size() == 1 ? contributions.get(0) : new MergeEnvironmentConfig(contributions);
+            if (position >= 0) {
+                environments.set(position, remerged);
+            } else {
+                environments.add(remerged);
+            }
+        }
+
         private SCMs mergeScms() {
             SCMs scms = new SCMs();
             scms.addAll(BasicCruiseConfig.this.scms);
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * @understands the config annotations on a field and how to read and write its value, worked out once per field
+ */
+public class ConfigFieldMetadata {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final ConfigSubtag subtag;
+    private final ConfigAttribute attribute;
+    private final ConfigValue configValue;
+    private final ConfigReferenceElement referenceElement;
+    private final boolean configCollection;
+    private final boolean implicitCollection;
+    private final boolean typeHasConfigTag;
+    private final ConfigAttributeValue typeAttributeValue;
+    private final Constructor<?> typeStringConstructor;
+
+    public ConfigFieldMetadata(Field field) {
+        this.field = field;
+        field.setAccessible(true);
+        boolean instanceField = !Modifier.isStatic(field.getModifiers());
+        this.getter = instanceField ? getter(field) : null;
+        this.setter = instanceField && !Modifier.isFinal(field.getModifiers()) ? setter(field) : null;
+
+        Class<?> type = field.getType();
+        this.subtag = field.getAnnotation(ConfigSubtag.class);
+        this.attribute = field.getAnnotation(ConfigAttribute.class);
+        this.configValue = field.getAnnotation(ConfigValue.class);
+        this.referenceElement = field.getAnnotation(ConfigReferenceElement.class);
+        this.typeHasConfigTag = type.isAnnotationPresent(ConfigTag.class);
+        this.configCollection = subtag != null && type.isAnnotationPresent(ConfigCollection.class);
+        this.implicitCollection = configCollection && !(typeHasConfigTag || type.isAnnotationPresent(AttributeAwareConfigTag.class));
+        this.typeAttributeValue = type.getAnnotation(ConfigAttributeValue.class);
+        this.typeStringConstructor = typeAttributeValue == null ? null : stringConstructor(type);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return field.getName();
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public Object get(Object instance) {
+        try {
+            return getter == null ? field.get(instance) : (Object) getter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw bomb("Error getting configField: " + field.getName(), e);
+        }
+    }
+
+    public void set(Object instance, Object value) {
+        try {
+            if (setter == null) {
+                field.set(instance, value);
+            } else {
+                setter.invokeExact(instance, value);
+            }
+        } catch (ClassCastException | NullPointerException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Can not set " + field.getType().getName() + " field " + field.getName() + " to " + value, e);
+        } catch (Throwable e) {
+            throw bomb("Error setting configField: " + field.getName(), e);
+        }
+    }
+
+    public Object newAttributeValue(Object value) {
+        if (typeStringConstructor == null) {
+            throw bomb("Error setting configField: " + field.getName() + " as " + field.getType());
+        }
+        try {
+            return typeStringConstructor.newInstance(value);
+        } catch (Exception e) {
+            throw bomb("Error creating configAttribute: " + field.getName() + " as " + field.getType(), e);
+        }
+    }
+
+    public boolean isSubtag() {
+        return subtag != null;
+    }
+
+    public boolean isAttribute() {
+        return attribute != null;
+    }
+
+    public boolean isConfigValue() {
+        return configValue != null;
+    }
+
+    public boolean isReferenceElement() {
+        return referenceElement != null;
+    }
+
+    public boolean isConfigCollection() {
+        return configCollection;
+    }
+
+    public boolean isImplicitCollection() {
+        return implicitCollection;
+    }
+
+    public boolean typeHasConfigTag() {
+        return typeHasConfigTag;
+    }
+
+    public ConfigSubtag getSubtag() {
+        return subtag;
+    }
+
+    public ConfigAttribute getAttribute() {
+        return attribute;
+    }
+
+    public ConfigValue getConfigValue() {
+        return configValue;
+    }
+
+    public ConfigReferenceElement getReferenceElement() {
+        return referenceElement;
+    }
+
+    public ConfigAttributeValue getTypeAttributeValue() {
+        return typeAttributeValue;
+    }
+
+    private static MethodHandle getter(Field field) {
+        try {
+            return LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle setter(Field field) {
+        try {
+            return LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Constructor<?> stringConstructor(Class<?> type) {
+        try {
+            return type.getConstructor(String.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -39,6 +39,24 @@ public interface CruiseConfig extends Validatable, ConfigOriginTraceable {
 
     void merge(List<PartialConfig> partList, boolean forEdit);
 
+    /**
+     * @return a config made of the very same sections as this one, to {@link #merge(List, boolean)} partials into
+     * without copying this config or changing it
+     */
+    CruiseConfig copyForMerge();
+
+    /**
+     * Replaces what an already merged partial contributed to this config with what its replacement contributes,
+     * leaving the groups, environments and scms of all other partials as they are
+     */
+    void replacePartial(PartialConfig previous, PartialConfig replacement);
+
+    /**
+     * @return a merged config made of the very same sections and partials as this one, in collections of its own, to
+     * {@link #replacePartial(PartialConfig, PartialConfig)} in without copying this config or changing it
+     */
+    CruiseConfig copyForPartialReplacement();
+
     @PostConstruct
     void initializeServer();
 
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.materials.dependency.DependencyMaterialConfig;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * @understands answering the frequent pipeline lookups on a config without walking all of its pipelines each time
+ */
+public class CruiseConfigIndex {
+    private final CruiseConfig config;
+    private final Map<CaseInsensitiveString, PipelineConfig> pipelinesByName = new HashMap<>();
+    private final Map<CaseInsensitiveString, PipelineConfigs> groupsByPipeline = new HashMap<>();
+    private final Map<String, List<CaseInsensitiveString>> pipelinesByMaterialFingerprint = new HashMap<>();
+    private final Map<CaseInsensitiveString, List<PipelineConfig>> downstreamsByPipeline = new HashMap<>();
+    private final Map<CaseInsensitiveString, List<CaseInsensitiveString>> pipelinesByTemplate = new HashMap<>();
+
+    public CruiseConfigIndex(CruiseConfig config) {
+        this.config = config;
+        for (PipelineConfigs group : config.getGroups()) {
+            for (PipelineConfig pipeline : group) {
+                groupsByPipeline.putIfAbsent(pipeline.name(), group);
+            }
+        }
+        for (PipelineConfig pipeline : config.getAllPipelineConfigs()) {
+            index(pipeline);
+        }
+    }
+
+    public boolean isFor(CruiseConfig config) {
+        return this.config == config;
+    }
+
+    public PipelineConfig pipelineNamed(CaseInsensitiveString pipelineName) {
+        return pipelinesByName.get(pipelineName);
+    }
+
+    public PipelineConfigs groupOf(CaseInsensitiveString pipelineName) {
+        return groupsByPipeline.get(pipelineName);
+    }
+
+    public List<CaseInsensitiveString> pipelinesWithMaterial(String fingerprint) {
+        return pipelinesByMaterialFingerprint.getOrDefault(fingerprint, emptyList());
+    }
+
+    public List<PipelineConfig> downstreamPipelinesOf(CaseInsensitiveString pipelineName) {
+        return downstreamsByPipeline.getOrDefault(pipelineName, emptyList());
+    }
+
+    public List<CaseInsensitiveString> pipelinesAssociatedWithTemplate(CaseInsensitiveString templateName) {
+        return pipelinesByTemplate.getOrDefault(templateName, emptyList());
+    }
+
+    private void index(PipelineConfig pipeline) {
+        pipelinesByName.putIfAbsent(pipeline.name(), pipeline);
+
+        Set<String> fingerprints = new HashSet<>();
+        Set<CaseInsensitiveString> upstreams = new HashSet<>();
+        for (MaterialConfig material : pipeline.materialConfigs()) {
+            if (fingerprints.add(material.getFingerprint())) {
+                pipelinesByMaterialFingerprint.computeIfAbsent(material.getFingerprint(), fingerprint -> new ArrayList<>()).add(pipeline.name());
+            }
+            if (material instanceof DependencyMaterialConfig && upstreams.add(((DependencyMaterialConfig) material).getPipelineName())) {
+                downstreamsByPipeline.computeIfAbsent(((DependencyMaterialConfig) material).getPipelineName(), upstream -> new ArrayList<>()).add(pipeline);
+            }
+        }
+
+        if (pipeline.hasTemplate()) {
+            pipelinesByTemplate.computeIfAbsent(pipeline.getTemplateName(), template -> new ArrayList<>()).add(pipeline.name());
+        }
+    }
+}
@@ -21,7 +21,6 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static org.apache.commons.lang3.StringUtils.capitalize;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -38,13 +37,8 @@ public class GoConfigClassWriter {
 
     public List<GoConfigFieldWriter> getAllFields(Object render) {
         ArrayList<GoConfigFieldWriter> fields = new ArrayList<>();
-        for (Field declaredField : configCache.getFieldCache().valuesFor(aClass)) {
-            try {
-                declaredField.setAccessible(true);
-                fields.add(new GoConfigFieldWriter(declaredField, declaredField.get(render), configCache, registry));
-            } catch (IllegalAccessException e) {
-                throw bomb(e);
-            }
+        for (ConfigFieldMetadata declaredField : configCache.getFieldCache().metadataFor(aClass)) {
+            fields.add(new GoConfigFieldWriter(declaredField, declaredField.get(render), configCache, registry));
         }
         return fields;
     }
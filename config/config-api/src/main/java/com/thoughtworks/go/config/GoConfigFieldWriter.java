@@ -32,38 +32,46 @@ import static java.text.MessageFormat.format;
 
 public class GoConfigFieldWriter {
     private final ConfigUtil configUtil = new ConfigUtil("magic");
+    private final ConfigFieldMetadata metadata;
     private Field configField;
     private final Object value;
     private SimpleTypeConverter typeConverter;
     private ConfigCache configCache;
     private final ConfigElementImplementationRegistry registry;
 
-    public GoConfigFieldWriter(Field declaredField, Object value, SimpleTypeConverter converter, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
-        this.configField = declaredField;
+    public GoConfigFieldWriter(ConfigFieldMetadata metadata, Object value, SimpleTypeConverter converter, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        this.metadata = metadata;
+        this.configField = metadata.getField();
         this.value = value;
-        this.configField.setAccessible(true);
         this.typeConverter = converter;
         this.configCache = configCache;
         this.registry = registry;
     }
 
+    public GoConfigFieldWriter(ConfigFieldMetadata metadata, Object value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        this(metadata, value, new GoConfigFieldTypeConverter(), configCache, registry);
+    }
+
     public GoConfigFieldWriter(Field declaredField, Object value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
-        this(declaredField, value, new GoConfigFieldTypeConverter(), configCache, registry);
+        this(new ConfigFieldMetadata(declaredField), value, configCache, registry);
     }
 
     public Field getConfigField() {
         return configField;
     }
 
+    public ConfigFieldMetadata getMetadata() {
+        return metadata;
+    }
+
     public String value() {
         if (isAttribute()) {
-            return ConfigCache.annotationFor(configField, ConfigAttribute.class).value();
+            return metadata.getAttribute().value();
         }
         throw bomb("Unknown type for field " + configField.getName());
     }
 
     public void setValueIfNotNull(Element e, Object o) {
-        configField.setAccessible(true);
         if (isSubtag()) {
             setFieldIfNotNull(configField, o, parseSubtag(e, configField));
         } else if (isAttribute()) {
@@ -165,15 +173,15 @@ private Collection parseCollection(Element e, Class<?> collectionType) {
     }
 
     public boolean isSubtag() {
-        return ConfigCache.isAnnotationPresent(configField, ConfigSubtag.class);
+        return metadata.isSubtag();
     }
 
     boolean isImplicitCollection() {
-        return isSubtag() && isConfigCollection(configField.getType()) && !ConfigCache.isAnnotationPresent(configField.getType(), ConfigTag.class);
+        return metadata.isConfigCollection() && !metadata.typeHasConfigTag();
     }
 
     boolean isConfigCollection() {
-        return isSubtag() && isConfigCollection(configField.getType());
+        return metadata.isConfigCollection();
     }
 
     private boolean isConfigCollection(Class<?> type) {
@@ -181,11 +189,11 @@ private Collection parseCollection(Element e, Class<?> collectionType) {
     }
 
     public boolean isAttribute() {
-        return ConfigCache.isAnnotationPresent(configField, ConfigAttribute.class);
+        return metadata.isAttribute();
     }
 
     public boolean isConfigValue() {
-        return ConfigCache.isAnnotationPresent(configField, ConfigValue.class);
+        return metadata.isConfigValue();
     }
 
     private boolean optionalAndMissingTag(Element e, Field field) {
@@ -73,6 +73,15 @@ public class GoConfigGraphWalker {
         walkSubtree(this.rootValidatable, new ConfigSaveValidationContext(null), handler);
     }
 
+    /**
+     * Walks a root which is part of a bigger config, handing its nodes the same contexts a walk of the whole config would
+     *
+     * @param parentContext the context of the root's parent, e.g. {@link ConfigSaveValidationContext#forChain} of the config and the collection holding the root
+     */
+    public void walk(ConfigSaveValidationContext parentContext, Handler handler) {
+        walkSubtree(this.rootValidatable, parentContext, handler);
+    }
+
     private void walkSubtree(Object current, ConfigSaveValidationContext context, Handler handler) {
         WalkedObject walkedObject = new WalkedObject(current);
         if (!walkedObject.shouldWalk()) {
@@ -42,12 +42,14 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
     private StageConfig stage;
     private JobConfig job;
     private MaterialConfigFingerprintMap materialConfigsFingerprintMap;
+    private final PipelineConfigSaveValidationContext lookupOwner;
 
     private PipelineConfigSaveValidationContext(Boolean isPipelineBeingCreated, String groupName, Validatable immediateParent) {
         this.isPipelineBeingCreated = isPipelineBeingCreated;
         this.groupName = groupName;
         this.immediateParent = immediateParent;
         this.parentContext = null;
+        this.lookupOwner = null;
     }
 
     private PipelineConfigSaveValidationContext(Validatable immediateParent, PipelineConfigSaveValidationContext parentContext) {
@@ -57,8 +59,12 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
         this.parentContext = parentContext;
         if (immediateParent instanceof BasicCruiseConfig) {
             this.cruiseConfig = (BasicCruiseConfig) immediateParent;
-        } else if (parentContext.cruiseConfig != null) {
-            this.cruiseConfig = parentContext.cruiseConfig;
+            this.lookupOwner = this;
+        } else {
+            if (parentContext.cruiseConfig != null) {
+                this.cruiseConfig = parentContext.cruiseConfig;
+            }
+            this.lookupOwner = parentContext.lookupOwner;
         }
         if (immediateParent instanceof PipelineConfig) {
             this.pipeline = (PipelineConfig) immediateParent;
@@ -174,6 +180,9 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
 
     @Override
     public MaterialConfigs getAllMaterialsByFingerPrint(String fingerprint) {
+        if (lookupOwner != null && lookupOwner != this) {
+            return lookupOwner.getAllMaterialsByFingerPrint(fingerprint);
+        }
         initMaterialConfigMap();
         return materialConfigsFingerprintMap.get(fingerprint);
     }
@@ -216,7 +225,43 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
         return getDependencies().keySet();
     }
 
+    /**
+     * @return the pipelines which depend on the given pipeline, directly or through other pipelines
+     */
+    public Set<CaseInsensitiveString> getPipelinesDownstreamOf(CaseInsensitiveString pipelineName) {
+        Map<CaseInsensitiveString, List<CaseInsensitiveString>> downstreams = getDirectDownstreams();
+        Set<CaseInsensitiveString> found = new LinkedHashSet<>();
+        Deque<CaseInsensitiveString> toVisit = new ArrayDeque<>();
+        toVisit.add(pipelineName);
+        while (!toVisit.isEmpty()) {
+            for (CaseInsensitiveString downstream : downstreams.getOrDefault(toVisit.remove(), Collections.emptyList())) {
+                if (found.add(downstream)) {
+                    toVisit.add(downstream);
+                }
+            }
+        }
+        return found;
+    }
+
+    private Map<CaseInsensitiveString, List<CaseInsensitiveString>> getDirectDownstreams() {
+        if (lookupOwner != null && lookupOwner != this) {
+            return lookupOwner.getDirectDownstreams();
+        }
+        if (directDownstreams == null) {
+            directDownstreams = new HashMap<>();
+            for (Map.Entry<CaseInsensitiveString, Node> pipelineDependencies : getDependencies().entrySet()) {
+                for (Node.DependencyNode upstream : pipelineDependencies.getValue().getDependencies()) {
+                    directDownstreams.computeIfAbsent(upstream.getPipelineName(), name -> new ArrayList<>()).add(pipelineDependencies.getKey());
+                }
+            }
+        }
+        return directDownstreams;
+    }
+
     private Hashtable<CaseInsensitiveString, Node> getDependencies() {
+        if (lookupOwner != null && lookupOwner != this) {
+            return lookupOwner.getDependencies();
+        }
         if (dependencies == null) {
             dependencies = new Hashtable<>();
             for (PipelineConfig pipeline : cruiseConfig.getAllPipelineConfigs()) {
@@ -227,6 +272,7 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
     }
 
     private Hashtable<CaseInsensitiveString, Node> dependencies;
+    private Map<CaseInsensitiveString, List<CaseInsensitiveString>> directDownstreams;
 
     public PipelineGroups getGroups() {
         return cruiseConfig.getGroups();
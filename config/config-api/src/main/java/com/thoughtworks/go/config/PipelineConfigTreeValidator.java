@@ -85,7 +85,8 @@ public class PipelineConfigTreeValidator {
 
     void validateDependencies(PipelineConfigSaveValidationContext validationContext) {
         if (validationContext.isPipelineBeingCreated()) return;
-        for (CaseInsensitiveString selected : validationContext.getPipelinesWithDependencyMaterials()) {
+        // only pipelines downstream of this one can refer to it, in a dependency material or in the path of a fetch task
+        for (CaseInsensitiveString selected : validationContext.getPipelinesDownstreamOf(pipelineConfig.name())) {
             if (selected.equals(pipelineConfig.name())) continue;
             PipelineConfig selectedPipeline = validationContext.getPipelineConfigByName(selected);
             validateDependencyMaterialsForDownstreams(validationContext, selected, selectedPipeline);
@@ -15,9 +15,12 @@
  */
 package com.thoughtworks.go.config.preprocessor;
 
+import com.thoughtworks.go.config.ConfigFieldMetadata;
+
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +42,12 @@ public abstract class ClassAttributeCache<K, T> {
     abstract T loadValues(K key);
 
     public static class FieldCache extends ClassAttributeCache<Class, List<Field>> {
+        private final ConcurrentMap<Class, List<ConfigFieldMetadata>> metadataCache = new ConcurrentHashMap<>();
+
+        public List<ConfigFieldMetadata> metadataFor(Class klass) {
+            return metadataCache.computeIfAbsent(klass, k -> Collections.unmodifiableList(valuesFor(k).stream().map(ConfigFieldMetadata::new).collect(Collectors.toList())));
+        }
+
         @Override
         List<Field> loadValues(Class klass) {
             List<Field> fields = new ArrayList<>();
@@ -15,26 +15,66 @@
  */
 package com.thoughtworks.go.util;
 
+import org.jdom2.JDOMException;
 import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.sax.XMLReaderJDOMFactory;
+import org.jdom2.input.sax.XMLReaderXSDFactory;
 
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Builds documents that are validated against the XSDs while they are parsed. The schemas are compiled once and
+ * reused for as long as the set of XSDs for a resource stays the same, rather than being re-read on every parse.
+ */
 class ValidatingSaxBuilder extends SAXBuilder {
-    public ValidatingSaxBuilder() {
-        this.setFeature("http://apache.org/xml/features/validation/schema", true);
-        this.setValidation(true);
+    private static final ConcurrentMap<String, CompiledSchema> COMPILED_SCHEMAS = new ConcurrentHashMap<>();
+
+    private ValidatingSaxBuilder(XMLReaderJDOMFactory readerFactory) {
+        super(readerFactory);
         this.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
     }
 
-    public ValidatingSaxBuilder(URL resource) throws URISyntaxException {
-        this();
-        this.setProperty("http://apache.org/xml/properties/schema/external-noNamespaceSchemaLocation", resource.toURI().toString());
+    static ValidatingSaxBuilder forSchema(URL resource) throws URISyntaxException, JDOMException {
+        return forSchema(resource, null);
     }
 
-    public ValidatingSaxBuilder(URL resource, String xsds) throws URISyntaxException {
-        this(resource);
-        this.setProperty("http://apache.org/xml/properties/schema/external-schemaLocation", xsds);
+    static ValidatingSaxBuilder forSchema(URL resource, String xsds) throws URISyntaxException, JDOMException {
+        String schemaLocation = resource.toURI().toString();
+        String otherXsds = isBlank(xsds) ? "" : xsds.trim();
+        CompiledSchema schema = COMPILED_SCHEMAS.get(schemaLocation);
+        if (schema == null || !schema.xsds.equals(otherXsds)) {
+            schema = new CompiledSchema(otherXsds, new XMLReaderXSDFactory(locations(schemaLocation, otherXsds)));
+            COMPILED_SCHEMAS.put(schemaLocation, schema);
+        }
+        return new ValidatingSaxBuilder(schema.readerFactory);
     }
 
+    private static String[] locations(String schemaLocation, String xsds) {
+        List<String> locations = new ArrayList<>();
+        locations.add(schemaLocation);
+        if (!xsds.isEmpty()) {
+            String[] namespacesAndLocations = xsds.split("\\s+");
+            for (int i = 1; i < namespacesAndLocations.length; i += 2) {
+                locations.add(namespacesAndLocations[i]);
+            }
+        }
+        return locations.toArray(new String[0]);
+    }
+
+    private static class CompiledSchema {
+        private final String xsds;
+        private final XMLReaderJDOMFactory readerFactory;
+
+        private CompiledSchema(String xsds, XMLReaderJDOMFactory readerFactory) {
+            this.xsds = xsds;
+            this.readerFactory = readerFactory;
+        }
+    }
 }
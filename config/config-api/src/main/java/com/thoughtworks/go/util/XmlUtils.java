@@ -42,11 +42,11 @@ public class XmlUtils {
     }
 
     public static Document buildXmlDocument(InputStream inputStream, URL resource, String xsds) throws Exception {
-        return buildXmlDocument(inputStream, new ValidatingSaxBuilder(resource, xsds));
+        return buildXmlDocument(inputStream, ValidatingSaxBuilder.forSchema(resource, xsds));
     }
 
     public static Document buildXmlDocument(String xmlContent, URL resource) throws Exception {
-        return buildXmlDocument(new ByteArrayInputStream(xmlContent.getBytes()), new ValidatingSaxBuilder(resource));
+        return buildXmlDocument(new ByteArrayInputStream(xmlContent.getBytes()), ValidatingSaxBuilder.forSchema(resource));
     }
 
     private static Document buildXmlDocument(InputStream inputStream, SAXBuilder builder) throws JDOMException, IOException {
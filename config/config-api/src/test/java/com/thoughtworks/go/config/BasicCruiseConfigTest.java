@@ -183,6 +183,63 @@ public class BasicCruiseConfigTest extends CruiseConfigTestBase {
         assertThat(cruiseConfig.getAllPipelineNames().contains(new CaseInsensitiveString("pipeline_in_repo2")), is(true));
     }
 
+    @Test
+    public void shouldMergePartialsIntoACopySharingTheSectionsOfTheOriginalConfig() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1", "p2");
+        ConfigRepoConfig repoConfig = ConfigRepoConfig.createConfigRepoConfig(MaterialConfigsMother.gitMaterialConfig("url1"), "plugin", "id-1");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(repoConfig));
+        PartialConfig partialConfig = PartialConfigMother.withPipeline("pipeline_in_repo", new RepoConfigOrigin(repoConfig, "repo_r1"));
+
+        CruiseConfig merged = cruiseConfig.copyForMerge();
+        merged.merge(asList(partialConfig), true);
+
+        assertThat(merged.getAllPipelineNames(), hasItems(new CaseInsensitiveString("p1"), new CaseInsensitiveString("pipeline_in_repo")));
+        assertThat(merged.pipelineConfigByName(new CaseInsensitiveString("p1")), sameInstance(cruiseConfig.pipelineConfigByName(new CaseInsensitiveString("p1"))));
+        assertThat(merged.server(), sameInstance(cruiseConfig.server()));
+        assertThat(cruiseConfig.getAllPipelineNames(), not(hasItem(new CaseInsensitiveString("pipeline_in_repo"))));
+        assertThat(cruiseConfig.isLocal(), is(true));
+    }
+
+    @Test
+    public void shouldReplaceOnePartialKeepingWhatOtherPartialsContributeToTheSameGroup() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1");
+        ConfigRepoConfig repoConfig1 = ConfigRepoConfig.createConfigRepoConfig(MaterialConfigsMother.gitMaterialConfig("url1"), "plugin", "id-1");
+        ConfigRepoConfig repoConfig2 = ConfigRepoConfig.createConfigRepoConfig(MaterialConfigsMother.gitMaterialConfig("url2"), "plugin", "id-2");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(repoConfig1, repoConfig2));
+        PartialConfig partialConfigInRepo1 = PartialConfigMother.withPipeline("pipeline_in_repo1", new RepoConfigOrigin(repoConfig1, "repo1_r1"));
+        PartialConfig partialConfigInRepo2 = PartialConfigMother.withPipeline("pipeline_in_repo2", new RepoConfigOrigin(repoConfig2, "repo2_r1"));
+        cruiseConfig.merge(asList(partialConfigInRepo1, partialConfigInRepo2), false);
+        cruiseConfig.getAllPipelineNames();
+
+        PartialConfig replacement = PartialConfigMother.withPipeline("pipeline_in_repo1_r2", new RepoConfigOrigin(repoConfig1, "repo1_r2"));
+        cruiseConfig.replacePartial(partialConfigInRepo1, replacement);
+
+        assertThat(cruiseConfig.getAllPipelineNames(), hasItems(new CaseInsensitiveString("p1"), new CaseInsensitiveString("pipeline_in_repo1_r2"), new CaseInsensitiveString("pipeline_in_repo2")));
+        assertThat(cruiseConfig.getAllPipelineNames(), not(hasItem(new CaseInsensitiveString("pipeline_in_repo1"))));
+        assertThat(cruiseConfig.findGroup("group").size(), is(2));
+        assertThat(cruiseConfig.getMergedPartials(), contains(sameInstance(replacement), sameInstance(partialConfigInRepo2)));
+    }
+
+    @Test
+    public void shouldReplaceAPartialInACopyWithoutChangingTheOriginal() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1");
+        ConfigRepoConfig repoConfig = ConfigRepoConfig.createConfigRepoConfig(MaterialConfigsMother.gitMaterialConfig("url1"), "plugin", "id-1");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(repoConfig));
+        PartialConfig partialConfigInRepo = PartialConfigMother.withPipeline("pipeline_in_repo", new RepoConfigOrigin(repoConfig, "repo_r1"));
+        cruiseConfig.merge(asList(partialConfigInRepo), false);
+
+        CruiseConfig copy = cruiseConfig.copyForPartialReplacement();
+        PartialConfig replacement = PartialConfigMother.withPipeline("pipeline_in_repo_r2", new RepoConfigOrigin(repoConfig, "repo_r2"));
+        copy.replacePartial(partialConfigInRepo, replacement);
+
+        assertThat(copy.getAllPipelineNames(), hasItems(new CaseInsensitiveString("p1"), new CaseInsensitiveString("pipeline_in_repo_r2")));
+        assertThat(copy.pipelineConfigByName(new CaseInsensitiveString("p1")), sameInstance(cruiseConfig.pipelineConfigByName(new CaseInsensitiveString("p1"))));
+        assertThat(cruiseConfig.getAllPipelineNames(), hasItem(new CaseInsensitiveString("pipeline_in_repo")));
+        assertThat(cruiseConfig.getAllPipelineNames(), not(hasItem(new CaseInsensitiveString("pipeline_in_repo_r2"))));
+        assertThat(cruiseConfig.getMergedPartials(), contains(sameInstance(partialConfigInRepo)));
+        assertThat(copy.getConfigRepos(), not(sameInstance(cruiseConfig.getConfigRepos())));
+    }
+
     @Test
     public void shouldRejectRemotePipelinesNotOriginatingFromRegisteredConfigReposFromCachedPipelineConfigs() {
         BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1", "p2");
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.preprocessor.ClassAttributeCache;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ConfigFieldMetadataTest {
+
+    @Test
+    public void shouldReadAndWritePrivateFields() throws Exception {
+        ConfigFieldMetadata name = new ConfigFieldMetadata(Widget.class.getDeclaredField("name"));
+        ConfigFieldMetadata count = new ConfigFieldMetadata(Widget.class.getDeclaredField("count"));
+        Widget widget = new Widget();
+
+        name.set(widget, "up42");
+        count.set(widget, 7);
+
+        assertThat(name.get(widget), is("up42"));
+        assertThat(count.get(widget), is(7));
+        assertThat(widget.count, is(7));
+    }
+
+    @Test
+    public void shouldReadStaticFieldsWithoutAnInstance() throws Exception {
+        ConfigFieldMetadata constant = new ConfigFieldMetadata(Widget.class.getDeclaredField("TAG"));
+
+        assertThat(constant.get(null), is("widget"));
+    }
+
+    @Test
+    public void shouldWorkOutHowAFieldIsMappedToXml() throws Exception {
+        ConfigFieldMetadata name = new ConfigFieldMetadata(Widget.class.getDeclaredField("name"));
+        ConfigFieldMetadata description = new ConfigFieldMetadata(Widget.class.getDeclaredField("description"));
+        ConfigFieldMetadata parts = new ConfigFieldMetadata(Widget.class.getDeclaredField("parts"));
+        ConfigFieldMetadata labels = new ConfigFieldMetadata(Widget.class.getDeclaredField("labels"));
+
+        assertThat(name.isAttribute(), is(true));
+        assertThat(name.getAttribute().value(), is("name"));
+        assertThat(description.isConfigValue(), is(true));
+        assertThat(parts.isSubtag(), is(true));
+        assertThat(parts.isConfigCollection(), is(true));
+        assertThat(parts.isImplicitCollection(), is(false));
+        assertThat(labels.isConfigCollection(), is(true));
+        assertThat(labels.isImplicitCollection(), is(true));
+        assertThat(labels.getReferenceElement(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldComputeMetadataForAClassOnlyOnce() {
+        ClassAttributeCache.FieldCache fieldCache = new ClassAttributeCache.FieldCache();
+
+        List<ConfigFieldMetadata> metadata = fieldCache.metadataFor(Widget.class);
+
+        assertThat(metadata.size(), is(6));
+        assertThat(fieldCache.metadataFor(Widget.class), sameInstance(metadata));
+    }
+
+    @ConfigTag("widget")
+    private static class Widget {
+        private static final String TAG = "widget";
+
+        @ConfigAttribute(value = "name", allowNull = true)
+        private String name;
+
+        @ConfigAttribute(value = "count", allowNull = true)
+        private int count;
+
+        @ConfigValue
+        private String description;
+
+        @ConfigSubtag
+        private Parts parts = new Parts();
+
+        @ConfigSubtag
+        private Labels labels = new Labels();
+    }
+
+    @ConfigTag("parts")
+    @ConfigCollection(String.class)
+    private static class Parts extends ArrayList<String> {
+    }
+
+    @ConfigCollection(String.class)
+    private static class Labels extends ArrayList<String> {
+    }
+}
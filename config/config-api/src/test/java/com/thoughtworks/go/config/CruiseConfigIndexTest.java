@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.materials.MaterialConfigs;
+import com.thoughtworks.go.config.materials.dependency.DependencyMaterialConfig;
+import com.thoughtworks.go.config.materials.git.GitMaterialConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static com.thoughtworks.go.helper.PipelineConfigMother.pipelineConfig;
+import static com.thoughtworks.go.helper.PipelineConfigMother.pipelineConfigWithTemplate;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class CruiseConfigIndexTest {
+    private BasicCruiseConfig config;
+    private GitMaterialConfig git;
+    private PipelineConfig up;
+    private PipelineConfig down;
+
+    @Before
+    public void setUp() {
+        config = new BasicCruiseConfig();
+        git = git("https://foo");
+        up = pipelineConfig("up", new MaterialConfigs(git));
+        down = pipelineConfig("down", new MaterialConfigs(git, dependencyOn("up", "first"), dependencyOn("up", "second")));
+        config.addPipeline("group1", up);
+        config.addPipeline("group2", down);
+        config.addPipeline("group2", pipelineConfigWithTemplate("templated", "template1"));
+    }
+
+    @Test
+    public void shouldFindPipelinesAndTheirGroupsByName() {
+        CruiseConfigIndex index = new CruiseConfigIndex(config);
+
+        assertThat(index.pipelineNamed(new CaseInsensitiveString("UP")), is(sameInstance(up)));
+        assertThat(index.groupOf(new CaseInsensitiveString("down")).getGroup(), is("group2"));
+        assertThat(index.pipelineNamed(new CaseInsensitiveString("missing")), is(nullValue()));
+        assertThat(index.groupOf(new CaseInsensitiveString("missing")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldListEachPipelineOnceForAMaterialAndADownstreamDependency() {
+        CruiseConfigIndex index = new CruiseConfigIndex(config);
+
+        assertThat(index.pipelinesWithMaterial(git.getFingerprint()), contains(new CaseInsensitiveString("up"), new CaseInsensitiveString("down")));
+        assertThat(index.downstreamPipelinesOf(new CaseInsensitiveString("up")), contains(down));
+        assertThat(index.downstreamPipelinesOf(new CaseInsensitiveString("down")), is(empty()));
+        assertThat(index.pipelinesWithMaterial("unknown-fingerprint"), is(empty()));
+    }
+
+    @Test
+    public void shouldFindPipelinesUsingATemplate() {
+        CruiseConfigIndex index = new CruiseConfigIndex(config);
+
+        assertThat(index.pipelinesAssociatedWithTemplate(new CaseInsensitiveString("template1")), contains(new CaseInsensitiveString("templated")));
+        assertThat(index.pipelinesAssociatedWithTemplate(new CaseInsensitiveString("template2")), is(empty()));
+    }
+
+    @Test
+    public void shouldOnlyBeValidForTheConfigItWasBuiltFrom() {
+        CruiseConfigIndex index = new CruiseConfigIndex(config);
+
+        assertThat(index.isFor(config), is(true));
+        assertThat(index.isFor(new BasicCruiseConfig()), is(false));
+    }
+
+    private DependencyMaterialConfig dependencyOn(String pipeline, String stage) {
+        return new DependencyMaterialConfig(new CaseInsensitiveString(pipeline), new CaseInsensitiveString(stage));
+    }
+}
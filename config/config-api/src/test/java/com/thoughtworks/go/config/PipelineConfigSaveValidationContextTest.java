@@ -110,6 +110,35 @@ public class PipelineConfigSaveValidationContextTest {
         assertThat(context.getDependencyMaterialsFor(new CaseInsensitiveString("junk")).getDependencies().isEmpty(), is(true));
     }
 
+    @Test
+    public void shouldGetPipelinesDownstreamOfAPipelineThroughOtherPipelines() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1", "p2", "p3", "p4");
+        PipelineConfig p2 = cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p2"));
+        p2.addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p1"), new CaseInsensitiveString("stage")));
+        PipelineConfig p3 = cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p3"));
+        p3.addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p2"), new CaseInsensitiveString("stage")));
+        PipelineConfigSaveValidationContext context = PipelineConfigSaveValidationContext.forChain(true, "group", cruiseConfig);
+
+        assertThat(context.getPipelinesDownstreamOf(new CaseInsensitiveString("p1")), contains(new CaseInsensitiveString("p2"), new CaseInsensitiveString("p3")));
+        assertThat(context.getPipelinesDownstreamOf(new CaseInsensitiveString("p3")).isEmpty(), is(true));
+        assertThat(context.getPipelinesDownstreamOf(new CaseInsensitiveString("p4")).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldShareConfigLookupsWithContextsForChildren() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1", "p2");
+        PipelineConfig p2 = cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p2"));
+        p2.addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p1"), new CaseInsensitiveString("stage")));
+        PipelineConfigSaveValidationContext context = PipelineConfigSaveValidationContext.forChain(true, "group", cruiseConfig);
+        PipelineConfigSaveValidationContext childContext = context.withParent(p2).withParent(p2.getFirstStageConfig());
+
+        Node dependencies = context.getDependencyMaterialsFor(new CaseInsensitiveString("p2"));
+        MaterialConfig material = p2.materialConfigs().first();
+
+        assertThat(childContext.getDependencyMaterialsFor(new CaseInsensitiveString("p2")) == dependencies, is(true));
+        assertThat(childContext.getAllMaterialsByFingerPrint(material.getFingerprint()) == context.getAllMaterialsByFingerPrint(material.getFingerprint()), is(true));
+    }
+
     @Test
     public void shouldGetParentDisplayName(){
         assertThat(PipelineConfigSaveValidationContext.forChain(true, "group", new PipelineConfig()).getParentDisplayName(), is("pipeline"));
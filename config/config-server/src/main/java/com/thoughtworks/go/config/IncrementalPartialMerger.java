@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.exceptions.GoConfigInvalidMergeException;
+import com.thoughtworks.go.config.preprocessor.ConfigParamPreprocessor;
+import com.thoughtworks.go.config.remote.ConfigRepoConfig;
+import com.thoughtworks.go.config.remote.PartialConfig;
+import com.thoughtworks.go.config.remote.RepoConfigOrigin;
+import com.thoughtworks.go.domain.ConfigErrors;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.util.DFSCycleDetector;
+import com.thoughtworks.go.util.Node;
+import com.thoughtworks.go.util.PipelineDependencyState;
+
+import java.util.*;
+
+/**
+ * @understands bringing a processed, merged config up to date with a new revision of one of its partials,
+ * without merging the other partials again and validating only what the new revision can affect
+ */
+public class IncrementalPartialMerger {
+    private static final GoConfigCloner CLONER = new GoConfigCloner();
+    private final TemplateExpansionPreprocessor templateExpansionPreprocessor = new TemplateExpansionPreprocessor();
+    private final ConfigParamPreprocessor configParamPreprocessor = new ConfigParamPreprocessor();
+
+    /**
+     * @param processedConfig a preprocessed and valid config, which is left unchanged
+     * @param replacement     the partial to merge, owned by the merged config from now on
+     * @return a copy of the processed config with the partial of the replacement's config repository replaced, or null
+     * when no partial of that config repository is merged into the config yet or when the replacement changes its SCMs,
+     * which are only checked against each other by a full merge
+     * @throws GoConfigInvalidMergeException when the replacement makes the config invalid
+     */
+    public CruiseConfig replace(CruiseConfig processedConfig, PartialConfig replacement) {
+        if (processedConfig.isLocal() || !(replacement.getOrigin() instanceof RepoConfigOrigin)) {
+            return null;
+        }
+        PartialConfig previous = findByFingerprint(processedConfig.getMergedPartials(), fingerprintOf(replacement));
+        if (previous == null || !previous.getScms().equals(replacement.getScms())) {
+            return null;
+        }
+        Changes changes = new Changes(processedConfig, previous, replacement);
+
+        CruiseConfig merged = processedConfig.copyForPartialReplacement();
+        for (PipelineConfig pipelineConfig : pipelinesOf(replacement)) {
+            templateExpansionPreprocessor.process(merged, pipelineConfig);
+            configParamPreprocessor.process(pipelineConfig);
+        }
+        merged.replacePartial(previous, replacement);
+        copySectionsToValidate(merged, changes);
+
+        List<ConfigErrors> allErrors = validateChanges(merged, changes);
+        if (!allErrors.isEmpty()) {
+            throw new GoConfigInvalidMergeException(merged, merged.getMergedPartials(), allErrors);
+        }
+        return merged;
+    }
+
+    // the merged config shares everything else with the processed config, validation errors must not end up there
+    private void copySectionsToValidate(CruiseConfig merged, Changes changes) {
+        List<Integer> groupIndexes = new ArrayList<>();
+        List<Object> sections = new ArrayList<>();
+        for (int i = 0; i < merged.getGroups().size(); i++) {
+            if (changes.groupNames.contains(merged.getGroups().get(i).getGroup())) {
+                groupIndexes.add(i);
+                sections.add(merged.getGroups().get(i));
+            }
+        }
+        List<Integer> environmentIndexes = new ArrayList<>();
+        for (int i = 0; i < merged.getEnvironments().size(); i++) {
+            if (changes.environmentNames.contains(merged.getEnvironments().get(i).name())) {
+                environmentIndexes.add(i);
+                sections.add(merged.getEnvironments().get(i));
+            }
+        }
+        List<Integer> configRepoIndexes = new ArrayList<>();
+        for (int i = 0; i < merged.getConfigRepos().size(); i++) {
+            ConfigRepoConfig configRepo = merged.getConfigRepos().get(i);
+            if (configRepo.getRepo() != null && changes.materialFingerprints.contains(configRepo.getRepo().getFingerprint())) {
+                configRepoIndexes.add(i);
+                sections.add(configRepo);
+            }
+        }
+
+        // one clone, so that sections referring to each other still do so
+        List<Object> copies = CLONER.deepClone(sections);
+        Iterator<Object> copy = copies.iterator();
+        groupIndexes.forEach(index -> merged.getGroups().set(index, (PipelineConfigs) copy.next()));
+        environmentIndexes.forEach(index -> merged.getEnvironments().set(index, (EnvironmentConfig) copy.next()));
+        configRepoIndexes.forEach(index -> merged.getConfigRepos().set(index, (ConfigRepoConfig) copy.next()));
+    }
+
+    private List<ConfigErrors> validateChanges(CruiseConfig merged, Changes changes) {
+        List<ConfigErrors> walkedErrors = new ArrayList<>();
+        ErrorCollectingHandler handler = new ErrorCollectingHandler(walkedErrors) {
+            @Override
+            public void handleValidation(Validatable validatable, ValidationContext context) {
+                validatable.validate(context);
+            }
+        };
+
+        // rules across all groups and all environments, like unique names and environments referring to existing pipelines
+        ConfigSaveValidationContext configContext = ConfigSaveValidationContext.forChain(merged);
+        handler.handle(merged.getGroups(), configContext);
+        handler.handle(merged.getEnvironments(), configContext);
+
+        ConfigSaveValidationContext groupsContext = configContext.withParent(merged.getGroups());
+        for (PipelineConfigs group : merged.getGroups()) {
+            if (changes.groupNames.contains(group.getGroup())) {
+                new GoConfigGraphWalker(group).walk(groupsContext, handler);
+            }
+        }
+        ConfigSaveValidationContext environmentsContext = configContext.withParent(merged.getEnvironments());
+        for (EnvironmentConfig environment : merged.getEnvironments()) {
+            if (changes.environmentNames.contains(environment.name())) {
+                new GoConfigGraphWalker(environment).walk(environmentsContext, handler);
+            }
+        }
+        ConfigSaveValidationContext configReposContext = configContext.withParent(merged.getConfigRepos());
+        for (ConfigRepoConfig configRepo : merged.getConfigRepos()) {
+            if (configRepo.getRepo() != null && changes.materialFingerprints.contains(configRepo.getRepo().getFingerprint())) {
+                new GoConfigGraphWalker(configRepo).walk(configReposContext, handler);
+            }
+        }
+        validateNoCyclicDependencies(merged, changes);
+
+        // the rules across groups and environments can add errors to any of them, walked or not
+        Set<ConfigErrors> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ConfigErrors> allErrors = new ArrayList<>();
+        walkedErrors.forEach(errors -> collect(errors, collected, allErrors));
+        collect(merged.getGroups().errors(), collected, allErrors);
+        for (PipelineConfigs group : merged.getGroups()) {
+            collect(group.errors(), collected, allErrors);
+            for (PipelineConfig pipelineConfig : group) {
+                collect(pipelineConfig.errors(), collected, allErrors);
+                collect(pipelineConfig.materialConfigs().errors(), collected, allErrors);
+            }
+        }
+        collect(merged.getEnvironments().errors(), collected, allErrors);
+        for (EnvironmentConfig environment : merged.getEnvironments()) {
+            collect(environment.errors(), collected, allErrors);
+        }
+        return allErrors;
+    }
+
+    // a cycle made by the new revision has to go through one of its pipelines
+    private void validateNoCyclicDependencies(CruiseConfig merged, Changes changes) {
+        Hashtable<CaseInsensitiveString, Node> dependencyTable = merged.getDependencyTable();
+        PipelineDependencyState dependencyState = new PipelineDependencyState() {
+            @Override
+            public boolean hasPipeline(CaseInsensitiveString key) {
+                return dependencyTable.containsKey(key);
+            }
+
+            @Override
+            public Node getDependencyMaterials(CaseInsensitiveString pipeline) {
+                return dependencyTable.get(pipeline);
+            }
+        };
+        Set<String> reported = new HashSet<>();
+        for (PipelineConfigs group : merged.getGroups()) {
+            for (PipelineConfig pipelineConfig : group) {
+                if (!changes.replacementPipelines.contains(pipelineConfig.name())) {
+                    continue;
+                }
+                try {
+                    new DFSCycleDetector().topoSort(pipelineConfig.name(), dependencyState);
+                } catch (Exception e) {
+                    // like a full validation, report each cycle on one pipeline only
+                    if (reported.add(e.getMessage())) {
+                        pipelineConfig.materialConfigs().addError("base", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void collect(ConfigErrors errors, Set<ConfigErrors> collected, List<ConfigErrors> allErrors) {
+        if (!errors.isEmpty() && collected.add(errors)) {
+            allErrors.add(errors);
+        }
+    }
+
+    private List<PipelineConfig> pipelinesOf(PartialConfig partial) {
+        List<PipelineConfig> pipelines = new ArrayList<>();
+        for (PipelineConfigs group : partial.getGroups()) {
+            pipelines.addAll(group.getPipelines());
+        }
+        return pipelines;
+    }
+
+    private PartialConfig findByFingerprint(List<PartialConfig> partials, String fingerprint) {
+        for (PartialConfig partial : partials) {
+            if (partial.getOrigin() instanceof RepoConfigOrigin && fingerprintOf(partial).equals(fingerprint)) {
+                return partial;
+            }
+        }
+        return null;
+    }
+
+    private String fingerprintOf(PartialConfig partial) {
+        MaterialConfig material = ((RepoConfigOrigin) partial.getOrigin()).getMaterial();
+        return material.getFingerprint();
+    }
+
+    /**
+     * @understands which sections of the merged config a new revision of a partial can make invalid, worked out on
+     * the config it is merged into
+     */
+    private class Changes {
+        private final Set<CaseInsensitiveString> replacementPipelines = new HashSet<>();
+        private final Set<String> groupNames = new HashSet<>();
+        private final Set<CaseInsensitiveString> environmentNames = new HashSet<>();
+        private final Set<String> materialFingerprints = new HashSet<>();
+
+        private Changes(CruiseConfig processedConfig, PartialConfig previous, PartialConfig replacement) {
+            Set<CaseInsensitiveString> changedPipelines = new LinkedHashSet<>();
+            for (PartialConfig part : Arrays.asList(previous, replacement)) {
+                pipelinesOf(part).forEach(pipelineConfig -> changedPipelines.add(pipelineConfig.name()));
+                part.getGroups().forEach(group -> groupNames.add(group.getGroup()));
+                part.getEnvironments().forEach(environment -> environmentNames.add(environment.name()));
+            }
+            for (PipelineConfig pipelineConfig : pipelinesOf(replacement)) {
+                replacementPipelines.add(pipelineConfig.name());
+                pipelineConfig.materialConfigs().forEach(materialConfig -> materialFingerprints.add(materialConfig.getFingerprint()));
+            }
+
+            // a pipeline of the new revision may share its name with one in any group
+            for (PipelineConfigs group : processedConfig.getGroups()) {
+                if (changedPipelines.stream().anyMatch(group::hasPipeline)) {
+                    groupNames.add(group.getGroup());
+                }
+            }
+            // dependency materials and fetch tasks of pipelines downstream of a changed pipeline refer to it. A pipeline
+            // of the new revision only refers upstream, so what is downstream is known from the config before the merge.
+            CruiseConfigIndex index = new CruiseConfigIndex(processedConfig);
+            Set<CaseInsensitiveString> visited = new HashSet<>(changedPipelines);
+            Deque<CaseInsensitiveString> toVisit = new ArrayDeque<>(changedPipelines);
+            while (!toVisit.isEmpty()) {
+                for (PipelineConfig downstream : index.downstreamPipelinesOf(toVisit.remove())) {
+                    if (visited.add(downstream.name())) {
+                        toVisit.add(downstream.name());
+                        groupNames.add(index.groupOf(downstream.name()).getGroup());
+                    }
+                }
+            }
+
+            // environments holding a changed pipeline, or a pipeline also held by a changed environment
+            Set<CaseInsensitiveString> pipelinesOfChangedEnvironments = new HashSet<>();
+            for (PartialConfig part : Arrays.asList(previous, replacement)) {
+                part.getEnvironments().forEach(environment -> pipelinesOfChangedEnvironments.addAll(environment.getPipelineNames()));
+            }
+            for (EnvironmentConfig environment : processedConfig.getEnvironments()) {
+                if (changedPipelines.stream().anyMatch(environment::containsPipeline)
+                        || pipelinesOfChangedEnvironments.stream().anyMatch(environment::containsPipeline)) {
+                    environmentNames.add(environment.name());
+                }
+            }
+        }
+    }
+}
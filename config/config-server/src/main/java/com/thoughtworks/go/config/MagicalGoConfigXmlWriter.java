@@ -33,6 +33,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.thoughtworks.go.config.ConfigCache.annotationFor;
 import static com.thoughtworks.go.config.ConfigCache.isAnnotationPresent;
@@ -152,7 +154,7 @@ public class MagicalGoConfigXmlWriter {
         List<XmlFieldWithValue> list = new ArrayList<>();
         Class originalClass = o.getClass();
         for (GoConfigFieldWriter field : allFieldsWithInherited(originalClass, o, configCache, registry)) {
-            Field configField = field.getConfigField();
+            ConfigFieldMetadata configField = field.getMetadata();
             if (field.isImplicitCollection()) {
                 list.add(new ImplicitCollectionXmlFieldWithValue(originalClass, configField,
                         (Collection) field.getValue(), configCache, registry));
@@ -176,13 +178,16 @@ public class MagicalGoConfigXmlWriter {
     }
 
     private abstract static class XmlFieldWithValue<T> {
-        protected final Field field;
+        private static final Object NO_DEFAULT = new Object();
+        private static final ConcurrentMap<Class, Object> DEFAULT_INSTANCES = new ConcurrentHashMap<>();
+
+        protected final ConfigFieldMetadata field;
         protected final Class originalClass;
         protected final T value;
         protected final ConfigCache configCache;
         protected final ConfigElementImplementationRegistry registry;
 
-        private XmlFieldWithValue(Class originalClass, Field field, T value, ConfigCache configCache, ConfigElementImplementationRegistry registry) {
+        private XmlFieldWithValue(Class originalClass, ConfigFieldMetadata field, T value, ConfigCache configCache, ConfigElementImplementationRegistry registry) {
             this.originalClass = originalClass;
             this.value = value;
             this.field = field;
@@ -191,15 +196,25 @@ public class MagicalGoConfigXmlWriter {
         }
 
         public boolean isDefault() {
+            Object defaultObject = DEFAULT_INSTANCES.computeIfAbsent(originalClass, XmlFieldWithValue::defaultInstanceOf);
+            if (field == null || defaultObject == NO_DEFAULT) {
+                return false;
+            }
             try {
-                Object defaultObject = ConfigElementInstantiator.instantiateConfigElement(new GoCipher(), originalClass);
-                Object defaultValue = field.get(defaultObject);
-                return Objects.equals(value, defaultValue);
+                return Objects.equals(value, field.get(defaultObject));
             } catch (Exception e) {
                 return false;
             }
         }
 
+        private static Object defaultInstanceOf(Class type) {
+            try {
+                return ConfigElementInstantiator.instantiateConfigElement(new GoCipher(), type);
+            } catch (Exception e) {
+                return NO_DEFAULT;
+            }
+        }
+
         public abstract void populate(Element parent);
 
         public abstract boolean alwaysWrite();
@@ -252,7 +267,7 @@ public class MagicalGoConfigXmlWriter {
 
     private static class SubTagXmlFieldWithValue extends XmlFieldWithValue<Object> {
 
-        public SubTagXmlFieldWithValue(Class oringinalClass, Field field, Object value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        public SubTagXmlFieldWithValue(Class oringinalClass, ConfigFieldMetadata field, Object value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
             super(oringinalClass, field, value, configCache, registry);
         }
 
@@ -271,7 +286,7 @@ public class MagicalGoConfigXmlWriter {
 
     private static class AttributeXmlFieldWithValue extends XmlFieldWithValue<Object> {
 
-        public AttributeXmlFieldWithValue(Class oringinalClass, Field field, Object current, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        public AttributeXmlFieldWithValue(Class oringinalClass, ConfigFieldMetadata field, Object current, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
             super(oringinalClass, field, current, configCache, registry);
         }
 
@@ -281,24 +296,24 @@ public class MagicalGoConfigXmlWriter {
                 if (!isDefault()) {
                     throw bomb(
                             format("Try to write null value into configuration! [{0}.{1}]",
-                                    field.getDeclaringClass().getName(), field.getName()));
+                                    field.getField().getDeclaringClass().getName(), field.getName()));
                 }
                 throw bomb(format("A non default field {0}(on {1}) had null value",
-                        field.getName(), field.getDeclaringClass().getName()));
+                        field.getName(), field.getField().getDeclaringClass().getName()));
             }
-            String attributeName = field.getAnnotation(ConfigAttribute.class).value();
+            String attributeName = field.getAttribute().value();
             parent.setAttribute(new Attribute(attributeName, valueString()));
         }
 
         @Override
         public boolean alwaysWrite() {
-            return field.getAnnotation(ConfigAttribute.class).alwaysWrite();
+            return field.getAttribute().alwaysWrite();
         }
     }
 
     private static class ImplicitCollectionXmlFieldWithValue extends XmlFieldWithValue<Collection> {
         public ImplicitCollectionXmlFieldWithValue(
-                Class oringinalClass, Field field, Collection value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+                Class oringinalClass, ConfigFieldMetadata field, Collection value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
             super(oringinalClass, field, value, configCache, registry);
         }
 
@@ -361,7 +376,7 @@ public class MagicalGoConfigXmlWriter {
     }
 
     private static class ExplicitCollectionXmlFieldWithValue extends XmlFieldWithValue<Collection> {
-        public ExplicitCollectionXmlFieldWithValue(Class oringinalClass, Field field, Collection value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        public ExplicitCollectionXmlFieldWithValue(Class oringinalClass, ConfigFieldMetadata field, Collection value, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
             super(oringinalClass, field, value, configCache, registry);
         }
 
@@ -381,9 +396,9 @@ public class MagicalGoConfigXmlWriter {
     private static class ValueXmlFieldWithValue extends XmlFieldWithValue<Object> {
         private boolean requireCdata;
 
-        public ValueXmlFieldWithValue(Field field, Object value, Class oringinalClass, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
+        public ValueXmlFieldWithValue(ConfigFieldMetadata field, Object value, Class oringinalClass, ConfigCache configCache, final ConfigElementImplementationRegistry registry) {
             super(oringinalClass, field, value, configCache, registry);
-            ConfigValue configValue = field.getAnnotation(ConfigValue.class);
+            ConfigValue configValue = field.getConfigValue();
             requireCdata = configValue.requireCdata();
         }
 
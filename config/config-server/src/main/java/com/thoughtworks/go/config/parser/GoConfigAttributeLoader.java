@@ -17,44 +17,28 @@ package com.thoughtworks.go.config.parser;
 
 import com.thoughtworks.go.config.AttributeAwareConfigTag;
 import com.thoughtworks.go.config.ConfigAttribute;
+import com.thoughtworks.go.config.ConfigFieldMetadata;
 import com.thoughtworks.go.util.ConfigUtil;
 import org.jdom2.Element;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.Map;
-
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class GoConfigAttributeLoader {
     private final ConfigUtil configUtil = new ConfigUtil("magic");
     private final Element e;
-    private final Field field;
-    private static Map<Field, ConfigAttribute> isAttributes = new HashMap<>();
-
-    public static boolean isAttribute(Field field) {
-        return findAttribute(field) != null;
-    }
-
-    private static ConfigAttribute findAttribute(Field field) {
-        if (!isAttributes.containsKey(field)) {
-            isAttributes.put(field, field.getAnnotation(ConfigAttribute.class));
-        }
-        ConfigAttribute attribute = isAttributes.get(field);
-        return attribute;
-    }
+    private final ConfigFieldMetadata field;
 
-    public static GoConfigAttributeLoader attributeParser(Element e, Field field) {
+    public static GoConfigAttributeLoader attributeParser(Element e, ConfigFieldMetadata field) {
         return new GoConfigAttributeLoader(e, field);
     }
 
-    private GoConfigAttributeLoader(Element e, Field field) {
+    private GoConfigAttributeLoader(Element e, ConfigFieldMetadata field) {
         this.e = e;
         this.field = field;
     }
 
     public Object parse(Object defaultValue) {
-        ConfigAttribute attribute = findAttribute(field);
+        ConfigAttribute attribute = field.getAttribute();
         validateAttributeName(attribute);
         Object val = configUtil.getAttribute(e, attribute);
         if (!attribute.allowNull() && val == null && defaultValue == null) {
@@ -64,9 +48,10 @@ public class GoConfigAttributeLoader {
     }
 
     private void validateAttributeName(ConfigAttribute attribute) {
-        final AttributeAwareConfigTag annotation = field.getDeclaringClass().getAnnotation(AttributeAwareConfigTag.class);
+        Class<?> declaringClass = field.getField().getDeclaringClass();
+        final AttributeAwareConfigTag annotation = declaringClass.getAnnotation(AttributeAwareConfigTag.class);
         if (annotation != null && attribute != null && annotation.attribute().equals(attribute.value())) {
-            throw bomb(String.format("Attribute `%s` is not allowed in %s. You cannot use @ConfigAttribute  annotation with attribute name `%s` when @AttributeAwareConfigTag is configured with same name.", attribute.value(), field.getDeclaringClass().getName(), attribute.value(), attribute.value()));
+            throw bomb(String.format("Attribute `%s` is not allowed in %s. You cannot use @ConfigAttribute  annotation with attribute name `%s` when @AttributeAwareConfigTag is configured with same name.", attribute.value(), declaringClass.getName(), attribute.value(), attribute.value()));
         }
     }
 }
@@ -24,11 +24,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 import static com.thoughtworks.go.config.ConfigCache.annotationFor;
 import static com.thoughtworks.go.config.ConfigCache.isAnnotationPresent;
@@ -39,6 +42,7 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 
 public class GoConfigClassLoader<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(GoConfigClassLoader.class);
+    private static final ConcurrentMap<Class<?>, List<Method>> POST_CONSTRUCT_METHODS = new ConcurrentHashMap<>();
     private final ConfigUtil configUtil = new ConfigUtil("magic");
     private final Element e;
     private final Class<T> aClass;
@@ -85,19 +89,22 @@ public static <T> GoConfigClassLoader<T> classParser(Element e, Class<T> aClass,
     }
 
     private void postConstruct(T o) {
-        Method[] methods = o.getClass().getMethods();
-        for (Method method : methods) {
-            if (isAnnotationPresent(method, PostConstruct.class)) {
-                try {
-                    method.invoke(o);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to save config: ", e);
-                    throw bomb(e);
-                }
+        for (Method method : postConstructMethods(o.getClass())) {
+            try {
+                method.invoke(o);
+            } catch (Exception e) {
+                LOGGER.error("Failed to save config: ", e);
+                throw bomb(e);
             }
         }
     }
 
+    private static List<Method> postConstructMethods(Class<?> type) {
+        return POST_CONSTRUCT_METHODS.computeIfAbsent(type, t -> Arrays.stream(t.getMethods())
+                .filter(method -> isAnnotationPresent(method, PostConstruct.class))
+                .collect(Collectors.toList()));
+    }
+
     public Collection parseImplicitCollection() {
         Collection collection = (Collection) createInstance();
         parseCollection(collection);
@@ -122,8 +129,7 @@ private void parseCollection(Collection collection) {
 
     private <I> List<GoConfigFieldLoader> allFields(I o) {
         List<GoConfigFieldLoader> fields = new ArrayList<>();
-        List<Field> allFields = configCache.getFieldCache().valuesFor(o.getClass());
-        for (Field field : allFields) {
+        for (ConfigFieldMetadata field : configCache.getFieldCache().metadataFor(o.getClass())) {
             fields.add(fieldParser(e, o, field, configCache, registry, configReferenceElements));
         }
         return fields;
@@ -15,52 +15,34 @@
  */
 package com.thoughtworks.go.config.parser;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.thoughtworks.go.config.ConfigCache;
+import com.thoughtworks.go.config.ConfigFieldMetadata;
 import com.thoughtworks.go.config.ConfigTag;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.config.ConfigInterface;
-import com.thoughtworks.go.config.ConfigSubtag;
 import com.thoughtworks.go.security.GoCipher;
 import com.thoughtworks.go.util.ConfigUtil;
 import org.jdom2.Element;
 
-import static com.thoughtworks.go.config.ConfigCache.annotationFor;
 import static com.thoughtworks.go.config.ConfigCache.isAnnotationPresent;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class GoConfigSubtagLoader {
-    private static Map<Field, ConfigSubtag> isSubTags = new HashMap<>();
-
     private final ConfigUtil configUtil = new ConfigUtil("magic");
     private final Element e;
-    private final Field field;
+    private final ConfigFieldMetadata field;
     private ConfigCache configCache;
     private final ConfigElementImplementationRegistry registry;
     private final ConfigReferenceElements configReferenceElements;
 
-    public static boolean isSubtag(Field field) {
-        return findSubTag(field) != null;
-    }
-
-    private static ConfigSubtag findSubTag(Field field) {
-        if (!isSubTags.containsKey(field)) {
-            isSubTags.put(field, field.getAnnotation(ConfigSubtag.class));
-        }
-        ConfigSubtag configSubtag = isSubTags.get(field);
-        return configSubtag;
-    }
-
-    public static GoConfigSubtagLoader subtagParser(Element e, Field field, ConfigCache configCache, final ConfigElementImplementationRegistry registry,
+    public static GoConfigSubtagLoader subtagParser(Element e, ConfigFieldMetadata field, ConfigCache configCache, final ConfigElementImplementationRegistry registry,
                                                         ConfigReferenceElements configReferenceElements) {
         return new GoConfigSubtagLoader(e, field, configCache, registry, configReferenceElements);
     }
 
-    private GoConfigSubtagLoader(Element e, Field field, ConfigCache configCache, final ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
+    private GoConfigSubtagLoader(Element e, ConfigFieldMetadata field, ConfigCache configCache, final ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
         this.e = e;
         this.field = field;
         this.configCache = configCache;
@@ -73,7 +55,7 @@ public class GoConfigSubtagLoader {
         if (type == null) { return null; }
 
         ConfigTag tag = GoConfigClassLoader.configTag(type, configCache);
-        if (configUtil.optionalAndMissingTag(e, tag, findSubTag(field).optional())) {
+        if (configUtil.optionalAndMissingTag(e, tag, field.getSubtag().optional())) {
             return null;
         }
 
@@ -89,7 +71,7 @@ public class GoConfigSubtagLoader {
                     return concreteType;
                 }
             }
-            boolean optional = annotationFor(field, ConfigSubtag.class).optional();
+            boolean optional = field.getSubtag().optional();
             if (optional) { return null; }
             throw bomb("Unable to find a tag of type '" + type.getSimpleName() + "' under element '" + e.getName()
                     + "'");
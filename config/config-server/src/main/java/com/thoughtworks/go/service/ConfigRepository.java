@@ -19,6 +19,10 @@ import com.thoughtworks.go.GoConfigRevisions;
 import com.thoughtworks.go.config.exceptions.ConfigFileHasChangedException;
 import com.thoughtworks.go.config.exceptions.ConfigMergeException;
 import com.thoughtworks.go.domain.GoConfigRevision;
+import com.thoughtworks.go.serverhealth.HealthStateScope;
+import com.thoughtworks.go.serverhealth.HealthStateType;
+import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.serverhealth.ServerHealthState;
 import com.thoughtworks.go.util.StringUtil;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ThrowingFn;
@@ -34,6 +38,7 @@ import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.slf4j.Logger;
@@ -44,10 +49,20 @@ import org.springframework.util.Assert;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.StreamSupport;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -62,22 +77,44 @@ public class ConfigRepository {
     static final String BRANCH_AT_REVISION = "branch-at-revision";
     static final String BRANCH_AT_HEAD = "branch-at-head";
     public static final String CURRENT = "current";
+    private static final String CHECKIN_JOURNAL = "go-checkin-journal";
+    private static final String JOURNAL_ENTRY_FORMAT = "%019d";
+    private static final String JOURNAL_SCOPE = "CHECKIN_JOURNAL";
+    private static final long JOURNAL_RETRY_INTERVAL_SECONDS = 30;
+    private static final String REVISION_INDEX = "go-md5-index";
+    private static final String MASTER = "refs/heads/master";
     private final SystemEnvironment systemEnvironment;
+    private final ServerHealthService serverHealthService;
 
     private File workingDir;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRepository.class.getName());
     private Git git;
     private Repository gitRepo;
+    private final File journalDir;
+    private final AtomicLong journalSequence = new AtomicLong();
+    private final Semaphore journaledCheckins = new Semaphore(0);
+    private final Object checkinWriterLock = new Object();
+    private volatile Thread checkinWriter;
+    private volatile boolean journalStuck;
+    private int lockDepth;
+    private ConfigRevisionIndex revisionIndex;
 
-    @Autowired
     public ConfigRepository(SystemEnvironment systemEnvironment) throws IOException {
+        this(systemEnvironment, new ServerHealthService());
+    }
+
+    @Autowired
+    public ConfigRepository(SystemEnvironment systemEnvironment, ServerHealthService serverHealthService) throws IOException {
         this.systemEnvironment = systemEnvironment;
+        this.serverHealthService = serverHealthService;
         workingDir = this.systemEnvironment.getConfigRepoDir();
         File configRepoDir = new File(workingDir, ".git");
         gitRepo = new FileRepositoryBuilder().setGitDir(configRepoDir).build();
         gitRepo.getConfig().setInt("gc", null, "auto", 0);
         git = new Git(gitRepo);
+        journalDir = new File(configRepoDir, CHECKIN_JOURNAL);
+        journalSequence.set(lastJournalSequence());
     }
 
 
@@ -90,6 +127,7 @@ public class ConfigRepository {
             gitRepo.create();
         } else {
             cleanAndResetToMaster();
+            doLocked(() -> null);
         }
     }
 
@@ -110,39 +148,166 @@ public class ConfigRepository {
     }
 
     public void checkin(final GoConfigRevision rev) throws Exception {
+        doLocked(new VoidThrowingFn<Exception>() {
+            @Override
+            public void run() throws Exception {
+                commit(rev);
+            }
+        });
+    }
+
+    /**
+     * Records the revision in a journal on disk and leaves the git commit to a background writer. The writer commits
+     * everything journaled since its last run while holding the repository lock once, but still as one commit per
+     * revision, since the history keeps a commit for every config version. Any locked read of the repository commits
+     * the pending revisions first, so callers still see their own check-ins.
+     * <p>
+     * This never waits for the repository lock, so a save is not held up by the writer committing earlier revisions.
+     */
+    public void checkinLater(final GoConfigRevision rev) throws Exception {
+        if (!systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_ASYNC_CHECKIN)) {
+            checkin(rev);
+            return;
+        }
+        journal(rev);
+        startCheckinWriterIfRequired();
+        journaledCheckins.release();
+    }
+
+    public <T, E extends Exception> T doLocked(ThrowingFn<T, E> runnable) throws E {
+        synchronized (this) {
+            lockDepth++;
+            try {
+                if (lockDepth == 1) {
+                    commitJournaledRevisions();
+                }
+                return runnable.call();
+            } finally {
+                lockDepth--;
+            }
+        }
+    }
+
+    private void commit(GoConfigRevision rev) throws Exception {
         try {
             if (rev.equals(getCurrentRevision())) {
                 return;
             }
+            ConfigRevisionIndex index = MASTER.equals(gitRepo.getFullBranch()) ? revisionIndex() : null;
             final File file = new File(workingDir, CRUISE_CONFIG_XML);
             FileUtils.writeStringToFile(file, rev.getContent(), UTF_8);
-            final AddCommand addCommand = git.add();
-            doLocked(new VoidThrowingFn<Exception>() {
-                @Override
-                public void run() throws Exception {
-                    addCommand.addFilepattern(CRUISE_CONFIG_XML).call();
-                    git.commit().setAuthor(rev.getUsername(), STUDIOS_PRODUCT).setMessage(rev.getComment()).call();
-                }
-            });
+            git.add().addFilepattern(CRUISE_CONFIG_XML).call();
+            RevCommit commit = git.commit().setAuthor(rev.getUsername(), STUDIOS_PRODUCT).setMessage(rev.getComment()).call();
+            if (index != null) {
+                index.add(commit.getId(), rev.getMd5());
+            }
         } catch (Exception e) {
             LOGGER.error("[CONFIG SAVE] Check-in failed for {}", rev.toString(), e);
             throw e;
         }
     }
 
-    public <T, E extends Exception> T doLocked(ThrowingFn<T, E> runnable) throws E {
-        synchronized (this) {
-            return runnable.call();
+    private void journal(GoConfigRevision rev) throws IOException {
+        journalDir.mkdirs();
+        String entryName = String.format(JOURNAL_ENTRY_FORMAT, journalSequence.incrementAndGet());
+        File tempFile = new File(journalDir, entryName + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write((rev.getComment() + "\n" + rev.getContent()).getBytes(UTF_8));
+            out.getChannel().force(true);
+        }
+        Files.move(tempFile.toPath(), new File(journalDir, entryName).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        forceJournalDir();
+    }
+
+    private void forceJournalDir() {
+        try (FileChannel dir = FileChannel.open(journalDir.toPath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // not every platform allows a directory to be opened for sync (windows does not)
+            LOGGER.debug("[CONFIG SAVE] Could not sync journal directory {}", journalDir, e);
+        }
+    }
+
+    private void commitJournaledRevisions() {
+        for (File entry : journalEntries()) {
+            try {
+                String journaled = FileUtils.readFileToString(entry, UTF_8);
+                int endOfComment = journaled.indexOf('\n');
+                commit(new GoConfigRevision(journaled.substring(endOfComment + 1), journaled.substring(0, endOfComment)));
+            } catch (Exception e) {
+                LOGGER.error("[CONFIG SAVE] Journaled check-in {} could not be committed, will retry", entry.getName(), e);
+                journalStuck = true;
+                serverHealthService.update(ServerHealthState.error("Config changes could not be saved to the config repository",
+                        String.format("Check-in %s (and any made after it) is waiting in %s and will be retried: %s", entry.getName(), journalDir.getAbsolutePath(), e.getMessage()),
+                        HealthStateType.general(HealthStateScope.forConfigRepo(JOURNAL_SCOPE))));
+                return;
+            }
+            FileUtils.deleteQuietly(entry);
+        }
+        if (journalStuck) {
+            journalStuck = false;
+            serverHealthService.removeByScope(HealthStateScope.forConfigRepo(JOURNAL_SCOPE));
         }
     }
 
+    private File[] journalEntries() {
+        File[] entries = journalDir.listFiles((dir, name) -> !name.endsWith(".tmp"));
+        if (entries == null) {
+            return new File[0];
+        }
+        Arrays.sort(entries, Comparator.comparing(File::getName));
+        return entries;
+    }
+
+    private long lastJournalSequence() {
+        File[] entries = journalEntries();
+        return entries.length == 0 ? 0 : Long.parseLong(entries[entries.length - 1].getName());
+    }
+
+    private void startCheckinWriterIfRequired() {
+        if (checkinWriter != null) {
+            return;
+        }
+        synchronized (checkinWriterLock) {
+            if (checkinWriter == null) {
+                checkinWriter = startCheckinWriter();
+            }
+        }
+    }
+
+    private Thread startCheckinWriter() {
+        Thread writer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (journalStuck) {
+                        journaledCheckins.tryAcquire(JOURNAL_RETRY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                    } else {
+                        journaledCheckins.acquire();
+                    }
+                    journaledCheckins.drainPermits();
+                    doLocked(() -> null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    LOGGER.warn("[CONFIG SAVE] Failed to commit journaled check-ins", e);
+                }
+            }
+        });
+        writer.setName("config-repo-checkin-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return writer;
+    }
+
     public GoConfigRevision getRevision(String md5) throws GitAPIException {
         return CURRENT.equals(md5) ? getCurrentRevision() : findRevisionByMd5(md5);
     }
 
     Iterable<RevCommit> revisions() throws GitAPIException {
-        LogCommand command = git.log();
-        return command.call();
+        return doLocked(() -> {
+            LogCommand command = git.log();
+            return command.call();
+        });
     }
 
     private GoConfigRevision findRevisionByMd5(final String md5) throws GitAPIException {
@@ -152,23 +317,42 @@ public class ConfigRepository {
     public RevCommit getRevCommitForMd5(String md5) throws GitAPIException {
         Assert.notNull(md5, "md5 is required");
 
-        final String expectedPart = GoConfigRevision.Fragment.md5.represent(GoConfigRevision.esc(md5));
-        for (RevCommit revision : revisions()) {
-            String message = revision.getFullMessage();
-            if (message.endsWith(expectedPart)) {
-                return revision;
+        return doLocked(() -> {
+            ObjectId commit = revisionIndex().commitFor(md5);
+            if (commit == null) {
+                throw new IllegalArgumentException(String.format("There is no config version corresponding to md5: '%s'", md5));
             }
-        }
-        throw new IllegalArgumentException(String.format("There is no config version corresponding to md5: '%s'", md5));
+            return parseCommit(commit);
+        });
     }
 
     RevCommit getRevCommitForCommitSHA(String commitSHA) throws GitAPIException {
-        for (RevCommit revision : revisions()) {
-            if (revision.getName().equals(commitSHA)) {
-                return revision;
+        return doLocked(() -> {
+            try (RevWalk walk = new RevWalk(gitRepo)) {
+                return walk.parseCommit(ObjectId.fromString(commitSHA));
+            } catch (IllegalArgumentException | IOException e) {
+                throw new IllegalArgumentException(String.format("There is no commit corresponding to SHA: '%s'", commitSHA));
+            }
+        });
+    }
+
+    private RevCommit parseCommit(ObjectId commit) {
+        try (RevWalk walk = new RevWalk(gitRepo)) {
+            return walk.parseCommit(commit);
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while reading commit " + commit.name() + ". Message: " + e.getMessage(), e);
+        }
+    }
+
+    private ConfigRevisionIndex revisionIndex() throws GitAPIException {
+        if (revisionIndex == null) {
+            try {
+                revisionIndex = ConfigRevisionIndex.load(new File(gitRepo.getDirectory(), REVISION_INDEX), git, gitRepo.resolve(MASTER));
+            } catch (IOException e) {
+                throw new RuntimeException("Error occurred while indexing config revisions. Message: " + e.getMessage(), e);
             }
         }
-        throw new IllegalArgumentException(String.format("There is no commit corresponding to SHA: '%s'", commitSHA));
+        return revisionIndex;
     }
 
     public GoConfigRevision getCurrentRevision() {
@@ -204,9 +388,8 @@ public class ConfigRepository {
         return doLocked(() -> {
             GoConfigRevisions goConfigRevisions = new GoConfigRevisions();
             try {
-                LogCommand command = git.log().setMaxCount(pageSize).setSkip(offset);
-                Iterable<RevCommit> revisions = command.call();
-                for (RevCommit revision : revisions) {
+                for (ObjectId commit : revisionIndex().page(pageSize, offset)) {
+                    RevCommit revision = parseCommit(commit);
                     GoConfigRevision goConfigRevision = new GoConfigRevision((byte[]) null, revision.getFullMessage());
                     goConfigRevision.setCommitSHA(revision.name());
                     goConfigRevisions.add(goConfigRevision);
@@ -294,19 +477,21 @@ public class ConfigRepository {
     }
 
     public String getConfigMergedWithLatestRevision(GoConfigRevision configRevision, String oldMD5) throws Exception {
-        try {
-            LOGGER.debug("[Config Save] Starting git merge of config");
-            createBranch(BRANCH_AT_REVISION, getRevCommitForMd5(oldMD5));
-            createBranch(BRANCH_AT_HEAD, getCurrentRevCommit());
-            RevCommit newCommit = checkinToBranch(BRANCH_AT_REVISION, configRevision);
-            return getMergedConfig(BRANCH_AT_HEAD, newCommit);
-        } catch (Exception e) {
-            LOGGER.info("[CONFIG_MERGE] Could not merge");
-            throw new ConfigMergeException(e.getMessage(), e);
-        } finally {
-            cleanAndResetToMaster();
-            LOGGER.debug("[Config Save] Ending git merge of config");
-        }
+        return doLocked(() -> {
+            try {
+                LOGGER.debug("[Config Save] Starting git merge of config");
+                createBranch(BRANCH_AT_REVISION, getRevCommitForMd5(oldMD5));
+                createBranch(BRANCH_AT_HEAD, getCurrentRevCommit());
+                RevCommit newCommit = checkinToBranch(BRANCH_AT_REVISION, configRevision);
+                return getMergedConfig(BRANCH_AT_HEAD, newCommit);
+            } catch (Exception e) {
+                LOGGER.info("[CONFIG_MERGE] Could not merge");
+                throw new ConfigMergeException(e.getMessage(), e);
+            } finally {
+                cleanAndResetToMaster();
+                LOGGER.debug("[Config Save] Ending git merge of config");
+            }
+        });
     }
 
     void createBranch(String branchName, RevCommit revCommit) throws GitAPIException {
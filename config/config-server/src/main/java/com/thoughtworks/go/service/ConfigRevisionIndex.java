@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.service;
+
+import com.thoughtworks.go.domain.GoConfigRevision;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @understands where each config md5 was committed on master, and the order of those commits
+ */
+class ConfigRevisionIndex {
+    private final File file;
+    private final List<ObjectId> commits = new ArrayList<>();
+    private final Map<String, ObjectId> commitsByMd5 = new HashMap<>();
+
+    private ConfigRevisionIndex(File file) {
+        this.file = file;
+    }
+
+    static ConfigRevisionIndex load(File file, Git git, ObjectId master) throws IOException, GitAPIException {
+        ConfigRevisionIndex index = new ConfigRevisionIndex(file);
+        if (file.exists()) {
+            for (String line : FileUtils.readLines(file, UTF_8)) {
+                String[] parts = line.split(" ", 2);
+                index.remember(ObjectId.fromString(parts[0]), parts.length > 1 ? parts[1] : null);
+            }
+        }
+        if (!Objects.equals(index.head(), master)) {
+            index.rebuild(git, master);
+        }
+        return index;
+    }
+
+    void add(ObjectId commit, String md5) throws IOException {
+        remember(commit, md5);
+        FileUtils.writeStringToFile(file, line(commit, md5), UTF_8, true);
+    }
+
+    ObjectId commitFor(String md5) {
+        return commitsByMd5.get(md5);
+    }
+
+    List<ObjectId> page(int pageSize, int offset) {
+        List<ObjectId> page = new ArrayList<>(Math.max(0, pageSize));
+        for (int i = commits.size() - 1 - offset; i >= 0 && page.size() < pageSize; i--) {
+            page.add(commits.get(i));
+        }
+        return page;
+    }
+
+    int size() {
+        return commits.size();
+    }
+
+    private ObjectId head() {
+        return commits.isEmpty() ? null : commits.get(commits.size() - 1);
+    }
+
+    private void rebuild(Git git, ObjectId master) throws IOException, GitAPIException {
+        commits.clear();
+        commitsByMd5.clear();
+        LinkedList<RevCommit> history = new LinkedList<>();
+        if (master != null) {
+            for (RevCommit commit : git.log().add(master).call()) {
+                history.addFirst(commit);
+            }
+        }
+        StringBuilder contents = new StringBuilder();
+        for (RevCommit commit : history) {
+            String md5 = md5Of(commit);
+            remember(commit.getId(), md5);
+            contents.append(line(commit.getId(), md5));
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileUtils.writeStringToFile(tempFile, contents.toString(), UTF_8);
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void remember(ObjectId commit, String md5) {
+        ObjectId id = commit.copy();
+        commits.add(id);
+        if (md5 != null) {
+            commitsByMd5.put(md5, id);
+        }
+    }
+
+    private static String md5Of(RevCommit commit) {
+        try {
+            return new GoConfigRevision((byte[]) null, commit.getFullMessage()).getMd5();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String line(ObjectId commit, String md5) {
+        return md5 == null ? commit.name() + "\n" : commit.name() + " " + md5 + "\n";
+    }
+}
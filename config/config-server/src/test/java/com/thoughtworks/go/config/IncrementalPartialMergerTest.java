@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.exceptions.GoConfigInvalidMergeException;
+import com.thoughtworks.go.config.remote.ConfigRepoConfig;
+import com.thoughtworks.go.config.remote.ConfigReposConfig;
+import com.thoughtworks.go.config.remote.PartialConfig;
+import com.thoughtworks.go.config.remote.RepoConfigOrigin;
+import com.thoughtworks.go.domain.scm.SCMMother;
+import com.thoughtworks.go.helper.GoConfigMother;
+import com.thoughtworks.go.helper.PartialConfigMother;
+import com.thoughtworks.go.helper.PipelineConfigMother;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class IncrementalPartialMergerTest {
+    private IncrementalPartialMerger merger;
+    private BasicCruiseConfig processedConfig;
+
+    @Before
+    public void setUp() {
+        merger = new IncrementalPartialMerger();
+        processedConfig = GoConfigMother.configWithPipelines("local");
+        processedConfig.setConfigRepos(new ConfigReposConfig(ConfigRepoConfig.createConfigRepoConfig(git("http://some.git"), "myplugin", "repo-id")));
+        processedConfig.merge(singletonList(PartialConfigMother.withPipeline("remote1")), false);
+    }
+
+    @Test
+    public void shouldReplacePipelinesOfTheChangedPartial() {
+        PartialConfig replacement = PartialConfigMother.withPipeline("remote2", PartialConfigMother.createRepoOrigin());
+
+        CruiseConfig merged = merger.replace(processedConfig, replacement);
+
+        assertThat(merged.hasPipelineNamed(new CaseInsensitiveString("local")), is(true));
+        assertThat(merged.hasPipelineNamed(new CaseInsensitiveString("remote2")), is(true));
+        assertThat(merged.hasPipelineNamed(new CaseInsensitiveString("remote1")), is(false));
+        assertThat(merged.getMergedPartials(), contains(sameInstance(replacement)));
+    }
+
+    @Test
+    public void shouldLeaveTheProcessedConfigUnchanged() {
+        merger.replace(processedConfig, PartialConfigMother.withPipeline("remote2", PartialConfigMother.createRepoOrigin()));
+
+        assertThat(processedConfig.hasPipelineNamed(new CaseInsensitiveString("remote1")), is(true));
+        assertThat(processedConfig.hasPipelineNamed(new CaseInsensitiveString("remote2")), is(false));
+    }
+
+    @Test
+    public void shouldNotMergeAPartialOfAConfigRepoWhichIsNotMergedYet() {
+        RepoConfigOrigin otherOrigin = new RepoConfigOrigin(ConfigRepoConfig.createConfigRepoConfig(git("http://other.git"), "myplugin", "other-id"), "1234fed");
+
+        assertThat(merger.replace(processedConfig, PartialConfigMother.withPipeline("remote2", otherOrigin)), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotMergeIntoAConfigWithoutPartials() {
+        BasicCruiseConfig localConfig = GoConfigMother.configWithPipelines("local");
+
+        assertThat(merger.replace(localConfig, PartialConfigMother.withPipeline("remote2")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotMergeAPartialWhichChangesItsSCMs() {
+        PartialConfig replacement = PartialConfigMother.withPipeline("remote2", PartialConfigMother.createRepoOrigin());
+        replacement.getScms().add(SCMMother.create("scm-id"));
+
+        assertThat(merger.replace(processedConfig, replacement), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFailWhenReplacementDefinesAPipelineWhichAlreadyExists() {
+        try {
+            merger.replace(processedConfig, PartialConfigMother.withPipeline("local", PartialConfigMother.createRepoOrigin()));
+            fail("should have failed to merge a duplicate pipeline");
+        } catch (GoConfigInvalidMergeException e) {
+            assertThat(e.getAllErrors().toString(), containsString("local"));
+        }
+    }
+
+    @Test
+    public void shouldNotAddValidationErrorsToTheProcessedConfig() {
+        try {
+            merger.replace(processedConfig, PartialConfigMother.withPipeline("local", PartialConfigMother.createRepoOrigin()));
+            fail("should have failed to merge a duplicate pipeline");
+        } catch (GoConfigInvalidMergeException expected) {
+        }
+
+        assertThat(processedConfig.getPipelineConfigByName(new CaseInsensitiveString("local")).errors().isEmpty(), is(true));
+        assertThat(processedConfig.getGroups().errors().isEmpty(), is(true));
+        assertThat(processedConfig.getConfigRepos().get(0).errors().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldFailWhenReplacementDependsOnAnUnknownPipeline() {
+        PipelineConfig unknown = PipelineConfigMother.pipelineConfig("unknown");
+        PartialConfig replacement = PartialConfigMother.pipelineWithDependencyMaterial("remote2", unknown, PartialConfigMother.createRepoOrigin());
+
+        try {
+            merger.replace(processedConfig, replacement);
+            fail("should have failed to merge a dependency on an unknown pipeline");
+        } catch (GoConfigInvalidMergeException e) {
+            assertThat(e.getAllErrors().toString(), containsString("unknown"));
+        }
+    }
+}
@@ -20,8 +20,11 @@ import com.thoughtworks.go.config.exceptions.ConfigFileHasChangedException;
 import com.thoughtworks.go.config.exceptions.ConfigMergeException;
 import com.thoughtworks.go.domain.GoConfigRevision;
 import com.thoughtworks.go.helper.ConfigFileFixture;
+import com.thoughtworks.go.serverhealth.HealthStateScope;
+import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.ListBranchCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Ref;
@@ -36,7 +39,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.is;
@@ -78,6 +83,85 @@ public class ConfigRepositoryTest {
         assertThat(configRepo.getRevision("md5-v2").getContent(), is("v1 v2"));
     }
 
+    @Test
+    public void shouldSeeRevisionsCheckedInLaterOnTheNextRead() throws Exception {
+        when(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_ASYNC_CHECKIN)).thenReturn(true);
+
+        configRepo.checkinLater(new GoConfigRevision("v1", "md5-v1", "user-name", "100.3.9", new TimeProvider()));
+        configRepo.checkinLater(new GoConfigRevision("v1 v2", "md5-v2", "user-name", "100.9.8", new TimeProvider()));
+
+        assertThat(configRepo.getCurrentRevision().getMd5(), is("md5-v2"));
+        assertThat(configRepo.getRevision("md5-v1").getContent(), is("v1"));
+        assertThat(configRepo.getRevision("md5-v1").getUsername(), is("user-name"));
+        assertThat(configRepo.commitCountOnMaster(), is(2L));
+    }
+
+    @Test(timeout = 10000)
+    public void shouldJournalRevisionsWhileTheRepositoryIsLocked() throws Exception {
+        when(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_ASYNC_CHECKIN)).thenReturn(true);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                configRepo.doLocked(() -> {
+                    locked.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (InterruptedException ignored) {
+            }
+        });
+        holder.start();
+        locked.await();
+
+        configRepo.checkinLater(new GoConfigRevision("v1", "md5-v1", "user-name", "100.3.9", new TimeProvider()));
+        configRepo.checkinLater(new GoConfigRevision("v1 v2", "md5-v2", "user-name", "100.9.8", new TimeProvider()));
+
+        release.countDown();
+        holder.join();
+        assertThat(configRepo.getCurrentRevision().getMd5(), is("md5-v2"));
+    }
+
+    @Test
+    public void shouldCommitJournaledRevisionsWhenInitialized() throws Exception {
+        when(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_ASYNC_CHECKIN)).thenReturn(true);
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        File journal = new File(configRepo.getGitRepo().getDirectory(), "go-checkin-journal");
+        journal.mkdirs();
+        FileUtils.writeStringToFile(new File(journal, "0000000000000000001"), goConfigRevision("v2", "md5-2").getComment() + "\n" + "v2", UTF_8);
+
+        ConfigRepository restarted = new ConfigRepository(systemEnvironment);
+        restarted.initialize();
+
+        assertThat(configRepo.commitCountOnMaster(), is(2L));
+        assertThat(restarted.getCurrentRevision().getContent(), is("v2"));
+        assertThat(journal.list().length, is(0));
+    }
+
+    @Test
+    public void shouldKeepJournaledRevisionWhichFailsToCommitAndRetryIt() throws Exception {
+        when(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_ASYNC_CHECKIN)).thenReturn(true);
+        ServerHealthService serverHealthService = new ServerHealthService();
+        ConfigRepository repo = new ConfigRepository(systemEnvironment, serverHealthService);
+        repo.checkin(goConfigRevision("v1", "md5-1"));
+        File journal = new File(repo.getGitRepo().getDirectory(), "go-checkin-journal");
+        journal.mkdirs();
+        FileUtils.writeStringToFile(new File(journal, "0000000000000000001"), goConfigRevision("v2", "md5-2").getComment() + "\n" + "v2", UTF_8);
+        File configFile = new File(systemEnvironment.getConfigRepoDir(), "cruise-config.xml");
+        FileUtils.deleteQuietly(configFile);
+        configFile.mkdirs();
+
+        assertThat(repo.getCurrentRevision().getContent(), is("v1"));
+        assertThat(journal.list().length, is(1));
+        assertThat(serverHealthService.filterByScope(HealthStateScope.forConfigRepo("CHECKIN_JOURNAL")).size(), is(1));
+
+        FileUtils.deleteDirectory(configFile);
+
+        assertThat(repo.getCurrentRevision().getContent(), is("v2"));
+        assertThat(journal.list().length, is(0));
+        assertThat(serverHealthService.filterByScope(HealthStateScope.forConfigRepo("CHECKIN_JOURNAL")).size(), is(0));
+    }
+
     @Test
     public void shouldGetCommitsCorrectly() throws Exception {
         configRepo.checkin(new GoConfigRevision("v1", "md5-v1", "user-name", "100.3.9", new TimeProvider()));
@@ -99,6 +183,31 @@ public class ConfigRepositoryTest {
         assertThat(goConfigRevisions.get(0).getMd5(), is("md5-v1"));
     }
 
+    @Test
+    public void shouldFindTheLatestCommitForAnMd5FromAnIndexRebuiltWhenItFallsBehind() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        RevCommit v2 = configRepo.getRevCommitForMd5("md5-2");
+        configRepo.git().commit().setAllowEmpty(true).setMessage(goConfigRevision("v3", "md5-1").getComment()).call();
+
+        ConfigRepository restarted = new ConfigRepository(systemEnvironment);
+
+        assertThat(restarted.getRevCommitForMd5("md5-2"), is(v2));
+        assertThat(restarted.getRevCommitForMd5("md5-1"), is(restarted.getCurrentRevCommit()));
+        assertThat(restarted.getCommits(1, 1).get(0).getCommitSHA(), is(v2.getName()));
+    }
+
+    @Test
+    public void shouldFailWhenDoesNotFindACommitForSHA() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        try {
+            configRepo.configChangesForCommits("0000000000000000000000000000000000000000", configRepo.getCurrentRevCommit().getName());
+            fail("should have failed as commit does not exist");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("There is no commit corresponding to SHA: '0000000000000000000000000000000000000000'"));
+        }
+    }
+
     @Test
     public void shouldFailWhenDoesNotFindARev() throws Exception {
         configRepo.checkin(new GoConfigRevision("v1", "md5-v1", "user-name", "100.3.9", new TimeProvider()));
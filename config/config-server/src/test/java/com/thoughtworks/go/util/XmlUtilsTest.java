@@ -61,6 +61,18 @@ public class XmlUtilsTest {
         }
     }
 
+    @Test
+    public void shouldKeepValidatingAgainstTheSchemaWhenItIsReused() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                buildXmlDocument(new ByteArrayInputStream("<foo name='invalid'/>".getBytes()), GoConfigSchema.getCurrentSchema(), configElementImplementationRegistry.xsds());
+                fail("Should throw a XsdValidationException");
+            } catch (Exception e) {
+                assertThat(e, is(instanceOf(XsdValidationException.class)));
+            }
+        }
+    }
+
     @Test
     public void shouldThrowExceptionWhenXmlIsMalformed() throws Exception {
         expectedException.expect(JDOMParseException.class);
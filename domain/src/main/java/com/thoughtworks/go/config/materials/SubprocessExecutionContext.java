@@ -24,6 +24,8 @@ public interface SubprocessExecutionContext {
     String getProcessNamespace(String fingerprint);
     Map<String, String> getDefaultEnvironmentVariables();
     Boolean isGitShallowClone();
+    Boolean isGitRemoteBranchPreCheck();
+    Boolean isGitSharedObjectStore();
     boolean isServer();
     void setGitShallowClone(boolean value);
 }
@@ -24,6 +24,7 @@ import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.git.GitCommand;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
 import com.thoughtworks.go.domain.materials.git.GitVersion;
+import com.thoughtworks.go.domain.materials.git.SharedGitObjectStore;
 import com.thoughtworks.go.domain.materials.svn.MaterialUrl;
 import com.thoughtworks.go.security.GoCipher;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -54,6 +55,7 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
     public static final int UNSHALLOW_TRYOUT_STEP = 100;
     public static final int DEFAULT_SHALLOW_CLONE_DEPTH = 2;
     public static final String GO_MATERIAL_BRANCH = "GO_MATERIAL_BRANCH";
+    public static final String SHARED_OBJECT_STORES_FOLDER = "git-objects";
 
     private UrlArgument url;
     private String branch = GitMaterialConfig.DEFAULT_BRANCH;
@@ -127,6 +129,10 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
     }
 
     public List<Modification> modificationsSince(File baseDir, Revision revision, final SubprocessExecutionContext execCtx) {
+        if (Boolean.TRUE.equals(execCtx.isGitRemoteBranchPreCheck()) && isRemoteBranchAt(revision)) {
+            LOG.debug("Remote branch {} of {} is still at {}, skipping fetch", getBranch(), getUriForDisplay(), revision.getRevision());
+            return new ArrayList<>();
+        }
         GitCommand gitCommand = getGit(baseDir, DEFAULT_SHALLOW_CLONE_DEPTH, execCtx);
         if (!execCtx.isGitShallowClone()) {
             fullyUnshallow(gitCommand, inMemoryConsumer());
@@ -199,6 +205,20 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         }
     }
 
+    // A single ls-remote is much cheaper for the remote than a fetch, and is all that is needed when the branch has not moved.
+    private boolean isRemoteBranchAt(Revision revision) {
+        if (isSubmoduleFolder()) {
+            return false;
+        }
+        try {
+            GitCommand gitCommand = new GitCommand(getFingerprint(), null, getBranch(), false, secrets());
+            return revision.getRevision().equals(gitCommand.remoteBranchHead(new UrlArgument(urlForCommandLine()), getBranch()));
+        } catch (Exception e) {
+            LOG.debug("Could not read remote branch {} of {}, falling back to fetch", getBranch(), getUriForDisplay(), e);
+            return false;
+        }
+    }
+
     private GitCommand getGit(File workingdir, int preferredCloneDepth, SubprocessExecutionContext executionContext) {
         InMemoryStreamConsumer output = inMemoryConsumer();
         try {
@@ -214,6 +234,10 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         }
 
         GitCommand gitCommand = new GitCommand(getFingerprint(), workingFolder, getBranch(), false, secrets());
+        if (executionContext.isServer() && Boolean.TRUE.equals(executionContext.isGitSharedObjectStore())) {
+            File storesFolder = new File(workingFolder.getAbsoluteFile().getParentFile(), SHARED_OBJECT_STORES_FOLDER);
+            gitCommand.withSharedObjectStore(SharedGitObjectStore.forUrl(storesFolder, urlForCommandLine()));
+        }
         if (!isGitRepository(workingFolder) || isRepositoryChanged(gitCommand, workingFolder)) {
             LOG.debug("Invalid git working copy or repository changed. Delete folder: {}", workingFolder);
             deleteDirectoryNoisily(workingFolder);
@@ -57,6 +57,8 @@ public class Modification extends PersistentObject implements Comparable, Serial
 
     private Date modifiedTime;
     private Set<ModifiedFile> files = new LinkedHashSet<>();
+    private Integer modifiedFilesCount;
+    private transient ModifiedFilesLoader modifiedFilesLoader;
     private MaterialInstance materialInstance;
     private String pipelineLabel;
     private Long pipelineId;
@@ -96,6 +98,8 @@ public class Modification extends PersistentObject implements Comparable, Serial
         this.id = modification.id;
         if (shouldCopyModifiedFiles) {
             this.files = modification.files;
+            this.modifiedFilesCount = modification.modifiedFilesCount;
+            this.modifiedFilesLoader = modification.modifiedFilesLoader;
         }
         this.pipelineLabel = modification.pipelineLabel;
         this.pipelineId = modification.pipelineId;
@@ -177,6 +181,58 @@ public class Modification extends PersistentObject implements Comparable, Serial
         return Collections.unmodifiableList(new ArrayList<>(files));
     }
 
+    /**
+     * @return a page of the modified files, loading it from the database when it is not part of the preview
+     * held in memory
+     */
+    public List<ModifiedFile> getModifiedFiles(int offset, int limit) {
+        if (hasMoreModifiedFiles() && offset + limit > files.size()) {
+            if (modifiedFilesLoader == null) {
+                throw new IllegalStateException("Cannot load the modified files of modification " + id + " which are not part of its preview.");
+            }
+            return Collections.unmodifiableList(modifiedFilesLoader.load(id, offset, limit));
+        }
+        List<ModifiedFile> preview = new ArrayList<>(files);
+        int from = Math.min(offset, preview.size());
+        return Collections.unmodifiableList(preview.subList(from, Math.min(from + limit, preview.size())));
+    }
+
+    /**
+     * @return all the modified files, including those left out of the preview held in memory
+     */
+    public List<ModifiedFile> getAllModifiedFiles() {
+        return getModifiedFiles(0, getModifiedFilesCount());
+    }
+
+    public int getModifiedFilesCount() {
+        return modifiedFilesCount == null ? files.size() : modifiedFilesCount;
+    }
+
+    public boolean hasMoreModifiedFiles() {
+        return getModifiedFilesCount() > files.size();
+    }
+
+    /**
+     * Large commits can touch tens of thousands of files, which should not be kept around in caches.
+     *
+     * @return this modification if it has no more than <code>previewSize</code> files, otherwise a copy of it holding
+     * only the first <code>previewSize</code> files and the total count, which loads the others through
+     * <code>loader</code> when asked for them
+     */
+    public Modification withModifiedFilesPreview(int previewSize, ModifiedFilesLoader loader) {
+        if (previewSize <= 0 || files.size() <= previewSize) {
+            return this;
+        }
+        Modification preview = new Modification(this, false);
+        Iterator<ModifiedFile> iterator = files.iterator();
+        while (preview.files.size() < previewSize) {
+            preview.files.add(iterator.next());
+        }
+        preview.modifiedFilesCount = files.size();
+        preview.modifiedFilesLoader = loader;
+        return preview;
+    }
+
     @Override
     public int compareTo(Object o) {
         Modification modification = (Modification) o;
@@ -241,6 +297,8 @@ public class Modification extends PersistentObject implements Comparable, Serial
         }
     }
 
+    // A preview equals the modification it was made from: when either side holds only a preview of its files, the
+    // files are compared as far as both hold them in memory, along with their count. Otherwise all files are compared.
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -258,7 +316,7 @@ public class Modification extends PersistentObject implements Comparable, Serial
         if (emailAddress != null ? !emailAddress.equals(that.emailAddress) : that.emailAddress != null) {
             return false;
         }
-        if (files != null ? !files.equals(that.files) : that.files != null) {
+        if (!sameModifiedFiles(that)) {
             return false;
         }
         if (modifiedTime != null ? !modifiedTime.equals(that.modifiedTime) : that.modifiedTime != null) {
@@ -283,6 +341,27 @@ public class Modification extends PersistentObject implements Comparable, Serial
         return true;
     }
 
+    private boolean sameModifiedFiles(Modification that) {
+        if (files == null || that.files == null) {
+            return files == that.files;
+        }
+        if (getModifiedFilesCount() != that.getModifiedFilesCount()) {
+            return false;
+        }
+        if (!hasMoreModifiedFiles() && !that.hasMoreModifiedFiles()) {
+            return files.equals(that.files);
+        }
+        Iterator<ModifiedFile> mine = files.iterator();
+        Iterator<ModifiedFile> theirs = that.files.iterator();
+        while (mine.hasNext() && theirs.hasNext()) {
+            if (!mine.next().equals(theirs.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the count of the files only, which a preview shares with the modification it was made from
     @Override
     public int hashCode() {
         int result = userName != null ? userName.hashCode() : 0;
@@ -290,7 +369,7 @@ public class Modification extends PersistentObject implements Comparable, Serial
         result = 31 * result + (emailAddress != null ? emailAddress.hashCode() : 0);
         result = 31 * result + (revision != null ? revision.hashCode() : 0);
         result = 31 * result + (modifiedTime != null ? modifiedTime.hashCode() : 0);
-        result = 31 * result + (files != null ? files.hashCode() : 0);
+        result = 31 * result + (files != null ? getModifiedFilesCount() : 0);
         result = 31 * result + (pipelineLabel != null ? pipelineLabel.hashCode() : 0);
         result = 31 * result + (pipelineId != null ? pipelineId.hashCode() : 0);
         result = 31 * result + (additionalData != null ? additionalData.hashCode() : 0);
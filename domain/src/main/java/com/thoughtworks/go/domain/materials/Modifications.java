@@ -148,7 +148,7 @@ public class Modifications extends BaseCollection<Modification> {
     private Set<ModifiedFile> getAllFiles(List<Modification> modifications) {
         Set<ModifiedFile> allFiles = new HashSet<>();
         for (Modification modification : modifications) {
-            allFiles.addAll(modification.getModifiedFiles());
+            allFiles.addAll(modification.getAllModifiedFiles());
         }
         return allFiles;
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials;
+
+import com.thoughtworks.go.util.command.StreamConsumer;
+import org.jdom2.Element;
+import org.jdom2.input.SAXBuilder;
+
+import java.io.StringReader;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * Picks the repeated elements out of XML printed by an SCM command, such as the log entries of {@code svn log --xml},
+ * and hands each of them to a handler as soon as it is complete. The raw output is only buffered up to the end of the
+ * element being read; whatever the handler keeps of the elements it is handed is up to it.
+ * <p>
+ * This relies on the element never being nested in itself and on its tags never occurring in text, where they would
+ * have been escaped.
+ */
+public class XmlElementStreamConsumer implements StreamConsumer {
+    private final String name;
+    private final String startTag;
+    private final String endTag;
+    private final SAXBuilder builder;
+    private final ElementHandler handler;
+    private final StringBuilder buffer = new StringBuilder();
+    private boolean inElement;
+    private RuntimeException error;
+
+    public interface ElementHandler {
+        void handle(Element element) throws Exception;
+    }
+
+    public XmlElementStreamConsumer(String name, SAXBuilder builder, ElementHandler handler) {
+        this.name = name;
+        this.startTag = "<" + name;
+        this.endTag = "</" + name + ">";
+        this.builder = builder;
+        this.handler = handler;
+    }
+
+    // Never throws: this runs on the thread pumping the process output, which must keep draining it.
+    @Override
+    public void consumeLine(String line) {
+        if (error != null) {
+            return;
+        }
+        buffer.append(line).append('\n');
+        try {
+            while (takeElement()) {
+            }
+        } catch (RuntimeException e) {
+            error = e;
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * To be called once the command has finished, to fail on output which could not be parsed.
+     */
+    public void finish() {
+        if (error != null) {
+            throw error;
+        }
+        if (inElement) {
+            throw bomb("Output ended in the middle of a " + name + ": " + buffer);
+        }
+    }
+
+    private boolean takeElement() {
+        if (!inElement) {
+            int start = indexOfStartTag();
+            if (start < 0) {
+                buffer.setLength(0);
+                return false;
+            }
+            buffer.delete(0, start);
+            inElement = true;
+        }
+        int end = buffer.indexOf(endTag);
+        if (end < 0) {
+            return false;
+        }
+        String element = buffer.substring(0, end + endTag.length());
+        buffer.delete(0, end + endTag.length());
+        inElement = false;
+        handle(element);
+        return true;
+    }
+
+    private int indexOfStartTag() {
+        for (int start = buffer.indexOf(startTag); start >= 0; start = buffer.indexOf(startTag, start + 1)) {
+            int next = start + startTag.length();
+            if (next < buffer.length() && (buffer.charAt(next) == '>' || Character.isWhitespace(buffer.charAt(next)))) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private void handle(String element) {
+        try {
+            handler.handle(builder.build(new StringReader(element)).getRootElement());
+        } catch (Exception e) {
+            throw bomb("Unable to parse " + name + ": " + element, e);
+        }
+    }
+}
@@ -29,12 +29,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.thoughtworks.go.config.materials.git.GitMaterial.UNSHALLOW_TRYOUT_STEP;
-import static com.thoughtworks.go.domain.materials.ModifiedAction.parseGitAction;
 import static com.thoughtworks.go.util.DateUtils.formatRFC822;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static com.thoughtworks.go.util.command.ProcessOutputStreamConsumer.inMemoryConsumer;
@@ -45,13 +45,13 @@ public class GitCommand extends SCMCommand {
 
     private static final Pattern GIT_SUBMODULE_STATUS_PATTERN = Pattern.compile("^.[0-9a-fA-F]{40} (.+?)( \\(.+\\))?$");
     private static final Pattern GIT_SUBMODULE_URL_PATTERN = Pattern.compile("^submodule\\.(.+)\\.url (.+)$");
-    private static final Pattern GIT_DIFF_TREE_PATTERN = Pattern.compile("^(.)\\s+(.+)$");
     private static final String GIT_CLEAN_KEEP_IGNORED_FILES_FLAG = "toggle.agent.git.clean.keep.ignored.files";
 
     private final File workingDir;
     private final List<SecretString> secrets;
     private final String branch;
     private final boolean isSubmodule;
+    private SharedGitObjectStore sharedObjectStore;
 
     public GitCommand(String materialFingerprint, File workingDir, String branch, boolean isSubmodule, List<SecretString> secrets) {
         super(materialFingerprint);
@@ -61,8 +61,17 @@ public class GitCommand extends SCMCommand {
         this.isSubmodule = isSubmodule;
     }
 
+    public GitCommand withSharedObjectStore(SharedGitObjectStore sharedObjectStore) {
+        this.sharedObjectStore = sharedObjectStore;
+        return this;
+    }
+
     public int cloneWithNoCheckout(ConsoleOutputStreamConsumer outputStreamConsumer, String url) {
         CommandLine gitClone = cloneCommand().withArg("--no-checkout");
+        if (sharedObjectStore != null) {
+            fetchSharedObjectStore(outputStreamConsumer);
+            gitClone.withArg("--reference").withArg(sharedObjectStore.location().getAbsolutePath());
+        }
 
         gitClone.withArg(new UrlArgument(url)).withArg(workingDir.getAbsolutePath());
 
@@ -98,7 +107,7 @@ public class GitCommand extends SCMCommand {
                 .withRemoteBranch(remoteBranch())
                 .withWorkingDir(workingDir)
                 .withNonArgSecrets(secrets)
-                .outputFormatYaml()
+                .outputFormatWithNameStatus()
                 .build();
 
         return gitLog(command);
@@ -110,7 +119,7 @@ public class GitCommand extends SCMCommand {
                 .between(revision.getRevision(), remoteBranch())
                 .withWorkingDir(workingDir)
                 .withNonArgSecrets(secrets)
-                .outputFormatYaml()
+                .outputFormatWithNameStatus()
                 .build();
 
         return gitLog(command);
@@ -128,37 +137,9 @@ public class GitCommand extends SCMCommand {
             throw new RuntimeException(String.format("Working directory: %s\n%s", workingDir, outputStreamConsumer.getStdError()), e);
         }
 
-        ConsoleResult result = runOrBomb(gitCmd);
         GitModificationParser parser = new GitModificationParser();
-        List<Modification> mods = parser.parse(result.outputAsString());
-        for (Modification mod : mods) {
-            addModifiedFiles(mod);
-        }
-        return mods;
-    }
-
-    private void addModifiedFiles(Modification mod) {
-        ConsoleResult consoleResult = diffTree(mod.getRevision());
-        List<String> result = consoleResult.output();
-
-        for (String resultLine : result) {
-            // First line is the node
-            if (resultLine.equals(mod.getRevision())) {
-                continue;
-            }
-
-            Matcher m = matchResultLine(resultLine);
-            if (!m.find()) {
-                bomb("Unable to parse git-diff-tree output line: " + consoleResult.replaceSecretInfo(resultLine) + "\n"
-                        + "From output:\n"
-                        + consoleResult.outputForDisplayAsString());
-            }
-            mod.createModifiedFile(m.group(2), null, parseGitAction(m.group(1).charAt(0)));
-        }
-    }
-
-    private Matcher matchResultLine(String resultLine) {
-        return GIT_DIFF_TREE_PATTERN.matcher(resultLine);
+        runOrBomb(gitCmd, parser);
+        return parser.finish();
     }
 
     public void resetWorkingDir(ConsoleOutputStreamConsumer outputStreamConsumer, Revision revision, boolean shallow) {
@@ -323,6 +304,15 @@ public class GitCommand extends SCMCommand {
         }
     }
 
+    public String remoteBranchHead(UrlArgument repoUrl, String branch) {
+        CommandLine commandLine = git().withArgs("ls-remote").withArg(repoUrl).withArg("refs/heads/" + branch);
+        ConsoleResult result = commandLine.runOrBomb(new NamedProcessTag(repoUrl.forDisplay()));
+        if (!hasOnlyOneMatchingBranch(result)) {
+            return null;
+        }
+        return StringUtils.substringBefore(result.output().get(0), "\t");
+    }
+
     private static boolean hasOnlyOneMatchingBranch(ConsoleResult branchList) {
         return (branchList.output().size() == 1);
     }
@@ -375,6 +365,10 @@ public class GitCommand extends SCMCommand {
     }
 
     public void fetch(ConsoleOutputStreamConsumer outputStreamConsumer) {
+        if (sharedObjectStore != null) {
+            fetchFromSharedObjectStore(outputStreamConsumer);
+            return;
+        }
         log(outputStreamConsumer, "Fetching changes");
         CommandLine gitFetch = git().withArgs("fetch", "origin", "--prune", "--recurse-submodules=no").withWorkingDir(workingDir);
 
@@ -385,6 +379,66 @@ public class GitCommand extends SCMCommand {
         gc(outputStreamConsumer);
     }
 
+    private void fetchFromSharedObjectStore(ConsoleOutputStreamConsumer outputStreamConsumer) {
+        fetchSharedObjectStore(outputStreamConsumer);
+        borrowObjectsFromSharedObjectStore();
+
+        log(outputStreamConsumer, "Fetching changes from shared object store");
+        CommandLine gitFetch = git()
+                .withArgs("fetch", "--prune", "--recurse-submodules=no")
+                .withArg(sharedObjectStore.location().getAbsolutePath())
+                .withArg("+refs/heads/*:refs/remotes/origin/*")
+                .withWorkingDir(workingDir);
+
+        int result = run(gitFetch, outputStreamConsumer);
+        if (result != 0) {
+            throw new RuntimeException(String.format("git fetch from shared object store failed for [%s]", this.workingRepositoryUrl()));
+        }
+        gc(outputStreamConsumer);
+    }
+
+    private void fetchSharedObjectStore(ConsoleOutputStreamConsumer outputStreamConsumer) {
+        sharedObjectStore.fetch(() -> {
+            File location = sharedObjectStore.location();
+            if (!sharedObjectStore.isInitialized()) {
+                log(outputStreamConsumer, "Creating shared object store %s", location);
+                location.mkdirs();
+                runOrBomb(git().withArgs("init", "--bare").withWorkingDir(location));
+                runOrBomb(git().withArgs("remote", "add", "origin").withArg(new UrlArgument(sharedObjectStore.url())).withWorkingDir(location));
+                runOrBomb(git().withArgs("config", "gc.auto", "0").withWorkingDir(location));
+            }
+
+            log(outputStreamConsumer, "Fetching changes into shared object store");
+            CommandLine gitFetch = git()
+                    .withArgs("fetch", "origin", "--prune", "+refs/heads/*:refs/heads/*")
+                    .withWorkingDir(location);
+            int result = run(gitFetch, outputStreamConsumer);
+            if (result != 0) {
+                throw new RuntimeException(String.format("git fetch failed for shared object store of [%s]", new UrlArgument(sharedObjectStore.url()).forDisplay()));
+            }
+        }, () -> {
+            // --prune=never, working copies may still need objects which are no longer reachable from the store
+            log(outputStreamConsumer, "Performing git gc on shared object store");
+            CommandLine gitGc = git().withArgs("gc", "--prune=never").withWorkingDir(sharedObjectStore.location());
+            if (run(gitGc, outputStreamConsumer) != 0) {
+                LOG.warn("git gc failed for shared object store of [{}]", new UrlArgument(sharedObjectStore.url()).forDisplay());
+            }
+        });
+    }
+
+    // Working copies cloned before the shared object store existed do not know about it yet.
+    private void borrowObjectsFromSharedObjectStore() {
+        File alternates = new File(workingDir, ".git/objects/info/alternates");
+        if (alternates.exists()) {
+            return;
+        }
+        try {
+            FileUtils.writeStringToFile(alternates, sharedObjectStore.objectsFolder().getAbsolutePath() + "\n", "UTF-8");
+        } catch (IOException e) {
+            throw bomb("Could not use shared object store for " + workingDir, e);
+        }
+    }
+
     // Unshallow a shallow cloned repository with "git fetch --depth n".
     // Special depth 2147483647 (Integer.MAX_VALUE) are treated as infinite -- fully unshallow
     // https://git-scm.com/docs/git-fetch-pack
@@ -419,11 +473,6 @@ public class GitCommand extends SCMCommand {
         return submoduleFolders(result.output());
     }
 
-    public ConsoleResult diffTree(String node) {
-        CommandLine gitCmd = git().withArgs("diff-tree", "--name-status", "--root", "-r", node).withWorkingDir(workingDir);
-        return runOrBomb(gitCmd);
-    }
-
     public void submoduleAdd(String repoUrl, String submoduleNameToPutInGitSubmodules, String folder) {
         String[] addSubmoduleWithSameNameArgs = new String[]{"submodule", "add", repoUrl, folder};
         String[] changeSubmoduleNameInGitModules = new String[]{"config", "--file", ".gitmodules", "--rename-section", "submodule." + folder, "submodule." + submoduleNameToPutInGitSubmodules};
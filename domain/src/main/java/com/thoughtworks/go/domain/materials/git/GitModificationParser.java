@@ -16,27 +16,189 @@
 package com.thoughtworks.go.domain.materials.git;
 
 import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.util.command.StreamConsumer;
 import org.apache.commons.lang3.StringUtils;
-import org.yaml.snakeyaml.Yaml;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
-public class GitModificationParser {
-    private Yaml yaml = new Yaml();
+import static com.thoughtworks.go.domain.materials.ModifiedAction.parseGitAction;
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * Parses the output of {@code git log --name-status -z} run with {@link #LOG_FORMAT}, one line at a time, so the
+ * output of a large range of commits never has to be held in memory.
+ * <p>
+ * Every commit starts with a record separator (0x1e) followed by its fields, each terminated by a unit separator
+ * (0x1f). The changed files follow as NUL terminated status and path pairs.
+ */
+public class GitModificationParser implements StreamConsumer {
+    private static final char RECORD_SEPARATOR = '\u001e';
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char NUL = '\0';
+
+    private static final String[] FIELDS = {"%H", "%an", "%ae", "%ai", "%s", "%B", "%G?", "%GS", "%GK", "%GG", "%cn", "%ce", "%ci"};
+    public static final String LOG_FORMAT = "%x1e" + String.join("%x1f", FIELDS) + "%x1f";
+
+    private enum State {BEFORE_COMMIT, FIELDS, FILE_STATUS, FILE_PATH}
+
+    private final Consumer<Modification> consumer;
+    private final List<Modification> modifications = new ArrayList<>();
+    private final List<String> fields = new ArrayList<>(FIELDS.length);
+    private final StringBuilder token = new StringBuilder();
+    private State state = State.BEFORE_COMMIT;
+    private Modification current;
+    private String fileStatus;
+    private String error;
+
+    public GitModificationParser() {
+        this.consumer = null;
+    }
+
+    public GitModificationParser(Consumer<Modification> consumer) {
+        this.consumer = consumer;
+    }
 
     public List<Modification> parse(String output) {
-        if (StringUtils.isBlank(output)) {
-            return Collections.emptyList();
+        if (StringUtils.isNotEmpty(output)) {
+            consume(output);
         }
+        return finish();
+    }
+
+    /**
+     * Line terminators are removed by the process output pumper, so they are put back here; they are part of commit
+     * messages and separate the commit fields from the list of changed files.
+     */
+    @Override
+    public void consumeLine(String line) {
+        consume(line);
+        consume("\n");
+    }
 
-        List<GitLog> gitLogs = yaml.load(output);
+    /**
+     * To be called once all the output has been fed, to hand over the last commit and to fail on output which could
+     * not be parsed.
+     *
+     * @return the parsed modifications, unless they were handed to a consumer as they were parsed
+     */
+    public List<Modification> finish() {
+        if (error == null && state == State.FIELDS) {
+            error = "Incomplete commit at the end of git log output";
+        }
+        if (error != null) {
+            bomb("Unable to parse git log output: " + error);
+        }
+        emitCurrent();
+        state = State.BEFORE_COMMIT;
+        return modifications;
+    }
 
-        if (gitLogs.isEmpty()) {
-            return Collections.emptyList();
+    // Never throws: this runs on the thread pumping the process output, which must keep draining it.
+    private void consume(CharSequence chunk) {
+        if (error != null) {
+            return;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == RECORD_SEPARATOR) {
+                startCommit();
+                continue;
+            }
+            switch (state) {
+                case BEFORE_COMMIT:
+                    if (!Character.isWhitespace(c) && c != NUL) {
+                        error = "Unexpected output before first commit";
+                        return;
+                    }
+                    break;
+                case FIELDS:
+                    if (c == FIELD_SEPARATOR) {
+                        endField();
+                    } else {
+                        token.append(c);
+                    }
+                    break;
+                case FILE_STATUS:
+                    if (c == NUL) {
+                        if (token.length() > 0) {
+                            fileStatus = takeToken();
+                            state = State.FILE_PATH;
+                        }
+                    } else if (c != '\n' || token.length() > 0) {
+                        token.append(c);
+                    }
+                    break;
+                case FILE_PATH:
+                    if (c == NUL) {
+                        current.createModifiedFile(takeToken(), null, parseGitAction(fileStatus.charAt(0)));
+                        state = State.FILE_STATUS;
+                    } else {
+                        token.append(c);
+                    }
+                    break;
+            }
         }
+    }
+
+    private void startCommit() {
+        if (state == State.FIELDS || state == State.FILE_PATH) {
+            error = "Commit " + (fields.isEmpty() ? "" : fields.get(0) + " ") + "ended unexpectedly";
+            return;
+        }
+        emitCurrent();
+        fields.clear();
+        token.setLength(0);
+        state = State.FIELDS;
+    }
+
+    private void endField() {
+        fields.add(takeToken());
+        if (fields.size() == FIELDS.length) {
+            current = toModification(fields);
+            state = State.FILE_STATUS;
+        }
+    }
+
+    private void emitCurrent() {
+        if (current == null) {
+            return;
+        }
+        if (consumer == null) {
+            modifications.add(current);
+        } else {
+            consumer.accept(current);
+        }
+        current = null;
+    }
+
+    private String takeToken() {
+        String value = token.toString();
+        token.setLength(0);
+        return value;
+    }
+
+    private static Modification toModification(List<String> fields) {
+        GitLog gitLog = new GitLog();
+        gitLog.setCommitHash(fields.get(0));
+        gitLog.setAuthorName(fields.get(1));
+        gitLog.setAuthorEmail(fields.get(2));
+        gitLog.setDate(fields.get(3));
+        gitLog.setSubject(fields.get(4));
+        gitLog.setRawBody(fields.get(5));
+
+        HashMap<String, String> additionalInfo = new HashMap<>();
+        additionalInfo.put("signed", StringUtils.stripToNull(fields.get(6)));
+        additionalInfo.put("signerName", StringUtils.stripToNull(fields.get(7)));
+        additionalInfo.put("signingKey", StringUtils.stripToNull(fields.get(8)));
+        additionalInfo.put("signingMessage", StringUtils.defaultIfEmpty(StringUtils.stripEnd(fields.get(9), "\n"), null));
+        additionalInfo.put("committerName", StringUtils.stripToNull(fields.get(10)));
+        additionalInfo.put("committerEmail", StringUtils.stripToNull(fields.get(11)));
+        additionalInfo.put("commitDate", StringUtils.stripToNull(fields.get(12)));
+        gitLog.setAdditionalInfo(additionalInfo);
 
-        return gitLogs.stream().map(GitLog::toModification).collect(Collectors.toList());
+        return gitLog.toModification();
     }
 }
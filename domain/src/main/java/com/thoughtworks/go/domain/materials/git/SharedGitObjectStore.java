@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.util.CachedDigestUtils;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @understands the bare repository which holds the objects of every server side working copy of one git url
+ * <p>
+ * Working copies borrow objects from it through alternates, so it must never be pruned. Automatic gc is hence turned
+ * off for it and the store is repacked, without pruning, every so many fetches instead. Fetches asked for while
+ * another fetch of the same url is running are answered by the next fetch instead of running one each.
+ */
+public class SharedGitObjectStore {
+    static final int FETCHES_BETWEEN_MAINTENANCE = 50;
+    private static final ConcurrentMap<String, SharedGitObjectStore> STORES = new ConcurrentHashMap<>();
+
+    private final File location;
+    private final String url;
+    private final int fetchesBetweenMaintenance;
+    private final AtomicLong fetchRequests = new AtomicLong();
+    private long fetchedUpTo;
+    private int fetchesSinceMaintenance;
+
+    SharedGitObjectStore(File location, String url, int fetchesBetweenMaintenance) {
+        this.location = location;
+        this.url = url;
+        this.fetchesBetweenMaintenance = fetchesBetweenMaintenance;
+    }
+
+    public static SharedGitObjectStore forUrl(File storesFolder, String url) {
+        File location = new File(storesFolder, CachedDigestUtils.sha256Hex(url)).getAbsoluteFile();
+        return STORES.computeIfAbsent(location.getPath(), key -> new SharedGitObjectStore(location, url, FETCHES_BETWEEN_MAINTENANCE));
+    }
+
+    public File location() {
+        return location;
+    }
+
+    public File objectsFolder() {
+        return new File(location, "objects");
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public boolean isInitialized() {
+        return new File(location, "HEAD").exists();
+    }
+
+    /**
+     * Runs {@code fetch} unless a fetch which started after this call has already completed. Every so many fetches,
+     * {@code maintenance} is run right after the fetch, still holding off any other fetch of the store.
+     */
+    public void fetch(Runnable fetch, Runnable maintenance) {
+        long request = fetchRequests.incrementAndGet();
+        synchronized (this) {
+            if (fetchedUpTo >= request) {
+                return;
+            }
+            long upTo = fetchRequests.get();
+            fetch.run();
+            fetchedUpTo = upTo;
+            if (++fetchesSinceMaintenance >= fetchesBetweenMaintenance) {
+                fetchesSinceMaintenance = 0;
+                maintenance.run();
+            }
+        }
+    }
+}
@@ -24,7 +24,7 @@ import java.util.List;
 public interface Builder {
     Builder withWorkingDir(File workingDir);
 
-    Builder outputFormatYaml();
+    Builder outputFormatWithNameStatus();
 
     Builder withNonArgSecrets(List<SecretString> secrets);
 
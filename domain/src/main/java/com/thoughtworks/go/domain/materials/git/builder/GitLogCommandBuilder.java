@@ -15,7 +15,7 @@
  */
 package com.thoughtworks.go.domain.materials.git.builder;
 
-import com.thoughtworks.go.domain.materials.git.GitLog;
+import com.thoughtworks.go.domain.materials.git.GitModificationParser;
 import com.thoughtworks.go.util.command.CommandLine;
 import com.thoughtworks.go.util.command.SecretString;
 
@@ -29,15 +29,6 @@ public class GitLogCommandBuilder implements Builder {
             .withArg("log")
             .withArg("--no-color");
 
-    private static final OutputFormatter FORMATTER = OutputFormatter.newFormatter(GitLog.class)
-            .withCommitHash()
-            .withAuthorName()
-            .withAuthorEmail()
-            .withDate()
-            .withSubject()
-            .withRawBody()
-            .withAdditionalInfo();
-
     public WithBranchBuilder latestCommit() {
         git.withArg("-1");
         return new WithBranchBuilder(this, git);
@@ -53,12 +44,13 @@ public class GitLogCommandBuilder implements Builder {
         return this;
     }
 
-    public Builder outputFormatYaml() {
+    public Builder outputFormatWithNameStatus() {
         if (isFormatted) {
             return this;
         }
 
-        git.withArg(String.format("--pretty=format:%s", FORMATTER.format()));
+        git.withArgs("--name-status", "--no-renames", "-z");
+        git.withArg(String.format("--pretty=format:%s", GitModificationParser.LOG_FORMAT));
         isFormatted = true;
         return this;
     }
@@ -41,8 +41,8 @@ public class WithBranchBuilder implements Builder {
     }
 
     @Override
-    public Builder outputFormatYaml() {
-        return mainBuilder.outputFormatYaml();
+    public Builder outputFormatWithNameStatus() {
+        return mainBuilder.outputFormatWithNameStatus();
     }
 
     @Override
@@ -16,10 +16,13 @@
 package com.thoughtworks.go.domain.materials.mercurial;
 
 import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.domain.materials.Revision;
 import com.thoughtworks.go.domain.materials.SCMCommand;
+import com.thoughtworks.go.domain.materials.XmlElementStreamConsumer;
 import com.thoughtworks.go.util.NamedProcessTag;
 import com.thoughtworks.go.util.command.*;
+import org.jdom2.input.SAXBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -122,7 +125,7 @@ public class HgCommand extends SCMCommand {
         InMemoryStreamConsumer consumer = inMemoryConsumer();
         bombUnless(pull(consumer), "Failed to run hg pull command: " + consumer.getAllOutput());
         CommandLine hg = hg("log", "--limit", String.valueOf(count), "-b", branch, "--style", templatePath());
-        return new HgModificationSplitter(execute(hg)).modifications();
+        return log(hg);
     }
 
     public List<Modification> modificationsSince(Revision revision) {
@@ -132,7 +135,22 @@ public class HgCommand extends SCMCommand {
                 "-r", "tip:" + revision.getRevision(),
                 "-b", branch,
                 "--style", templatePath());
-        return new HgModificationSplitter(execute(hg)).filterOutRevision(revision);
+        return Modifications.filterOutRevision(log(hg), revision);
+    }
+
+    // All modifications of the log are still collected: they are printed newest first, while they have to be saved
+    // oldest first and in one transaction, so they cannot be handed on to be saved while the log is being read.
+    private List<Modification> log(CommandLine hg) {
+        List<Modification> modifications = new ArrayList<>();
+        XmlElementStreamConsumer parser = new XmlElementStreamConsumer("changeset", new SAXBuilder(),
+                changeset -> modifications.add(HgModificationSplitter.parseChangeset(changeset)));
+        ConsoleResult result = runOrBomb(hg, parser);
+        try {
+            parser.finish();
+        } catch (RuntimeException e) {
+            throw bomb("Unable to parse hg log output", result.smudgedException(e));
+        }
+        return modifications;
     }
 
     public ConsoleResult workingRepositoryUrl() {
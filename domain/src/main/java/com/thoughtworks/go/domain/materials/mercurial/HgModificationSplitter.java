@@ -19,56 +19,19 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Date;
-import java.io.StringReader;
 import java.io.File;
-import java.text.ParseException;
 
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.ModifiedAction;
-import com.thoughtworks.go.domain.materials.Revision;
-import com.thoughtworks.go.domain.materials.Modifications;
-import com.thoughtworks.go.util.command.ConsoleResult;
 import com.thoughtworks.go.util.DateUtils;
-import com.thoughtworks.go.util.ExceptionUtils;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.Document;
 import org.jdom2.Element;
 
 public class HgModificationSplitter {
 
-    private final String output;
-    private final ConsoleResult result;
-
-    public HgModificationSplitter(ConsoleResult result) {
-        this.result = result;
-        this.output = String.format("<root>\n%s</root>", result.outputAsString());
-    }
-
-    public List<Modification> modifications() {
-        try {
-            SAXBuilder builder = new SAXBuilder();
-            Document document = builder.build(new StringReader(output));
-            return parseDOMTree(document);
-        } catch (Exception e) {
-            throw ExceptionUtils.bomb("Unable to parse hg log output: " + result.replaceSecretInfo(output), result.smudgedException(e));
-        }
-    }
-
-
-    private List<Modification> parseDOMTree(Document document) throws ParseException {
-        List<Modification> modifications = new ArrayList<>();
-
-        Element rootElement = document.getRootElement();
-        List logEntries = rootElement.getChildren("changeset");
-        for (Iterator iterator = logEntries.iterator(); iterator.hasNext();) {
-            Element changeset = (Element) iterator.next();
-            modifications.add(parseChangeset(changeset));
-        }
-
-        return modifications;
+    private HgModificationSplitter() {
     }
 
-    private Modification parseChangeset(Element changeset) {
+    static Modification parseChangeset(Element changeset) {
         Date modifiedTime = DateUtils.parseRFC822(changeset.getChildText("date"));
         String author = org.apache.commons.lang3.StringEscapeUtils.unescapeXml(changeset.getChildText("author"));
         String comment = org.apache.commons.lang3.StringEscapeUtils.unescapeXml(changeset.getChildText("desc"));
@@ -89,7 +52,7 @@ public class HgModificationSplitter {
         return modification;
     }
 
-    private List<File> parseFiles(Element filesElement, String fileType) {
+    private static List<File> parseFiles(Element filesElement, String fileType) {
         List files = filesElement.getChild(fileType).getChildren("file");
         List<File> modifiedFiles = new ArrayList<>();
         for (Iterator iterator = files.iterator(); iterator.hasNext();) {
@@ -99,11 +62,7 @@ public class HgModificationSplitter {
         return modifiedFiles;
     }
 
-    public List<Modification> filterOutRevision(Revision revision) {
-        return Modifications.filterOutRevision(modifications(), revision);
-    }
-
-    private void addModificationFiles(Modification modification, ModifiedAction type, List<File> files) {
+    private static void addModificationFiles(Modification modification, ModifiedAction type, List<File> files) {
         for (File file : files) {
             modification.createModifiedFile(file.getPath(), null, type);
         }
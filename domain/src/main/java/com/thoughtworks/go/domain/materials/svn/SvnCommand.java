@@ -20,6 +20,7 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.domain.materials.SCMCommand;
 import com.thoughtworks.go.domain.materials.ValidationBean;
+import com.thoughtworks.go.domain.materials.XmlElementStreamConsumer;
 import com.thoughtworks.go.util.SvnLogXmlParser;
 import com.thoughtworks.go.util.command.*;
 import org.apache.commons.lang3.StringUtils;
@@ -34,6 +35,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
@@ -119,14 +121,7 @@ public class SvnCommand extends SCMCommand implements Subversion {
 
     @Override
     public List<Modification> latestModification() {
-        CommandLine command = buildSvnLogCommandForLatestOne();
-        ConsoleResult result = executeCommand(command);
-        String output = result.outputAsString();
-        try {
-            return parseSvnLog(output);
-        } catch (Exception e) {
-            throw bomb(result.smudgedException(e));
-        }
+        return log(buildSvnLogCommandForLatestOne());
     }
 
     @Override
@@ -134,22 +129,25 @@ public class SvnCommand extends SCMCommand implements Subversion {
         CommandLine command = svn(true)
                 .withArgs("log", "--non-interactive", "--xml", "-v", "-r", "HEAD:" + subversionRevision.getRevision())
                 .withArg(repositoryUrl);
-        ConsoleResult result = executeCommand(command);
-        String output = result.outputAsString();
-        try {
-            List<Modification> modifications = parseSvnLog(output);
-            modifications = Modifications.filterOutRevision(modifications, subversionRevision);
-            return modifications;
-        } catch (Exception e) {
-            LOG.error("Error parsing svn log output", result.smudgedException(e));
-            throw bomb(e);
-        }
+        return Modifications.filterOutRevision(log(command), subversionRevision);
     }
 
-    private List<Modification> parseSvnLog(String output) {
+    // All modifications of the log are still collected: they are printed newest first, while they have to be saved
+    // oldest first and in one transaction, so they cannot be handed on to be saved while the log is being read.
+    private List<Modification> log(CommandLine command) {
         SAXBuilder builder = getBuilder();
         SvnInfo svnInfo = remoteInfo(builder);
-        return svnLogXmlParser.parse(output, svnInfo.getPath(), builder);
+        List<Modification> modifications = new ArrayList<>();
+        XmlElementStreamConsumer parser = svnLogXmlParser.streamingParser(svnInfo.getPath(), builder, modifications::add);
+        ConsoleResult result = runOrBomb(command, parser);
+        try {
+            parser.finish();
+        } catch (RuntimeException e) {
+            Exception smudged = result.smudgedException(e);
+            LOG.error("Error parsing svn log output", smudged);
+            throw bomb(smudged);
+        }
+        return modifications;
     }
 
     private SAXBuilder getBuilder() {
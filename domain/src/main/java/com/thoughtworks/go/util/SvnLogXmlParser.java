@@ -17,6 +17,7 @@ package com.thoughtworks.go.util;
 
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.ModifiedAction;
+import com.thoughtworks.go.domain.materials.XmlElementStreamConsumer;
 import com.thoughtworks.go.domain.materials.svn.SvnCommand;
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -27,6 +28,7 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
@@ -43,6 +45,19 @@ public class SvnLogXmlParser {
         }
     }
 
+    /**
+     * @return a consumer of the output of {@code svn log --xml -v} which hands over the modification of every log
+     * entry as soon as the entry has been read
+     */
+    public XmlElementStreamConsumer streamingParser(String path, SAXBuilder builder, Consumer<Modification> consumer) {
+        return new XmlElementStreamConsumer("logentry", builder, logEntry -> {
+            Modification modification = parseLogEntry(logEntry, path);
+            if (modification != null) {
+                consumer.accept(modification);
+            }
+        });
+    }
+
     private List<Modification> parseDOMTree(Document document, String path) throws ParseException {
         List<Modification> modifications = new ArrayList<>();
 
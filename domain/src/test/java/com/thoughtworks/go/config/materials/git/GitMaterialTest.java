@@ -32,6 +32,7 @@ import com.thoughtworks.go.domain.materials.mercurial.StringRevision;
 import com.thoughtworks.go.helper.GitRepoContainingSubmodule;
 import com.thoughtworks.go.helper.MaterialsMother;
 import com.thoughtworks.go.helper.TestRepo;
+import com.thoughtworks.go.util.CachedDigestUtils;
 import com.thoughtworks.go.util.JsonValue;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.CommandLine;
@@ -207,6 +208,46 @@ public class GitMaterialTest {
             assertWorkingCopyNotCheckedOut(workingDir);
         }
 
+        @Test
+        void shouldNotCloneOrFetchWhenRemoteBranchIsStillAtTheGivenRevision() {
+            File notClonedYet = new File(temporaryFolder.getRoot(), "notClonedYet");
+
+            List<Modification> modifications = git.modificationsSince(notClonedYet, GitTestRepo.REVISION_4, new TestSubprocessExecutionContext());
+
+            assertThat(modifications).isEmpty();
+            assertThat(notClonedYet).doesNotExist();
+        }
+
+        @Test
+        void shouldFetchWhenRemoteBranchPreCheckIsTurnedOff() {
+            SystemEnvironment mockSystemEnvironment = mock(SystemEnvironment.class);
+            when(mockSystemEnvironment.get(SystemEnvironment.GO_SERVER_SHALLOW_CLONE)).thenReturn(false);
+            when(mockSystemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_BRANCH_PRE_CHECK)).thenReturn(false);
+            File notClonedYet = new File(temporaryFolder.getRoot(), "notClonedYet");
+
+            List<Modification> modifications = git.modificationsSince(notClonedYet, GitTestRepo.REVISION_4, new TestSubprocessExecutionContext(mockSystemEnvironment, true));
+
+            assertThat(modifications).isEmpty();
+            assertThat(notClonedYet).exists();
+        }
+
+        @Test
+        void shouldShareOneObjectStoreBetweenServerWorkingCopiesOfTheSameUrl() throws IOException {
+            File flyweights = temporaryFolder.newFolder("flyweights");
+            GitMaterial master = new GitMaterial(gitFooBranchBundle.projectRepositoryUrl());
+            GitMaterial foo = new GitMaterial(gitFooBranchBundle.projectRepositoryUrl(), BRANCH);
+            TestSubprocessExecutionContext serverContext = new TestSubprocessExecutionContext(new SystemEnvironment(), true);
+
+            master.latestModification(new File(flyweights, "master"), serverContext);
+            List<Modification> fooModifications = foo.latestModification(new File(flyweights, "foo"), serverContext);
+
+            File store = new File(new File(flyweights, GitMaterial.SHARED_OBJECT_STORES_FOLDER), CachedDigestUtils.sha256Hex(master.urlForCommandLine()));
+            assertThat(new File(store, "HEAD")).exists();
+            assertThat(contentOf(new File(flyweights, "master/.git/objects/info/alternates"))).contains(store.getName());
+            assertThat(contentOf(new File(flyweights, "foo/.git/objects/info/alternates"))).contains(store.getName());
+            assertThat(fooModifications.get(0).getComment()).isEqualTo("Started foo branch");
+        }
+
         @Test
         void shouldRetrieveModifiedFiles() {
             List<Modification> mods = git.modificationsSince(workingDir, GitTestRepo.REVISION_0, new TestSubprocessExecutionContext());
@@ -68,9 +68,9 @@ class GitLogCommandBuilderTest {
     void shouldSetFormatArg() {
         CommandLine command = new GitLogCommandBuilder()
                 .latestCommit()
-                .outputFormatYaml()
+                .outputFormatWithNameStatus()
                 .build();
 
-        assertThat(command.toString()).contains("--pretty=format:");
+        assertThat(command.toStringForDisplay()).contains("--name-status --no-renames -z --pretty=format:" + GitModificationParser.LOG_FORMAT);
     }
 }
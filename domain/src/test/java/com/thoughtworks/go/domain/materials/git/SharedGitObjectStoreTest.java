@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.config.materials.git.GitMaterialConfig;
+import com.thoughtworks.go.helper.TestRepo;
+import com.thoughtworks.go.util.command.InMemoryStreamConsumer;
+import org.junit.Rule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thoughtworks.go.util.command.ProcessOutputStreamConsumer.inMemoryConsumer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableRuleMigrationSupport
+class SharedGitObjectStoreTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @AfterEach
+    void tearDown() {
+        TestRepo.internalTearDown();
+    }
+
+    @Test
+    void shouldRunMaintenanceAfterEveryConfiguredNumberOfFetches() {
+        SharedGitObjectStore store = new SharedGitObjectStore(new File("store"), "https://example.com/repo.git", 3);
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicInteger maintenance = new AtomicInteger();
+
+        for (int i = 0; i < 7; i++) {
+            store.fetch(fetches::incrementAndGet, maintenance::incrementAndGet);
+        }
+
+        assertThat(fetches.get()).isEqualTo(7);
+        assertThat(maintenance.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFetchWorkingCopyThroughTheStoreAndGcTheStoreWithoutPruning() throws Exception {
+        GitTestRepo repo = new GitTestRepo(temporaryFolder);
+        SharedGitObjectStore store = new SharedGitObjectStore(temporaryFolder.newFolder("store"), repo.projectRepositoryUrl(), 1);
+        File workingDir = new File(temporaryFolder.newFolder(), "working-copy");
+        GitCommand git = new GitCommand(null, workingDir, GitMaterialConfig.DEFAULT_BRANCH, false, null).withSharedObjectStore(store);
+        InMemoryStreamConsumer output = inMemoryConsumer();
+
+        assertThat(git.cloneWithNoCheckout(output, repo.projectRepositoryUrl())).isEqualTo(0);
+        repo.addFileAndPush("new-file", "Added new file");
+        git.fetch(output);
+
+        assertThat(store.isInitialized()).isTrue();
+        assertThat(new File(workingDir, ".git/objects/info/alternates")).exists();
+        assertThat(git.latestModification().get(0).getComment()).isEqualTo("Added new file");
+        assertThat(output.getAllOutput()).contains("Performing git gc on shared object store");
+        assertThat(new File(store.objectsFolder(), "pack").list((dir, name) -> name.endsWith(".pack"))).isNotEmpty();
+    }
+}
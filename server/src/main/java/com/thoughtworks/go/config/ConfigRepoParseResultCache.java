@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.remote.ConfigReposConfig;
+import com.thoughtworks.go.plugin.configrepo.codec.GsonCodec;
+import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
+import com.thoughtworks.go.plugin.configrepo.contract.ErrorCollection;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @understands keeping the last successful parse result of each config-repo on disk, so that a checkout which was
+ * already parsed with the same plugin and configuration is not parsed by the plugin again, even across restarts
+ */
+@Component
+public class ConfigRepoParseResultCache implements ChangedRepoConfigWatchListListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRepoParseResultCache.class);
+    private static final String CACHE_DIR = "config-repo-parse-cache";
+    private static final String EXTENSION = ".json.gz";
+
+    private final GsonCodec codec = new GsonCodec();
+    private final File cacheDir;
+    private final boolean enabled;
+
+    @Autowired
+    public ConfigRepoParseResultCache(SystemEnvironment systemEnvironment, GoConfigWatchList configWatchList) {
+        this(new File(systemEnvironment.getConfigRepoDir().getAbsoluteFile().getParentFile(), CACHE_DIR),
+                systemEnvironment.get(SystemEnvironment.CONFIG_REPO_PARSE_CACHE));
+        configWatchList.registerListener(this);
+    }
+
+    ConfigRepoParseResultCache(File cacheDir, boolean enabled) {
+        this.cacheDir = cacheDir;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param fingerprint fingerprint of the config-repo material
+     * @param key         identifies the inputs of the parse, see {@link ConfigRepoPlugin}
+     * @return the result cached for the config-repo, or null when there is none for these inputs
+     */
+    public CRParseResult get(String fingerprint, String key) {
+        File file = fileFor(fingerprint);
+        if (!enabled || !file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), UTF_8))) {
+            if (!key.equals(reader.readLine())) {
+                return null;
+            }
+            CRParseResult result = codec.getGson().fromJson(reader, CRParseResult.class);
+            if (result.getErrors() == null) {
+                result.setErrors(new ErrorCollection());
+            }
+            return result;
+        } catch (Exception e) {
+            LOGGER.warn("Discarding unreadable config-repo parse result {}", file, e);
+            FileUtils.deleteQuietly(file);
+            return null;
+        }
+    }
+
+    public void put(String fingerprint, String key, CRParseResult result) {
+        if (!enabled) {
+            return;
+        }
+        File file = fileFor(fingerprint);
+        File temporaryFile = new File(cacheDir, file.getName() + ".tmp");
+        try {
+            FileUtils.forceMkdir(cacheDir);
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(temporaryFile)), UTF_8)) {
+                writer.write(key);
+                writer.write('\n');
+                codec.getGson().toJson(result, writer);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to cache config-repo parse result in {}", file, e);
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+    }
+
+    @Override
+    public void onChangedRepoConfigWatchList(ConfigReposConfig newConfigRepos) {
+        File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String fingerprint = file.getName().substring(0, file.getName().length() - EXTENSION.length());
+            if (!newConfigRepos.hasMaterialWithFingerprint(fingerprint)) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+    private File fileFor(String fingerprint) {
+        return new File(cacheDir, fingerprint + EXTENSION);
+    }
+}
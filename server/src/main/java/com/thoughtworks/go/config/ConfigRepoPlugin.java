@@ -22,9 +22,11 @@ import com.thoughtworks.go.plugin.access.configrepo.ConfigFileList;
 import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoExtension;
 import com.thoughtworks.go.plugin.access.configrepo.ExportedConfig;
 import com.thoughtworks.go.plugin.access.configrepo.InvalidPartialConfigException;
+import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
 import com.thoughtworks.go.plugin.configrepo.contract.CRConfigurationProperty;
 import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
 import com.thoughtworks.go.plugin.configrepo.contract.CRPipeline;
+import org.apache.commons.codec.digest.DigestUtils;
 
 import java.io.File;
 import java.util.*;
@@ -35,11 +37,14 @@ public class ConfigRepoPlugin implements PartialConfigProvider {
     private ConfigConverter configConverter;
     private ConfigRepoExtension crExtension;
     private String pluginId;
+    private ConfigRepoParseResultCache parseResultCache;
 
-    public ConfigRepoPlugin(ConfigConverter configConverter, ConfigRepoExtension crExtension, String pluginId) {
+    public ConfigRepoPlugin(ConfigConverter configConverter, ConfigRepoExtension crExtension, String pluginId,
+                            ConfigRepoParseResultCache parseResultCache) {
         this.configConverter = configConverter;
         this.crExtension = crExtension;
         this.pluginId = pluginId;
+        this.parseResultCache = parseResultCache;
     }
 
     public static List<CRConfigurationProperty> getCrConfigurations(Configuration configuration) {
@@ -59,10 +64,47 @@ public class ConfigRepoPlugin implements PartialConfigProvider {
     @Override
     public PartialConfig load(File configRepoCheckoutDirectory, PartialConfigLoadContext context) {
         Collection<CRConfigurationProperty> cRconfigurations = getCrConfigurations(context.configuration());
-        CRParseResult crPartialConfig = parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
+        CRParseResult crPartialConfig = parseDirectory(configRepoCheckoutDirectory, cRconfigurations, context);
         return configConverter.toPartialConfig(crPartialConfig, context);
     }
 
+    private CRParseResult parseDirectory(File configRepoCheckoutDirectory, Collection<CRConfigurationProperty> cRconfigurations, PartialConfigLoadContext context) {
+        String cacheKey = parseCacheKey(context, cRconfigurations);
+        if (cacheKey == null) {
+            return parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
+        }
+        String fingerprint = context.configMaterial().getFingerprint();
+        CRParseResult cached = parseResultCache.get(fingerprint, cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        CRParseResult crParseResult = parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
+        parseResultCache.put(fingerprint, cacheKey, crParseResult);
+        return crParseResult;
+    }
+
+    // everything the plugin's answer depends on: the checked out revision, the plugin build and the repo configuration
+    private String parseCacheKey(PartialConfigLoadContext context, Collection<CRConfigurationProperty> cRconfigurations) {
+        if (parseResultCache == null || context.revision() == null || context.configMaterial() == null) {
+            return null;
+        }
+        PluginDescriptor descriptor = crExtension.pluginDescriptorFor(pluginId);
+        if (descriptor == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder()
+                .append(context.configMaterial().getFingerprint()).append('\n')
+                .append(context.revision()).append('\n')
+                .append(pluginId).append('\n')
+                .append(descriptor.version()).append('\n')
+                .append(descriptor.about() == null ? null : descriptor.about().version()).append('\n');
+        for (CRConfigurationProperty property : cRconfigurations) {
+            key.append(property.getKey()).append('=').append(property.getValue()).append('/').append(property.getEncryptedValue()).append('\n');
+        }
+        // every key is unique to a material revision, memoizing it would only grow CachedDigestUtils' memo
+        return DigestUtils.sha256Hex(key.toString());
+    }
+
     public String id() {
         return this.pluginId;
     }
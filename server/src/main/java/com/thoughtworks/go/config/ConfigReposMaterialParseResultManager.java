@@ -28,17 +28,23 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Tracks all config-repo parsing states
  */
 public class ConfigReposMaterialParseResultManager {
+    private static final long[] PARSE_TIME_BUCKETS_IN_MILLIS = {1000, 5000, 15000, 60000};
+    private static final String[] PARSE_TIME_BUCKET_NAMES = {"Under 1s", "1s to 5s", "5s to 15s", "15s to 1m", "Over 1m"};
     private Map<String, PartialConfigParseResult> fingerprintOfPartialToParseResultMap = new ConcurrentHashMap<>();
+    private final AtomicInteger parsesWaiting = new AtomicInteger();
+    private final AtomicInteger parsesRunning = new AtomicInteger();
+    private final AtomicLong parsesCompleted = new AtomicLong();
+    private final Map<String, AtomicLongArray> parseTimesByPlugin = new ConcurrentHashMap<>();
     private ServerHealthService serverHealthService;
     private ConfigRepoService configRepoService;
 
@@ -143,6 +149,49 @@ public class ConfigReposMaterialParseResultManager {
         return fingerprintOfPartialToParseResultMap.put(fingerprint, PartialConfigParseResult.parseSuccess(modification, newPart));
     }
 
+    void parseQueued() {
+        parsesWaiting.incrementAndGet();
+    }
+
+    void parseStarted() {
+        parsesWaiting.decrementAndGet();
+        parsesRunning.incrementAndGet();
+    }
+
+    void parseFinished() {
+        parsesRunning.decrementAndGet();
+        parsesCompleted.incrementAndGet();
+    }
+
+    void recordParseTime(String pluginId, long timeInMillis) {
+        int bucket = 0;
+        while (bucket < PARSE_TIME_BUCKETS_IN_MILLIS.length && timeInMillis >= PARSE_TIME_BUCKETS_IN_MILLIS[bucket]) {
+            bucket++;
+        }
+        parseTimesByPlugin.computeIfAbsent(pluginId, id -> new AtomicLongArray(PARSE_TIME_BUCKET_NAMES.length)).incrementAndGet(bucket);
+    }
+
+    /**
+     * @return how many config-repo parses are waiting, running and done, and how long parses took for each plugin
+     */
+    public Map<String, Object> parseStatistics() {
+        Map<String, Object> parseTimes = new TreeMap<>();
+        parseTimesByPlugin.forEach((pluginId, counts) -> {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < PARSE_TIME_BUCKET_NAMES.length; bucket++) {
+                histogram.put(PARSE_TIME_BUCKET_NAMES[bucket], counts.get(bucket));
+            }
+            parseTimes.put(pluginId, histogram);
+        });
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("Waiting", parsesWaiting.get());
+        statistics.put("Running", parsesRunning.get());
+        statistics.put("Completed", parsesCompleted.get());
+        statistics.put("Parse times by plugin", parseTimes);
+        return statistics;
+    }
+
     static class ConfigRepoReparseListener extends EntityConfigChangedListener<Object> {
         private final List<Class<?>> configClassesToCareAbout = Arrays.asList(
                 PipelineConfig.class,
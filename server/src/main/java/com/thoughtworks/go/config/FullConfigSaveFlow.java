@@ -39,7 +39,6 @@ public abstract class FullConfigSaveFlow {
     protected final CachedGoPartials cachedGoPartials;
     protected final GoConfigFileWriter fileWriter;
     protected final ConfigElementImplementationRegistry configElementImplementationRegistry;
-    protected final GoConfigCloner cloner = new GoConfigCloner();
     protected final Logger LOGGER = LoggerFactory.getLogger(getClass().getName());
 
     public FullConfigSaveFlow(MagicalGoConfigXmlLoader loader, MagicalGoConfigXmlWriter writer,
@@ -76,7 +75,7 @@ public abstract class FullConfigSaveFlow {
 
     protected void checkinToConfigRepo(String currentUser, CruiseConfig updatedConfig, String xmlString) throws Exception {
         LOGGER.debug("[Config Save] Checkin updated config to git: Starting.");
-        configRepository.checkin(new GoConfigRevision(xmlString, updatedConfig.getMd5(), currentUser, CurrentGoCDVersion.getInstance().formatted(), timeProvider));
+        configRepository.checkinLater(new GoConfigRevision(xmlString, updatedConfig.getMd5(), currentUser, CurrentGoCDVersion.getInstance().formatted(), timeProvider));
         LOGGER.debug("[Config Save] Checkin updated config to git: Done.");
     }
 
@@ -127,7 +126,7 @@ public abstract class FullConfigSaveFlow {
         if (partials.isEmpty()) return;
 
         LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Starting.");
-        CruiseConfig mergedCruiseConfigForEdit = cloner.deepClone(validatedConfigHolder.configForEdit);
+        CruiseConfig mergedCruiseConfigForEdit = validatedConfigHolder.configForEdit.copyForMerge();
         mergedCruiseConfigForEdit.merge(partials, true);
         validatedConfigHolder.mergedConfigForEdit = mergedCruiseConfigForEdit;
         LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Done.");
@@ -22,6 +22,7 @@ import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.config.remote.ConfigOrigin;
 import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.config.update.FullConfigUpdateCommand;
+import com.thoughtworks.go.config.update.PartialConfigUpdateCommand;
 import com.thoughtworks.go.domain.GoConfigRevision;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
@@ -67,6 +68,7 @@ public class GoFileConfigDataSource {
     private SystemEnvironment systemEnvironment;
     private GoConfigMigration upgrader;
     private GoConfigCloner cloner = new GoConfigCloner();
+    private final IncrementalPartialMerger incrementalPartialMerger = new IncrementalPartialMerger();
     private GoConfigFileReader goConfigFileReader;
     private GoConfigFileWriter goConfigFileWriter;
 
@@ -282,7 +284,7 @@ public class GoFileConfigDataSource {
                 CruiseConfig mergedCruiseConfigForEdit = modifiedConfig;
                 if (!partials.isEmpty()) {
                     LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Starting.");
-                    mergedCruiseConfigForEdit = cloner.deepClone(modifiedConfig);
+                    mergedCruiseConfigForEdit = modifiedConfig.copyForMerge();
                     mergedCruiseConfigForEdit.merge(partials, true);
                     LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Done.");
                 }
@@ -405,7 +407,7 @@ public class GoFileConfigDataSource {
 
     private void updateMergedConfigForEdit(GoConfigHolder validatedConfigHolder, List<PartialConfig> partialConfigs) {
         if (partialConfigs.isEmpty()) return;
-        CruiseConfig mergedCruiseConfigForEdit = cloner.deepClone(validatedConfigHolder.configForEdit);
+        CruiseConfig mergedCruiseConfigForEdit = validatedConfigHolder.configForEdit.copyForMerge();
         mergedCruiseConfigForEdit.merge(partialConfigs, true);
         validatedConfigHolder.mergedConfigForEdit = mergedCruiseConfigForEdit;
     }
@@ -433,6 +435,12 @@ public class GoFileConfigDataSource {
     private GoConfigHolder trySavingConfig(UpdateConfigCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) throws Exception {
         String configAsXml;
         GoConfigHolder validatedConfigHolder;
+        if (updatingCommand instanceof PartialConfigUpdateCommand && systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_INCREMENTAL_MERGE)) {
+            GoConfigHolder mergedIncrementally = tryMergingPartialIncrementally((PartialConfigUpdateCommand) updatingCommand, configHolder, partials);
+            if (mergedIncrementally != null) {
+                return mergedIncrementally;
+            }
+        }
         LOGGER.debug("[Config Save] ==-- Getting modified config");
         if (shouldMergeConfig(updatingCommand, configHolder)) {
             if (!systemEnvironment.get(SystemEnvironment.ENABLE_CONFIG_MERGE_FEATURE)) {
@@ -454,6 +462,41 @@ public class GoFileConfigDataSource {
         return validatedConfigHolder;
     }
 
+    // A new revision of a partial which brings no new pipeline group or environment leaves cruise-config.xml as it is,
+    // so only that partial needs to be replaced in the current merged config instead of reloading and merging everything.
+    private GoConfigHolder tryMergingPartialIncrementally(PartialConfigUpdateCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) {
+        PartialConfig partial = updatingCommand.getPartial();
+        if (partials.stream().noneMatch(item -> item == partial)
+                || !isMergedWithAllBut(configHolder.config, partials, partial)
+                || partials.stream().anyMatch(item -> addsToMainConfig(configHolder.configForEdit, item))) {
+            return null;
+        }
+        CruiseConfig config = incrementalPartialMerger.replace(configHolder.config, updatingCommand.partialForMerge());
+        if (config == null) {
+            return null;
+        }
+        LOGGER.info("[Configuration Changed] Merged new revision of {} into the current configuration.", partial.getOrigin().displayName());
+        CruiseConfig configForEdit = configHolder.configForEdit.copyForMerge();
+        configForEdit.setPartials(partials);
+        reloadStrategy.latestState(config);
+        cachedGoPartials.markAsValid(partials);
+        return new GoConfigHolder(config, configForEdit);
+    }
+
+    private boolean isMergedWithAllBut(CruiseConfig config, List<PartialConfig> partials, PartialConfig partial) {
+        List<PartialConfig> mergedPartials = config.getMergedPartials();
+        if (config.isLocal() || mergedPartials.size() != partials.size()) {
+            return false;
+        }
+        List<ConfigOrigin> mergedOrigins = mergedPartials.stream().map(PartialConfig::getOrigin).collect(Collectors.toList());
+        return partials.stream().filter(item -> item != partial).allMatch(item -> mergedOrigins.contains(item.getOrigin()));
+    }
+
+    private boolean addsToMainConfig(CruiseConfig configForEdit, PartialConfig partial) {
+        return partial.getGroups().stream().anyMatch(group -> !configForEdit.getGroups().hasGroup(group.getGroup()))
+                || partial.getEnvironments().stream().anyMatch(environment -> !configForEdit.getEnvironments().hasEnvironmentNamed(environment.name()));
+    }
+
     private ConfigModifyingUser getConfigUpdatingUser(UpdateConfigCommand updatingCommand) {
         return updatingCommand instanceof UserAware ? ((UserAware) updatingCommand).user() : new ConfigModifyingUser();
     }
@@ -522,7 +565,7 @@ public class GoFileConfigDataSource {
     private void checkinConfigToGitRepo(List<PartialConfig> partials, CruiseConfig config, String configAsXml, String md5, String currentUser) throws Exception {
         reloadStrategy.latestState(config);
         LOGGER.debug("[Config Save] === Checking in the valid XML to config.git");
-        configRepository.checkin(new GoConfigRevision(configAsXml, md5, currentUser, CurrentGoCDVersion.getInstance().formatted(), timeProvider));
+        configRepository.checkinLater(new GoConfigRevision(configAsXml, md5, currentUser, CurrentGoCDVersion.getInstance().formatted(), timeProvider));
         LOGGER.debug("[Config Save] === Done checking in to config.git");
         cachedGoPartials.markAsValid(partials);
     }
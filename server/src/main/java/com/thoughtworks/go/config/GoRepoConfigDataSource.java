@@ -29,6 +29,7 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +39,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.util.Collections.synchronizedSet;
@@ -53,6 +55,7 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
     private GoConfigWatchList configWatchList;
     private ConfigReposMaterialParseResultManager configReposMaterialParseResultManager;
     private GoConfigService goConfigService;
+    private PartialConfigParseExecutor parseExecutor;
 
     private List<PartialConfigUpdateCompletedListener> listeners = new ArrayList<>();
     private Set<ConfigRepoConfig> modifiedConfigRepoConfigsAwaitingParse = synchronizedSet(new HashSet<>());
@@ -60,7 +63,18 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
     @Autowired
     public GoRepoConfigDataSource(GoConfigWatchList configWatchList, GoConfigPluginService configPluginService,
                                   ServerHealthService healthService, ConfigRepoService configRepoService,
-                                  GoConfigService goConfigService) {
+                                  GoConfigService goConfigService, SystemEnvironment systemEnvironment) {
+        this(configWatchList, configPluginService, healthService, configRepoService, goConfigService);
+        int parseThreads = systemEnvironment.getNumberOfConfigRepoParseThreads();
+        if (parseThreads > 0) {
+            this.parseExecutor = new PartialConfigParseExecutor(parseThreads, systemEnvironment.getNumberOfConfigRepoParseThreadsPerPlugin(),
+                    configReposMaterialParseResultManager);
+        }
+    }
+
+    GoRepoConfigDataSource(GoConfigWatchList configWatchList, GoConfigPluginService configPluginService,
+                           ServerHealthService healthService, ConfigRepoService configRepoService,
+                           GoConfigService goConfigService) {
         this.configReposMaterialParseResultManager = new ConfigReposMaterialParseResultManager(healthService, configRepoService);
         this.configPluginService = configPluginService;
         this.serverHealthService = healthService;
@@ -120,6 +134,32 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
         }
     }
 
+    public Map<String, Object> parseStatistics() {
+        return configReposMaterialParseResultManager.parseStatistics();
+    }
+
+    /**
+     * Parses a clean checkout of a config-repo material on the config-repo parse threads, or right away when those
+     * are turned off. Parses of config-repos waiting for a thread are not repeated: a parse of a newer checkout
+     * replaces the waiting one.
+     *
+     * @param whenDone called once the checkout is parsed, whether or not parsing succeeded
+     */
+    public void parseLater(MaterialConfig material, File folder, Modification modification, Runnable whenDone) {
+        ConfigRepoConfig repoConfig = configWatchList.getConfigRepoForMaterial(material);
+        if (parseExecutor == null || repoConfig == null) {
+            try {
+                onCheckoutComplete(material, folder, modification);
+            } catch (Exception e) {
+                LOGGER.error("Failed to parse configuration material {}", material.getDisplayName(), e);
+            }
+            whenDone.run();
+            return;
+        }
+        parseExecutor.submit(material.getFingerprint(), repoConfig.getPluginId(),
+                () -> onCheckoutComplete(material, folder, modification), whenDone);
+    }
+
     public void onCheckoutComplete(MaterialConfig material, File folder, Modification modification) {
         // called when pipelines/flyweight/[flyweight] has a clean checkout of latest material
 
@@ -155,8 +195,14 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
                 this.modifiedConfigRepoConfigsAwaitingParse.remove(repoConfig);
                 //TODO put modifications and previous partial config in context
                 // the context is just a helper for plugin.
-                PartialConfigLoadContext context = new LoadContext(repoConfig);
-                PartialConfig newPart = plugin.load(folder, context);
+                PartialConfigLoadContext context = new LoadContext(repoConfig, modification.getRevision());
+                PartialConfig newPart;
+                long parseStartedAt = System.currentTimeMillis();
+                try {
+                    newPart = plugin.load(folder, context);
+                } finally {
+                    this.configReposMaterialParseResultManager.recordParseTime(repoConfig.getPluginId(), System.currentTimeMillis() - parseStartedAt);
+                }
                 if (newPart == null) {
                     LOGGER.warn("Parsed configuration material {} by {} is null", material.getDisplayName(), plugin.displayName());
                     newPart = new PartialConfig();
@@ -213,9 +259,11 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
 
     private class LoadContext implements PartialConfigLoadContext {
         private ConfigRepoConfig repoConfig;
+        private String revision;
 
-        public LoadContext(ConfigRepoConfig repoConfig) {
+        public LoadContext(ConfigRepoConfig repoConfig, String revision) {
             this.repoConfig = repoConfig;
+            this.revision = revision;
         }
 
         @Override
@@ -227,5 +275,10 @@ public class GoRepoConfigDataSource implements ChangedRepoConfigWatchListListene
         public MaterialConfig configMaterial() {
             return this.repoConfig.getRepo();
         }
+
+        @Override
+        public String revision() {
+            return this.revision;
+        }
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @understands running config-repo parses on threads of their own, a limited number per plugin at a time,
+ * folding a parse requested for a config-repo which is still waiting into the waiting one
+ */
+class PartialConfigParseExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartialConfigParseExecutor.class);
+
+    private final int threads;
+    private final int parsesPerPlugin;
+    private final Executor executor;
+    private final ConfigReposMaterialParseResultManager parseResultManager;
+
+    private final Map<String, ParseRequest> waiting = new LinkedHashMap<>();
+    private final Set<String> runningFingerprints = new HashSet<>();
+    private final Map<String, Integer> runningPerPlugin = new HashMap<>();
+
+    PartialConfigParseExecutor(int threads, int parsesPerPlugin, ConfigReposMaterialParseResultManager parseResultManager) {
+        this(threads, parsesPerPlugin, Executors.newFixedThreadPool(threads, new ParserThreadFactory()), parseResultManager);
+    }
+
+    PartialConfigParseExecutor(int threads, int parsesPerPlugin, Executor executor, ConfigReposMaterialParseResultManager parseResultManager) {
+        this.threads = threads;
+        this.parsesPerPlugin = parsesPerPlugin;
+        this.executor = executor;
+        this.parseResultManager = parseResultManager;
+    }
+
+    /**
+     * @param fingerprint fingerprint of the config-repo material
+     * @param pluginId    the config-repo plugin doing the parse
+     * @param parse       the parse to run
+     * @param whenDone    called once the parse, or a later parse of the same config-repo it was folded into, has run
+     */
+    synchronized void submit(String fingerprint, String pluginId, Runnable parse, Runnable whenDone) {
+        ParseRequest request = waiting.get(fingerprint);
+        if (request != null) {
+            LOGGER.debug("[Config Repo Parse] Folding parse of {} into the one already waiting", fingerprint);
+            request.parse = parse;
+            request.callbacks.add(whenDone);
+            return;
+        }
+        waiting.put(fingerprint, new ParseRequest(fingerprint, pluginId, parse, whenDone));
+        parseResultManager.parseQueued();
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<ParseRequest> starting = new ArrayList<>();
+        Iterator<ParseRequest> iterator = waiting.values().iterator();
+        while (runningFingerprints.size() < threads && iterator.hasNext()) {
+            ParseRequest request = iterator.next();
+            if (runningFingerprints.contains(request.fingerprint) || !hasSlotFor(request.pluginId)) {
+                continue;
+            }
+            iterator.remove();
+            runningFingerprints.add(request.fingerprint);
+            runningPerPlugin.merge(request.pluginId, 1, Integer::sum);
+            parseResultManager.parseStarted();
+            starting.add(request);
+        }
+        starting.forEach(request -> executor.execute(() -> run(request)));
+    }
+
+    private boolean hasSlotFor(String pluginId) {
+        return parsesPerPlugin <= 0 || runningPerPlugin.getOrDefault(pluginId, 0) < parsesPerPlugin;
+    }
+
+    private void run(ParseRequest request) {
+        try {
+            request.parse.run();
+        } catch (Exception e) {
+            LOGGER.error("[Config Repo Parse] Parse of {} failed", request.fingerprint, e);
+        } finally {
+            parseResultManager.parseFinished();
+            synchronized (this) {
+                runningFingerprints.remove(request.fingerprint);
+                runningPerPlugin.computeIfPresent(request.pluginId, (pluginId, running) -> running == 1 ? null : running - 1);
+                dispatch();
+            }
+            for (Runnable callback : request.callbacks) {
+                try {
+                    callback.run();
+                } catch (Exception e) {
+                    LOGGER.error("[Config Repo Parse] Failed to notify completion of parse of {}", request.fingerprint, e);
+                }
+            }
+        }
+    }
+
+    private static class ParseRequest {
+        private final String fingerprint;
+        private final String pluginId;
+        private final List<Runnable> callbacks = new ArrayList<>();
+        private Runnable parse;
+
+        private ParseRequest(String fingerprint, String pluginId, Runnable parse, Runnable whenDone) {
+            this.fingerprint = fingerprint;
+            this.pluginId = pluginId;
+            this.parse = parse;
+            this.callbacks.add(whenDone);
+        }
+    }
+
+    private static class ParserThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "config-repo-parser-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -75,6 +75,19 @@ public class PartialConfigUpdateCommand implements UpdateConfigCommand {
         return cruiseConfig;
     }
 
+    public PartialConfig getPartial() {
+        return partial;
+    }
+
+    /**
+     * @return a copy of the partial to merge, carrying errors for what its config repository is not allowed to refer to
+     */
+    public PartialConfig partialForMerge() {
+        PartialConfig cloned = CLONER.deepClone(partial);
+        validateEntityForRules(cloned);
+        return cloned;
+    }
+
     private boolean validateEntityForRules(PartialConfig partialConfig) {
         //preflight check
         if (configRepoConfig == null) {
@@ -21,6 +21,9 @@ import com.thoughtworks.go.domain.PipelineTimelineEntry;
 
 public interface TimelineUpdateListener {
 
+    /**
+     * @param timeline an immutable snapshot of the pipeline's timeline, it must not be modified
+     */
     void added(PipelineTimelineEntry newlyAddedEntry, TreeSet<PipelineTimelineEntry> timeline);
 
 }
\ No newline at end of file
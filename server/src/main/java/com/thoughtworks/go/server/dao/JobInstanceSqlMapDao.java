@@ -15,7 +15,6 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
 import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.elastic.ClusterProfile;
 import com.thoughtworks.go.config.elastic.ElasticProfile;
@@ -61,7 +60,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     private static final Logger LOG = LoggerFactory.getLogger(JobInstanceSqlMapDao.class);
     private final LazyCache latestCompletedCache;
     private final CacheKeyGenerator cacheKeyGenerator;
-    private Cache cache;
     private TransactionSynchronizationManager transactionSynchronizationManager;
     private TransactionTemplate transactionTemplate;
     private EnvironmentVariableDao environmentVariableDao;
@@ -76,7 +74,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                                 GoCache goCache,
                                 TransactionTemplate transactionTemplate,
                                 SqlSessionFactory sqlSessionFactory,
-                                Cache cache,
                                 TransactionSynchronizationManager transactionSynchronizationManager,
                                 SystemEnvironment systemEnvironment,
                                 Database database,
@@ -87,7 +84,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         super(goCache, sqlSessionFactory, systemEnvironment, database);
         this.environmentVariableDao = environmentVariableDao;
         this.transactionTemplate = transactionTemplate;
-        this.cache = cache;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.resourceRepository = resourceRepository;
         this.artifactPlanRepository = artifactPlanRepository;
@@ -616,11 +612,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 saveTransition(jobInstance, transition);
             }
         }
-        if (jobInstance.getIdentifier() != null) {
-            String pipelineName = jobInstance.getIdentifier().getPipelineName();
-            String stageName = jobInstance.getIdentifier().getStageName();
-            cache.flushEntry(jobInstance.getBuildDurationKey(pipelineName, stageName));
-        }
     }
 
     private void saveTransition(JobInstance jobInstance, JobStateTransition transition) {
@@ -51,6 +51,8 @@ public interface StageDao extends JobDurationStrategy {
 
     Long getDurationOfLastSuccessfulOnAgent(String pipelineName, String stageName, JobInstance job);
 
+    Long getDurationPercentile(String pipelineName, String stageName, String jobName, int percentile);
+
     int getMaxStageOrder(long pipelineId);
 
     Integer getStageOrderInPipeline(long pipelineId, String stageName);
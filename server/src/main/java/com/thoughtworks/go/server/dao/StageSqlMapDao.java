@@ -16,8 +16,6 @@
 package com.thoughtworks.go.server.dao;
 
 import com.opensymphony.oscache.base.Cache;
-import com.opensymphony.oscache.base.CacheEntry;
-import com.opensymphony.oscache.base.NeedsRefreshException;
 import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.StageConfig;
@@ -30,6 +28,7 @@ import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModel;
 import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.domain.JobDurationStatistics;
 import com.thoughtworks.go.server.domain.JobStatusListener;
 import com.thoughtworks.go.server.domain.StageIdentity;
 import com.thoughtworks.go.server.domain.StageStatusListener;
@@ -70,6 +69,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     private TransactionSynchronizationManager transactionSynchronizationManager;
     private Cloner cloner = new Cloner();
     private DynamicReadWriteLock readWriteLock = new DynamicReadWriteLock();
+    private final JobDurationStatistics durationStatistics = new JobDurationStatistics();
 
     @Autowired
     public StageSqlMapDao(JobInstanceSqlMapDao buildInstanceDao,
@@ -231,35 +231,27 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public long getExpectedDurationMillis(String pipelineName, String stageName, JobInstance job) {
         Long duration = getDurationOfLastSuccessfulOnAgent(pipelineName, stageName, job);
+        if (duration == null) {
+            duration = getDurationPercentile(pipelineName, stageName, job.getName(), 50);
+        }
         return duration == null ? 0L : duration * 1000L;
     }
 
-
-    // TODO: (ketan) do we really care about duration on this agent, can't we just average the last few runs?
-    // TODO: this performans (miserably) on an environment with elastic agents, and there is no result or ETA
-    // TODO: to show because of this implementation
+    // Durations are kept up to date from job completion events (see jobStatusChanged), the database is only
+    // consulted the first time a job is seen on an agent after a server start.
     @Override
     public Long getDurationOfLastSuccessfulOnAgent(String pipelineName, String stageName, JobInstance job) {
-        String key = job.getBuildDurationKey(pipelineName, stageName);
-        Long duration;
-        try {
-            duration = (Long) cache.getFromCache(key, CacheEntry.INDEFINITE_EXPIRY);
-        } catch (NeedsRefreshException nre) {
-            boolean updated = false;
-            try {
-                duration = recalculateBuildDuration(pipelineName, stageName, job);
-                cache.putInCache(key, duration);
-                updated = true;
-            } finally {
-                if (!updated) {
-                    // It is essential that cancelUpdate is called if the
-                    // cached content could not be rebuilt
-                    cache.cancelUpdate(key);
-                    LOGGER.warn("refresh cancelled for {}", key);
-                }
-            }
-        }
-        return duration;
+        return durationStatistics.lastSuccessfulOnAgent(pipelineName, stageName, job, () -> recalculateBuildDuration(pipelineName, stageName, job));
+    }
+
+    @Override
+    public Long getDurationPercentile(String pipelineName, String stageName, String jobName, int percentile) {
+        return durationStatistics.percentile(pipelineName, stageName, jobName, percentile);
+    }
+
+    // This is only used in test, to forget the durations (and remembered misses) recorded by an earlier test.
+    public void clearDurationStatisticsWhichIsEvilAndShouldNotBeUsedInRealWorld() {
+        durationStatistics.clear();
     }
 
     private Long recalculateBuildDuration(String pipelineName, String stageName, JobInstance job) {
@@ -784,6 +776,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public void jobStatusChanged(JobInstance job) {
         clearJobStatusDependentCaches(job.getStageId(), job.getIdentifier().getStageIdentifier());
+        durationStatistics.record(job.getIdentifier().getPipelineName(), job.getIdentifier().getStageName(), job);
     }
 
     private void clearJobStatusDependentCaches(long stageId, StageIdentifier stageIdentifier) {
@@ -37,7 +37,7 @@ public class GoDashboardTemplateConfigChangeHandler {
     }
 
     public void call(PipelineTemplateConfig pipelineTemplateConfig) {
-        List<CaseInsensitiveString> pipelines = goConfigService.currentCruiseConfig().pipelinesAssociatedWithTemplate(pipelineTemplateConfig.name());
+        List<CaseInsensitiveString> pipelines = goConfigService.pipelinesAssociatedWithTemplate(pipelineTemplateConfig.name());
         for (CaseInsensitiveString pipeline : pipelines) {
             cacheUpdateService.updateCacheForPipeline(pipeline);
         }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.JobInstance;
+import com.thoughtworks.go.domain.JobState;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * @understands the recent durations of successful jobs, so that expected durations can be answered without going to the database
+ */
+public class JobDurationStatistics {
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_AGENT_ENTRIES = 1000;
+
+    private final int windowSize;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Long>> lastSuccessfulOnAgent;
+
+    public JobDurationStatistics() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_AGENT_ENTRIES);
+    }
+
+    public JobDurationStatistics(int windowSize, int maxAgentEntries) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1, was " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.lastSuccessfulOnAgent = Collections.synchronizedMap(new LinkedHashMap<String, Optional<Long>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<Long>> eldest) {
+                return size() > maxAgentEntries;
+            }
+        });
+    }
+
+    public void record(String pipelineName, String stageName, JobInstance job) {
+        if (!job.isCompleted() || !job.isPassed()) {
+            return;
+        }
+        String agentKey = job.getBuildDurationKey(pipelineName, stageName);
+        if (job.getStartedDateFor(JobState.Building) == null || job.getCompletedDate() == null) {
+            lastSuccessfulOnAgent.remove(agentKey);
+            return;
+        }
+        long durationInSeconds = job.durationOfCompletedBuildInSeconds();
+        windowFor(pipelineName, stageName, job.getName()).add(durationInSeconds);
+        lastSuccessfulOnAgent.put(agentKey, Optional.of(durationInSeconds));
+    }
+
+    /**
+     * @param loader consulted only the first time a job is seen on an agent, and when that job has not completed
+     *               successfully since the server started; its answer (including {@code null}) is remembered for the
+     *               most recently used job/agent pairs
+     * @return duration in seconds of the last successful run of the job on the job's agent, or null if there is none
+     */
+    public Long lastSuccessfulOnAgent(String pipelineName, String stageName, JobInstance job, Supplier<Long> loader) {
+        String agentKey = job.getBuildDurationKey(pipelineName, stageName);
+        Optional<Long> duration = lastSuccessfulOnAgent.get(agentKey);
+        if (duration == null) {
+            Long loaded = loader.get();
+            if (loaded != null) {
+                windowFor(pipelineName, stageName, job.getName()).seed(loaded);
+            }
+            Optional<Long> existing = lastSuccessfulOnAgent.putIfAbsent(agentKey, Optional.ofNullable(loaded));
+            duration = existing == null ? Optional.ofNullable(loaded) : existing;
+        }
+        return duration.orElse(null);
+    }
+
+    /**
+     * @param percentile between 1 and 100
+     * @return nearest-rank percentile in seconds of the recent successful runs of the job on any agent, or null if there are none
+     */
+    public Long percentile(String pipelineName, String stageName, String jobName, int percentile) {
+        if (percentile < 1 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 1 and 100, was " + percentile);
+        }
+        Window window = windows.get(key(pipelineName, stageName, jobName));
+        return window == null ? null : window.percentile(percentile);
+    }
+
+    public void clear() {
+        windows.clear();
+        lastSuccessfulOnAgent.clear();
+    }
+
+    private Window windowFor(String pipelineName, String stageName, String jobName) {
+        return windows.computeIfAbsent(key(pipelineName, stageName, jobName), k -> new Window(windowSize));
+    }
+
+    private static String key(String pipelineName, String stageName, String jobName) {
+        return String.format("%s/%s/%s", pipelineName, stageName, jobName).toLowerCase();
+    }
+
+    private static class Window {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        private Window(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void add(long sample) {
+            samples[next] = sample;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized void seed(long sample) {
+            if (count == 0) {
+                add(sample);
+            }
+        }
+
+        synchronized Long percentile(int percentile) {
+            if (count == 0) {
+                return null;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    }
+}
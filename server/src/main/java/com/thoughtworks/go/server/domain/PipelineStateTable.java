@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.domain.PipelinePauseInfo;
+import com.thoughtworks.go.domain.PipelineState;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.StageIdentifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * @understands the lock, pause and trigger state of every pipeline the server has been asked about.
+ * <p>
+ * Reads are plain map lookups. A pipeline's lock or pause state is loaded from the database the first time it is
+ * asked for and is then kept current by the services that change it, which write to the database first and then
+ * update this table. Rows are immutable; every change replaces a row atomically. Rows for pipelines which are no longer
+ * in config are dropped when the config changes.
+ */
+@Component
+public class PipelineStateTable implements StageStatusListener {
+    private final ConcurrentMap<CaseInsensitiveString, Row> rows = new ConcurrentHashMap<>();
+
+    public boolean isLocked(String pipelineName, Supplier<PipelineState> loader) {
+        Row row = rowFor(pipelineName);
+        if (row.locked == null) {
+            row = loadLock(pipelineName, loader);
+        }
+        return row.locked;
+    }
+
+    public StageIdentifier lockedBy(String pipelineName, Supplier<PipelineState> loader) {
+        Row row = rowFor(pipelineName);
+        if (row.locked == null || (row.locked && row.lockedBy == null)) {
+            row = loadLock(pipelineName, loader);
+        }
+        return row.locked ? row.lockedBy : null;
+    }
+
+    public void locked(String pipelineName) {
+        rows.compute(key(pipelineName), (name, row) -> orEmpty(row).withLock(true, null));
+    }
+
+    public void unlocked(String pipelineName) {
+        rows.compute(key(pipelineName), (name, row) -> orEmpty(row).withLock(false, null));
+    }
+
+    public PipelinePauseInfo pauseInfo(String pipelineName, Supplier<PipelinePauseInfo> loader) {
+        Row row = rowFor(pipelineName);
+        if (row.pauseInfo == null) {
+            PipelinePauseInfo loaded = loader.get();
+            PipelinePauseInfo pauseInfo = loaded == null ? PipelinePauseInfo.notPaused() : loaded;
+            row = rows.compute(key(pipelineName), (name, current) -> {
+                Row existing = orEmpty(current);
+                return existing.pauseInfo == null ? existing.withPauseInfo(pauseInfo) : existing;
+            });
+        }
+        return row.pauseInfo;
+    }
+
+    public void pauseInfoChanged(String pipelineName, PipelinePauseInfo pauseInfo) {
+        rows.compute(key(pipelineName), (name, row) -> orEmpty(row).withPauseInfo(pauseInfo));
+    }
+
+    public boolean isTriggering(CaseInsensitiveString pipelineName) {
+        Row row = rows.get(pipelineName);
+        return row != null && row.triggering;
+    }
+
+    /**
+     * @return false if the pipeline was already marked as triggering
+     */
+    public boolean markTriggering(CaseInsensitiveString pipelineName) {
+        AtomicBoolean marked = new AtomicBoolean();
+        rows.compute(pipelineName, (name, row) -> {
+            Row existing = orEmpty(row);
+            marked.set(!existing.triggering);
+            return existing.withTriggering(true);
+        });
+        return marked.get();
+    }
+
+    public void clearTriggering(CaseInsensitiveString pipelineName) {
+        rows.computeIfPresent(pipelineName, (name, row) -> {
+            Row cleared = row.withTriggering(false);
+            return cleared.isEmpty() ? null : cleared;
+        });
+    }
+
+    /**
+     * The stage that holds a pipeline lock moves along as the locked instance runs, so forget it and look it up again
+     * the next time it is asked for. Whether the pipeline is locked does not change here.
+     */
+    @Override
+    public void stageStatusChanged(Stage stage) {
+        rows.computeIfPresent(key(stage.getIdentifier().getPipelineName()), (name, row) -> row.withoutLockedBy());
+    }
+
+    /**
+     * Drops the row of a pipeline which has been removed from config. A row which is still marked as triggering is kept
+     * until the trigger in flight clears it.
+     */
+    public void forget(CaseInsensitiveString pipelineName) {
+        rows.computeIfPresent(pipelineName, (name, row) -> row.triggering ? row.withoutState() : null);
+    }
+
+    public void retainOnly(Predicate<CaseInsensitiveString> pipelineExists) {
+        for (CaseInsensitiveString pipelineName : rows.keySet()) {
+            if (!pipelineExists.test(pipelineName)) {
+                forget(pipelineName);
+            }
+        }
+    }
+
+    public void clearWhichIsEvilAndShouldNotBeUsedInRealWorld() {
+        rows.clear();
+    }
+
+    private Row loadLock(String pipelineName, Supplier<PipelineState> loader) {
+        PipelineState pipelineState = loader.get();
+        boolean locked = pipelineState != null && pipelineState.isLocked();
+        StageIdentifier lockedBy = locked ? pipelineState.getLockedBy() : null;
+        return rows.compute(key(pipelineName), (name, current) -> {
+            Row existing = orEmpty(current);
+            if (existing.locked == null) {
+                return existing.withLock(locked, lockedBy);
+            }
+            if (existing.locked && existing.lockedBy == null && locked) {
+                return existing.withLock(true, lockedBy);
+            }
+            return existing;
+        });
+    }
+
+    private Row rowFor(String pipelineName) {
+        return orEmpty(rows.get(key(pipelineName)));
+    }
+
+    private static CaseInsensitiveString key(String pipelineName) {
+        return new CaseInsensitiveString(pipelineName);
+    }
+
+    private static Row orEmpty(Row row) {
+        return row == null ? Row.EMPTY : row;
+    }
+
+    private static final class Row {
+        private static final Row EMPTY = new Row(null, null, null, false);
+
+        private final Boolean locked;
+        private final StageIdentifier lockedBy;
+        private final PipelinePauseInfo pauseInfo;
+        private final boolean triggering;
+
+        private Row(Boolean locked, StageIdentifier lockedBy, PipelinePauseInfo pauseInfo, boolean triggering) {
+            this.locked = locked;
+            this.lockedBy = lockedBy;
+            this.pauseInfo = pauseInfo;
+            this.triggering = triggering;
+        }
+
+        private Row withLock(boolean locked, StageIdentifier lockedBy) {
+            return new Row(locked, lockedBy, pauseInfo, triggering);
+        }
+
+        private Row withoutLockedBy() {
+            return lockedBy == null ? this : new Row(locked, null, pauseInfo, triggering);
+        }
+
+        private Row withoutState() {
+            return new Row(null, null, null, triggering);
+        }
+
+        private Row withPauseInfo(PipelinePauseInfo pauseInfo) {
+            return new Row(locked, lockedBy, pauseInfo, triggering);
+        }
+
+        private Row withTriggering(boolean triggering) {
+            return this.triggering == triggering ? this : new Row(locked, lockedBy, pauseInfo, triggering);
+        }
+
+        private boolean isEmpty() {
+            return locked == null && lockedBy == null && pauseInfo == null && !triggering;
+        }
+    }
+}
@@ -15,7 +15,6 @@
  */
 package com.thoughtworks.go.server.domain;
 
-import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.domain.PipelineTimelineEntry;
 import com.thoughtworks.go.listener.TimelineUpdateListener;
@@ -30,26 +29,26 @@ import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
 import java.util.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @understands a sorted collection of PipelineMaterialModification
+ * <p>
+ * Every pipeline has an immutable {@link Version} of its timeline. Writers build a new version (copy-on-write) and swap it
+ * in atomically, so readers never block on a timeline update and never see a half applied one.
  */
 @Component
 public class PipelineTimeline {
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTimeline.class);
 
-    private final Map<CaseInsensitiveString, TreeSet<PipelineTimelineEntry>> naturalOrderPmm;
-    private final Map<CaseInsensitiveString, ArrayList<PipelineTimelineEntry>> scheduleOrderPmm;
+    private final ConcurrentMap<CaseInsensitiveString, Version> versions;
     private volatile long maximumId;
     private final PipelineRepository pipelineRepository;
     private TransactionTemplate transactionTemplate;
     private TransactionSynchronizationManager transactionSynchronizationManager;
     private TimelineUpdateListener[] listeners;
-    private final ReadWriteLock naturalOrderLock = new ReentrantReadWriteLock();
-    private final ReadWriteLock scheduleOrderLock = new ReentrantReadWriteLock();
-    private final Cloner cloner = new Cloner();
+    private final Object writeMutex = new Object();
 
     @Autowired
     public PipelineTimeline(PipelineRepository pipelineRepository, TransactionTemplate transactionTemplate, TransactionSynchronizationManager transactionSynchronizationManager,
@@ -58,8 +57,7 @@ public class PipelineTimeline {
         this.transactionTemplate = transactionTemplate;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.listeners = listeners;
-        naturalOrderPmm = new HashMap<>();
-        scheduleOrderPmm = new HashMap<>();
+        versions = new ConcurrentHashMap<>();
         maximumId = -1;
     }
 
@@ -68,16 +66,7 @@ public class PipelineTimeline {
      */
     @Deprecated
     public Collection<PipelineTimelineEntry> getEntriesFor(String pipelineName) {
-        naturalOrderLock.readLock().lock();
-        try {
-            TreeSet<PipelineTimelineEntry> tree = naturalOrderPmm.get(new CaseInsensitiveString(pipelineName));
-            if (tree == null) {
-                tree = new TreeSet<>();
-            }
-            return Collections.unmodifiableCollection(cloner.deepClone(tree));
-        } finally {
-            naturalOrderLock.readLock().unlock();
-        }
+        return Collections.unmodifiableCollection(versionFor(new CaseInsensitiveString(pipelineName)).naturalOrder);
     }
 
     public long maximumId() {
@@ -85,68 +74,72 @@ public class PipelineTimeline {
     }
 
     public void add(PipelineTimelineEntry pipelineTimelineEntry) {
-        CaseInsensitiveString pipelineName = new CaseInsensitiveString(pipelineTimelineEntry.getPipelineName());
-        initializedNaturalOrderCollection(pipelineName).add(pipelineTimelineEntry);
-        initializedScheduleOrderCollection(pipelineName).add(pipelineTimelineEntry);
-        pipelineTimelineEntry.setInsertedBefore(naturalOrderAfter(pipelineTimelineEntry));
-        pipelineTimelineEntry.setInsertedAfter(naturalOrderBefore(pipelineTimelineEntry));
-        pipelineTimelineEntry.updateNaturalOrder();
-        updateMaximumId(pipelineTimelineEntry.getId());
+        addAll(Collections.singletonList(pipelineTimelineEntry));
     }
 
-    public void update() {
-        acquireAllWriteLocks();
-        try {
-            final long maximumIdBeforeUpdate = maximumId;
-            transactionTemplate.execute((TransactionCallback) transactionStatus -> {
-                final List<PipelineTimelineEntry> newlyAddedEntries = new ArrayList<>();
-                transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
-                    @Override
-                    public void afterCompletion(int status) {
-                        if (STATUS_ROLLED_BACK == status) {
-                            rollbackTempEntries();
-                        } else if (STATUS_COMMITTED == status) {
-                            notifyListeners(newlyAddedEntries);
-                        }
-                    }
-
-                    private void rollbackTempEntries() {
-                        for (PipelineTimelineEntry entry : newlyAddedEntries) {
-                            rollbackNewEntryFor(entry);
-                        }
-                        maximumId = maximumIdBeforeUpdate;
-                    }
+    /**
+     * Adds the entries to the timeline, publishing at most one new version per pipeline.
+     *
+     * @return the entries which were actually added, entries already on the timeline (loaded by a concurrent update) are skipped
+     */
+    public List<PipelineTimelineEntry> addAll(List<PipelineTimelineEntry> entries) {
+        List<PipelineTimelineEntry> added = new ArrayList<>();
+        synchronized (writeMutex) {
+            Map<CaseInsensitiveString, Version.Builder> changed = new LinkedHashMap<>();
+            long newMaximumId = maximumId;
+            for (PipelineTimelineEntry entry : entries) {
+                CaseInsensitiveString pipelineName = new CaseInsensitiveString(entry.getPipelineName());
+                Version.Builder builder = changed.computeIfAbsent(pipelineName, name -> versionFor(name).builder());
+                if (builder.contains(entry)) {
+                    continue;
+                }
+                builder.add(entry);
+                added.add(entry);
+                newMaximumId = Math.max(entry.getId(), newMaximumId);
+            }
+            publish(changed);
+            maximumId = newMaximumId;
+        }
+        return added;
+    }
 
-                    private void rollbackNewEntryFor(PipelineTimelineEntry entry) {
-                        CaseInsensitiveString pipelineName = new CaseInsensitiveString(entry.getPipelineName());
-                        initializedNaturalOrderCollection(pipelineName).remove(entry);
-                        initializedScheduleOrderCollection(pipelineName).remove(entry);
+    public void update() {
+        final long maximumIdBeforeUpdate = maximumId;
+        transactionTemplate.execute((TransactionCallback) transactionStatus -> {
+            final List<PipelineTimelineEntry> newlyAddedEntries = new ArrayList<>();
+            transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (STATUS_ROLLED_BACK == status) {
+                        rollback(newlyAddedEntries, maximumIdBeforeUpdate);
+                    } else if (STATUS_COMMITTED == status) {
+                        notifyListeners(newlyAddedEntries);
                     }
-
-
-                });
-                pipelineRepository.updatePipelineTimeline(PipelineTimeline.this, newlyAddedEntries);
-                return null;
+                }
             });
-        } finally {
-            releaseAllWriteLocks();
-        }
+            pipelineRepository.updatePipelineTimeline(PipelineTimeline.this, newlyAddedEntries);
+            return null;
+        });
     }
 
-
-    // --------------------------------------------------------
-    // These methods should acquire and release lock in corresponding order.
-    private void acquireAllWriteLocks() {
-        naturalOrderLock.writeLock().lock();
-        scheduleOrderLock.writeLock().lock();
+    private void rollback(List<PipelineTimelineEntry> entries, long maximumIdBeforeUpdate) {
+        synchronized (writeMutex) {
+            Map<CaseInsensitiveString, Version.Builder> changed = new LinkedHashMap<>();
+            for (PipelineTimelineEntry entry : entries) {
+                CaseInsensitiveString pipelineName = new CaseInsensitiveString(entry.getPipelineName());
+                changed.computeIfAbsent(pipelineName, name -> versionFor(name).builder()).remove(entry);
+            }
+            publish(changed);
+            //a concurrent update may have moved ahead, going back only makes the next update reload (and skip) a few entries
+            maximumId = Math.min(maximumId, maximumIdBeforeUpdate);
+        }
     }
 
-    //Release in the reverse of the acquired order.
-    private void releaseAllWriteLocks() {
-        scheduleOrderLock.writeLock().unlock();
-        naturalOrderLock.writeLock().unlock();
+    private void publish(Map<CaseInsensitiveString, Version.Builder> changed) {
+        for (Map.Entry<CaseInsensitiveString, Version.Builder> entry : changed.entrySet()) {
+            versions.put(entry.getKey(), entry.getValue().build());
+        }
     }
-    // --------------------------------------------------------
 
     private void notifyListeners(List<PipelineTimelineEntry> newEntries) {
         Map<CaseInsensitiveString, PipelineTimelineEntry> pipelineToOldestEntry = new HashMap<>();
@@ -161,7 +154,7 @@ public class PipelineTimeline {
         for (TimelineUpdateListener listener : listeners) {
             for (Map.Entry<CaseInsensitiveString, PipelineTimelineEntry> entry : pipelineToOldestEntry.entrySet()) {
                 try {
-                    listener.added(entry.getValue(), naturalOrderPmm.get(entry.getKey()));
+                    listener.added(entry.getValue(), versionFor(entry.getKey()).naturalOrder);
                 } catch (Exception e) {
                     LOGGER.warn("Ignoring exception when notifying listener: {}", listener, e);
                 }
@@ -173,12 +166,7 @@ public class PipelineTimeline {
      * This is called on system init and is called by Spring. Hence, this is not done in a transaction. At any other time, the method update should be used
      */
     public void updateTimelineOnInit() {
-        acquireAllWriteLocks();
-        try {
-            pipelineRepository.updatePipelineTimeline(this, new ArrayList<>());
-        } finally {
-            releaseAllWriteLocks();
-        }
+        pipelineRepository.updatePipelineTimeline(this, new ArrayList<>());
     }
 
     /**
@@ -187,21 +175,11 @@ public class PipelineTimeline {
      * @return PMM which was before the pipeline with this id at the time of insertion of the PTE with the id or null if there was nothing before this pipeline during insertion
      */
     public PipelineTimelineEntry runBefore(long id, final CaseInsensitiveString pipelineName) {
-        naturalOrderLock.readLock().lock();
-        try {
-            TreeSet<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
-                return null;
-            }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedAfter();
-                }
-            }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
-        } finally {
-            naturalOrderLock.readLock().unlock();
+        Version version = versions.get(pipelineName);
+        if (version == null) {
+            return null;
         }
+        return version.entryWithId(id).insertedAfter();
     }
 
     /**
@@ -210,108 +188,121 @@ public class PipelineTimeline {
      * @return PMM which was after the pipeline with this id at the time of insertion of the PTE with the id or null if there was nothing after this pipeline during insertion
      */
     public PipelineTimelineEntry runAfter(long id, final CaseInsensitiveString pipelineName) {
-        naturalOrderLock.readLock().lock();
-        try {
-            TreeSet<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
-                return null;
-            }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedBefore();
-                }
-            }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
-        } finally {
-            naturalOrderLock.readLock().unlock();
+        Version version = versions.get(pipelineName);
+        if (version == null) {
+            return null;
         }
+        return version.entryWithId(id).insertedBefore();
     }
 
-    private void updateMaximumId(long id) {
-        maximumId = Math.max(id, maximumId);
+    PipelineTimelineEntry naturalOrderBefore(PipelineTimelineEntry pipelineTimelineEntry) {
+        return versionFor(new CaseInsensitiveString(pipelineTimelineEntry.getPipelineName())).naturalOrder.lower(pipelineTimelineEntry);
     }
 
-    private TreeSet<PipelineTimelineEntry> initializedNaturalOrderCollection(final CaseInsensitiveString pipelineName) {
-        if (!naturalOrderPmm.containsKey(pipelineName)) {
-            naturalOrderPmm.put(pipelineName, new TreeSet<>());
-        }
-        return naturalOrderPmm.get(pipelineName);
+    private Version versionFor(CaseInsensitiveString pipelineName) {
+        return versions.getOrDefault(pipelineName, Version.EMPTY);
     }
 
-    private ArrayList<PipelineTimelineEntry> initializedScheduleOrderCollection(final CaseInsensitiveString pipelineName) {
-        if (!scheduleOrderPmm.containsKey(pipelineName)) {
-            scheduleOrderPmm.put(pipelineName, new ArrayList<>());
+    /**
+     * @deprecated No reason why you should use this apart from test tear down
+     */
+    @Deprecated
+    public void clearWhichIsEvilAndShouldNotBeUsedInRealWorld() {
+        synchronized (writeMutex) {
+            versions.clear();
         }
-        return scheduleOrderPmm.get(pipelineName);
     }
 
-    private PipelineTimelineEntry naturalOrderAfter(PipelineTimelineEntry pipelineTimelineEntry) {
-        naturalOrderLock.readLock().lock();
-        try {
-            return naturalOrderPmm.get(new CaseInsensitiveString(pipelineTimelineEntry.getPipelineName())).higher(pipelineTimelineEntry);
-        } finally {
-            naturalOrderLock.readLock().unlock();
-        }
+    public int instanceCount(CaseInsensitiveString pipelineName) {
+        return versionFor(pipelineName).scheduleOrder.size();
     }
 
-    PipelineTimelineEntry naturalOrderBefore(PipelineTimelineEntry pipelineTimelineEntry) {
-        naturalOrderLock.readLock().lock();
-        try {
-            return naturalOrderPmm.get(new CaseInsensitiveString(pipelineTimelineEntry.getPipelineName())).lower(pipelineTimelineEntry);
-        } finally {
-            naturalOrderLock.readLock().unlock();
+    public PipelineTimelineEntry instanceFor(CaseInsensitiveString pipelineName, int index) {
+        Version version = versions.get(pipelineName);
+        return version == null ? null : version.scheduleOrder.get(index);
+    }
+
+    public PipelineTimelineEntry getEntryFor(CaseInsensitiveString pipelineName, Integer pipelineCounter) {
+        List<PipelineTimelineEntry> instances = versionFor(pipelineName).scheduleOrder;
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            PipelineTimelineEntry instance = instances.get(i);
+            if (instance.getCounter() == pipelineCounter) {
+                return instance;
+            }
         }
+        return null;
     }
 
     /**
-     * @deprecated No reason why you should use this apart from test tear down
+     * @understands an immutable snapshot of the timeline of one pipeline. It is never modified once published,
+     * entries themselves are only ever linked to their neighbours before they are published.
      */
-    @Deprecated
-    public void clearWhichIsEvilAndShouldNotBeUsedInRealWorld() {
-        acquireAllWriteLocks();
-        try {
-            naturalOrderPmm.clear();
-            scheduleOrderPmm.clear();
-        } finally {
-            releaseAllWriteLocks();
+    private static class Version {
+        private static final Version EMPTY = new Version(new TreeSet<>(), Collections.emptyList(), -1);
+
+        private final TreeSet<PipelineTimelineEntry> naturalOrder;
+        private final List<PipelineTimelineEntry> scheduleOrder;
+        private final long maximumId;
+
+        private Version(TreeSet<PipelineTimelineEntry> naturalOrder, List<PipelineTimelineEntry> scheduleOrder, long maximumId) {
+            this.naturalOrder = naturalOrder;
+            this.scheduleOrder = scheduleOrder;
+            this.maximumId = maximumId;
         }
-    }
 
-    public int instanceCount(CaseInsensitiveString pipelineName) {
-        scheduleOrderLock.readLock().lock();
-        try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
-            return instances == null ? 0 : instances.size();
-        } finally {
-            scheduleOrderLock.readLock().unlock();
+        private PipelineTimelineEntry entryWithId(long id) {
+            for (PipelineTimelineEntry pipelineTimelineEntry : naturalOrder) {
+                if (id == pipelineTimelineEntry.getId()) {
+                    return pipelineTimelineEntry;
+                }
+            }
+            throw new RuntimeException("Cannot find pipeline with id: " + id);
         }
-    }
 
-    public PipelineTimelineEntry instanceFor(CaseInsensitiveString pipelineName, int index) {
-        scheduleOrderLock.readLock().lock();
-        try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
-            return instances == null ? null : instances.get(index);
-        } finally {
-            scheduleOrderLock.readLock().unlock();
+        private Builder builder() {
+            return new Builder(this);
         }
-    }
 
+        private static class Builder {
+            private final TreeSet<PipelineTimelineEntry> naturalOrder;
+            private final ArrayList<PipelineTimelineEntry> scheduleOrder;
+            private long maximumId;
 
-    public PipelineTimelineEntry getEntryFor(CaseInsensitiveString pipelineName, Integer pipelineCounter) {
-        scheduleOrderLock.readLock().lock();
-        try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
-            for (int i = instances.size() - 1; i >= 0; i--) {
-                PipelineTimelineEntry instance = instances.get(i);
-                if (instance.getCounter() == pipelineCounter) {
-                    return instance;
+            private Builder(Version from) {
+                naturalOrder = new TreeSet<>(from.naturalOrder);
+                scheduleOrder = new ArrayList<>(from.scheduleOrder);
+                maximumId = from.maximumId;
+            }
+
+            private boolean contains(PipelineTimelineEntry entry) {
+                if (entry.getId() > maximumId) {
+                    return false;
                 }
+                for (int i = scheduleOrder.size() - 1; i >= 0; i--) {
+                    if (scheduleOrder.get(i).equals(entry)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private void add(PipelineTimelineEntry entry) {
+                naturalOrder.add(entry);
+                scheduleOrder.add(entry);
+                entry.setInsertedBefore(naturalOrder.higher(entry));
+                entry.setInsertedAfter(naturalOrder.lower(entry));
+                entry.updateNaturalOrder();
+                maximumId = Math.max(entry.getId(), maximumId);
+            }
+
+            private void remove(PipelineTimelineEntry entry) {
+                naturalOrder.remove(entry);
+                scheduleOrder.remove(entry);
+            }
+
+            private Version build() {
+                return new Version(naturalOrder, scheduleOrder, maximumId);
             }
-            return null;
-        } finally {
-            scheduleOrderLock.readLock().unlock();
         }
     }
-
 }
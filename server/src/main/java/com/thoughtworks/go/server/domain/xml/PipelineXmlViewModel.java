@@ -132,7 +132,7 @@ public class PipelineXmlViewModel implements XmlRepresentable {
                 changeset.addElement("checkinTime").addText(DateUtils.formatISO8601(modification.getModifiedTime()));
                 changeset.addElement("revision").addCDATA(modification.getRevision());
                 changeset.addElement("message").addCDATA(modification.getComment());
-                List<ModifiedFile> modifiedFiles = modification.getModifiedFiles();
+                List<ModifiedFile> modifiedFiles = modification.getAllModifiedFiles();
                 for (ModifiedFile modifiedFile : modifiedFiles) {
                     changeset.addElement("file").addAttribute("name", modifiedFile.getFileName()).addAttribute("action", modifiedFile.getAction().toString());
                 }
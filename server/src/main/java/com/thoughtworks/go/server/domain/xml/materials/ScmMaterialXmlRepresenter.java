@@ -33,7 +33,7 @@ public class ScmMaterialXmlRepresenter extends MaterialXmlRepresenter {
                 .cdataNode("revision", modification.getRevision())
                 .cdataNode("message", modification.getComment());
 
-            modification.getModifiedFiles().forEach(file -> {
+            modification.getAllModifiedFiles().forEach(file -> {
                 cb.node("file", fb -> fb.
                     attr("name", file.getFileName())
                     .attr("action", file.getAction().toString()));
@@ -170,6 +170,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
         try {
             dashboardActivityListener.startDaemon();
             ccTrayActivityListener.startDaemon();
+            dependencyMaterialUpdateNotifier.startDaemon();
         } catch (Throwable throwable) {
             throw new RuntimeException(throwable);
         }
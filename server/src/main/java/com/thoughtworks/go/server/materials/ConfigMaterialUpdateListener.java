@@ -64,6 +64,7 @@ public class ConfigMaterialUpdateListener implements GoMessageListener<MaterialU
         //MDU is done using the checkout, it has done db update and stored latest changes
         // but MUS is still waiting for material updated message on MaterialUpdateCompletedTopic
         LOGGER.debug("[Config Material Update] Config material update completed for material {}. Starting parse process", material);
+        boolean parseScheduled = false;
         try {
             if (message instanceof MaterialUpdateFailedMessage) {
                 MaterialUpdateFailedMessage failure = (MaterialUpdateFailedMessage) message;
@@ -76,30 +77,36 @@ public class ConfigMaterialUpdateListener implements GoMessageListener<MaterialU
                 MaterialRevision lastParseRevision = getMaterialRevisionAtLastParseAttempt(message);
                 if (lastParseRevision == null) {
                     //never parsed
-                    updateConfigurationFromCheckout(folder, modification, material);
+                    updateConfigurationFromCheckout(folder, modification, material, message);
+                    parseScheduled = true;
                 } else if (latestModification.findRevisionFor(material.config()).hasChangedSince(lastParseRevision) ||
                         this.repoConfigDataSource.hasConfigRepoConfigChangedSinceLastUpdate(material.config())) {
                     // revision has changed. the config files might have been updated
-                    updateConfigurationFromCheckout(folder, modification, material);
+                    updateConfigurationFromCheckout(folder, modification, material, message);
+                    parseScheduled = true;
                 } else {
                     // revision is the same as last time, no need to parse again
                     LOGGER.debug("[Config Material Update] Skipping parsing of Config material {} since material has no change since last parse.", material);
                 }
             }
-            LOGGER.debug("[Config Material Update] Completed parsing of Config material {}.", material);
         } catch (Exception ex) {
             LOGGER.error("[Config Material Update] Error updating config material: {} . Reason: {}", material, ex.getMessage());
         } finally {
-            // always post the original message further
+            // always post the original message further, once a scheduled parse is done
             // this will remove material from inProgress in MUS
-            topic.post(message);
+            if (!parseScheduled) {
+                topic.post(message);
+            }
         }
     }
 
-    private void updateConfigurationFromCheckout(File folder, Modification modification, Material material) {
+    private void updateConfigurationFromCheckout(File folder, Modification modification, Material material, MaterialUpdateCompletedMessage message) {
         Revision revision = new StringRevision(modification.getRevision());
         this.materialService.checkout(material, folder, revision, this.subprocessExecutionContext);
-        this.repoConfigDataSource.onCheckoutComplete(material.config(), folder, modification);
+        this.repoConfigDataSource.parseLater(material.config(), folder, modification, () -> {
+            LOGGER.debug("[Config Material Update] Completed parsing of Config material {}.", material);
+            topic.post(message);
+        });
     }
 
     private MaterialRevision getMaterialRevisionAtLastParseAttempt(MaterialUpdateCompletedMessage message) {
@@ -15,7 +15,7 @@
  */
 package com.thoughtworks.go.server.materials;
 
-import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.messaging.MessagingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -24,9 +24,14 @@ import org.springframework.stereotype.Component;
  * @understands messages about required material updates
  */
 @Component
-public class ConfigMaterialUpdateQueue extends GoMessageQueue<MaterialUpdateMessage> {
+public class ConfigMaterialUpdateQueue extends CoalescingMessageQueue<MaterialUpdateMessage> {
     @Autowired
     public ConfigMaterialUpdateQueue(MessagingService messaging) {
         super(messaging, "config-material-update-required");
     }
+
+    @Override
+    protected Object keyFor(MaterialUpdateMessage message) {
+        return message.getMaterial().getFingerprint();
+    }
 }
\ No newline at end of file
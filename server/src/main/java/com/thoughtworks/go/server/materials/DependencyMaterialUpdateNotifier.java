@@ -27,10 +27,13 @@ import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.domain.StageStatusListener;
 import com.thoughtworks.go.server.initializers.Initializer;
+import com.thoughtworks.go.server.messaging.MultiplexingQueueProcessor;
+import com.thoughtworks.go.server.messaging.MultiplexingQueueProcessor.Action;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +47,9 @@ import static com.thoughtworks.go.serverhealth.ServerHealthState.error;
 import static java.lang.String.format;
 
 /**
- * Listens to Stage/Config changes and notifies MaterialUpdateService to update DependencyMaterial
+ * Listens to Stage/Config changes and notifies MaterialUpdateService to update DependencyMaterial.
+ * Once started, a passed stage is recorded straight away as the latest revision of its dependency material; a full
+ * update is only needed for materials which have not been updated before, and to catch up after a failure.
  */
 
 @Component
@@ -53,19 +58,28 @@ public class DependencyMaterialUpdateNotifier implements StageStatusListener, Co
     private final GoConfigService goConfigService;
     private final MaterialConfigConverter materialConfigConverter;
     private final MaterialUpdateService materialUpdateService;
+    private final MaterialDatabaseUpdater materialDatabaseUpdater;
+    private final SystemEnvironment systemEnvironment;
     private ServerHealthService serverHealthService;
     private boolean skipUpdate = false;
+    private volatile boolean started = false;
+
+    private final MultiplexingQueueProcessor processor;
 
     private volatile Map<String, Material> dependencyMaterials;
     private Set<Material> retryQueue = Collections.synchronizedSet(new HashSet<>());
 
     @Autowired
     public DependencyMaterialUpdateNotifier(GoConfigService goConfigService, MaterialConfigConverter materialConfigConverter,
-                                            MaterialUpdateService materialUpdateService, ServerHealthService serverHealthService) {
+                                            MaterialUpdateService materialUpdateService, ServerHealthService serverHealthService,
+                                            MaterialDatabaseUpdater materialDatabaseUpdater, SystemEnvironment systemEnvironment) {
         this.goConfigService = goConfigService;
         this.materialConfigConverter = materialConfigConverter;
         this.materialUpdateService = materialUpdateService;
         this.serverHealthService = serverHealthService;
+        this.materialDatabaseUpdater = materialDatabaseUpdater;
+        this.systemEnvironment = systemEnvironment;
+        this.processor = new MultiplexingQueueProcessor("Dependency Material Revision");
     }
 
     @Override
@@ -81,7 +95,8 @@ public class DependencyMaterialUpdateNotifier implements StageStatusListener, Co
 
     @Override
     public void startDaemon() {
-
+        processor.start();
+        started = true;
     }
 
     @Override
@@ -100,7 +115,11 @@ public class DependencyMaterialUpdateNotifier implements StageStatusListener, Co
             Material material = dependencyMaterials.get(stageIdentifier(stage.getIdentifier().getPipelineName(), stage.getName()));
 
             if (material != null) {
-                updateMaterial(material);
+                if (started && systemEnvironment.get(SystemEnvironment.DEPENDENCY_MATERIAL_REVISION_ON_STAGE_PASS)) {
+                    insertRevisionFor((DependencyMaterial) material, stage);
+                } else {
+                    updateMaterial(material);
+                }
             }
         }
     }
@@ -145,6 +164,29 @@ public class DependencyMaterialUpdateNotifier implements StageStatusListener, Co
         }
     }
 
+    private void insertRevisionFor(final DependencyMaterial material, final Stage stage) {
+        if (skipUpdate) return;
+
+        processor.add(new Action() {
+            @Override
+            public void call() {
+                try {
+                    if (materialDatabaseUpdater.insertRevisionForPassedStage(material, stage)) {
+                        return;
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("[Material Update] Could not record stage {} as a revision of {}, updating the material instead", stage.getIdentifier(), material, e);
+                }
+                updateMaterial(material);
+            }
+
+            @Override
+            public String description() {
+                return "stage: " + stage.getIdentifier();
+            }
+        });
+    }
+
     private void updateMaterialsOnIntialization() {
         for (Material material : this.dependencyMaterials.values()) {
             updateMaterial(material);
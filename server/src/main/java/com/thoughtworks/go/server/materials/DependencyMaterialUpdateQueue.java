@@ -15,7 +15,7 @@
  */
 package com.thoughtworks.go.server.materials;
 
-import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.messaging.MessagingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -24,10 +24,15 @@ import org.springframework.stereotype.Component;
  * @understands messages about required dependency material updates
  */
 @Component
-public class DependencyMaterialUpdateQueue extends GoMessageQueue<MaterialUpdateMessage> {
+public class DependencyMaterialUpdateQueue extends CoalescingMessageQueue<MaterialUpdateMessage> {
     @Autowired
     public DependencyMaterialUpdateQueue(MessagingService messaging) {
         super(messaging, "dependency-material-update-required");
     }
+
+    @Override
+    protected Object keyFor(MaterialUpdateMessage message) {
+        return message.getMaterial().getFingerprint();
+    }
 }
 
@@ -18,6 +18,8 @@ package com.thoughtworks.go.server.materials;
 import com.thoughtworks.go.config.materials.dependency.DependencyMaterial;
 import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
@@ -28,6 +30,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -51,6 +54,12 @@ public class DependencyMaterialUpdater implements MaterialUpdater {
         insertRevisionsForAllParentStageInstances((DependencyMaterial) material);
     }
 
+    public void insertRevisionForPassedStage(DependencyMaterial dependencyMaterial, Stage stage) {
+        StageIdentifier stageIdentifier = stage.getIdentifier();
+        Modification modification = new Modification(new Date(stage.getLastTransitionedTime().getTime()), stageIdentifier.stageLocator(), stageIdentifier.getPipelineLabel(), stage.getPipelineId());
+        materialRepository.saveMaterialRevision(new MaterialRevision(dependencyMaterial, modification));
+    }
+
     private void insertDependencyMaterialRevisions(final DependencyMaterial dependencyMaterial, Modifications list) {
         if (list.isEmpty()) {
             insertRevisionsForAllParentStageInstances(dependencyMaterial);
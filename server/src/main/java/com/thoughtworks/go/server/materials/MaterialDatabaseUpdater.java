@@ -22,6 +22,7 @@ import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
 import com.thoughtworks.go.config.materials.dependency.DependencyMaterial;
 import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
@@ -129,6 +130,30 @@ public class MaterialDatabaseUpdater {
         }
     }
 
+    /**
+     * Records a stage which just passed as the latest revision of the dependency material built on it, without
+     * looking up passed stages on the database.
+     *
+     * @return false when the material has never been updated, and needs a regular update to pick up its history
+     */
+    public boolean insertRevisionForPassedStage(final DependencyMaterial material, final Stage stage) throws Exception {
+        if (stage.getLastTransitionedTime() == null) {
+            return false;
+        }
+        synchronized (mutexForMaterial(material)) {
+            return (Boolean) transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
+                @Override
+                public Object doInTransaction(TransactionStatus status) {
+                    if (materialRepository.findMaterialInstance(material) == null) {
+                        return false;
+                    }
+                    dependencyMaterialUpdater.insertRevisionForPassedStage(material, stage);
+                    return true;
+                }
+            });
+        }
+    }
+
     private void initializeMaterialWithLatestRevision(Material material) {
         Materials materials = new Materials();
         materialExpansionService.expandForHistory(material, materials);
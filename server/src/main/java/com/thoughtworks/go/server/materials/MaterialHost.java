@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.domain.materials.Material;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import static org.apache.commons.lang3.StringUtils.*;
+
+/**
+ * @understands which SCM server a material talks to
+ */
+final class MaterialHost {
+    private MaterialHost() {
+    }
+
+    static String of(Material material) {
+        String url = trimToEmpty(material.getUriForDisplay());
+        try {
+            String host = new URI(url).getHost();
+            if (host != null) {
+                return host.toLowerCase();
+            }
+        } catch (URISyntaxException ignored) {
+        }
+        // scp-like git urls (user@host:path) and perforce ports (host:port)
+        String address = substringBefore(url, ":");
+        return (address.contains("@") ? substringAfterLast(address, "@") : address).toLowerCase();
+    }
+}
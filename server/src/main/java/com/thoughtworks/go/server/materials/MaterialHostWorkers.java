@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @understands how many material update workers may work against one SCM host at the same time. A worker which picks
+ * up an update for a host that is at its limit does not wait for it: the update is parked and handed back to its queue
+ * once a worker for that host finishes, and the worker moves on to the next message. A parked update which was picked
+ * up some other way in the meantime, such as on the priority lane, gives its turn to the next one.
+ */
+class MaterialHostWorkers {
+    static final MaterialHostWorkers UNLIMITED = new MaterialHostWorkers(0);
+
+    private final int workersPerHost;
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    MaterialHostWorkers(int workersPerHost) {
+        this.workersPerHost = workersPerHost;
+    }
+
+    boolean isUnlimited() {
+        return workersPerHost <= 0;
+    }
+
+    /**
+     * @param park   run if the update has to be parked, before any worker for the host can finish
+     * @param resume run, once a worker for the host finishes, if the update was parked. It returns false if the update
+     *               no longer had to be resumed.
+     * @return true if the caller may go ahead with the update, false if it was parked
+     */
+    boolean tryStart(String host, Runnable park, BooleanSupplier resume) {
+        if (isUnlimited()) {
+            return true;
+        }
+        synchronized (hosts) {
+            Host state = hosts.computeIfAbsent(host, key -> new Host());
+            if (state.running < workersPerHost) {
+                state.running++;
+                return true;
+            }
+            park.run();
+            state.parked.add(resume);
+            return false;
+        }
+    }
+
+    void finish(String host) {
+        if (isUnlimited()) {
+            return;
+        }
+        synchronized (hosts) {
+            Host state = hosts.get(host);
+            if (state == null) {
+                return;
+            }
+            state.running--;
+        }
+        BooleanSupplier resume;
+        do {
+            synchronized (hosts) {
+                Host state = hosts.get(host);
+                if (state == null) {
+                    return;
+                }
+                resume = state.parked.poll();
+                if (state.running == 0 && state.parked.isEmpty()) {
+                    hosts.remove(host);
+                }
+            }
+        } while (resume != null && !resume.getAsBoolean());
+    }
+
+    int running(String host) {
+        synchronized (hosts) {
+            Host state = hosts.get(host);
+            return state == null ? 0 : state.running;
+        }
+    }
+
+    int waiting(String host) {
+        synchronized (hosts) {
+            Host state = hosts.get(host);
+            return state == null ? 0 : state.parked.size();
+        }
+    }
+
+    private static class Host {
+        private int running;
+        private final Queue<BooleanSupplier> parked = new ArrayDeque<>();
+    }
+}
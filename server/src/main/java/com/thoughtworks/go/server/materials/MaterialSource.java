@@ -21,4 +21,10 @@ import java.util.Set;
 
 public interface MaterialSource {
     Set<Material> materialsForUpdate();
+
+    /**
+     * Called when an update of the material was asked for outside the timer, for instance by a post commit hook or a
+     * manual trigger.
+     */
+    void updateRequested(Material material);
 }
@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.server.cronjob.GoDiskSpaceMonitor;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.messaging.GoMessageChannel;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
 import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
@@ -37,14 +38,24 @@ public class MaterialUpdateListener implements GoMessageListener<MaterialUpdateM
     private final MDUPerformanceLogger mduPerformanceLogger;
     private final GoDiskSpaceMonitor diskSpaceMonitor;
     private MaintenanceModeService maintenanceModeService;
+    private final CoalescingMessageQueue<MaterialUpdateMessage> queue;
+    private final MaterialHostWorkers hostWorkers;
 
     public MaterialUpdateListener(GoMessageChannel<MaterialUpdateCompletedMessage> channel, MaterialDatabaseUpdater updater,
                                   MDUPerformanceLogger mduPerformanceLogger, GoDiskSpaceMonitor diskSpaceMonitor, MaintenanceModeService maintenanceModeService) {
+        this(channel, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService, null, MaterialHostWorkers.UNLIMITED);
+    }
+
+    MaterialUpdateListener(GoMessageChannel<MaterialUpdateCompletedMessage> channel, MaterialDatabaseUpdater updater,
+                           MDUPerformanceLogger mduPerformanceLogger, GoDiskSpaceMonitor diskSpaceMonitor, MaintenanceModeService maintenanceModeService,
+                           CoalescingMessageQueue<MaterialUpdateMessage> queue, MaterialHostWorkers hostWorkers) {
         this.channel = channel;
         this.updater = updater;
         this.mduPerformanceLogger = mduPerformanceLogger;
         this.diskSpaceMonitor = diskSpaceMonitor;
         this.maintenanceModeService = maintenanceModeService;
+        this.queue = queue;
+        this.hostWorkers = hostWorkers;
     }
 
     @Override
@@ -57,6 +68,13 @@ public class MaterialUpdateListener implements GoMessageListener<MaterialUpdateM
             return;
         }
 
+        String host = MaterialHost.of(material);
+        if (!hostWorkers.tryStart(host, () -> queue.park(message), () -> queue.unpark(message))) {
+            LOGGER.debug("[Material Update] All the workers allowed for {} are busy, parking material {} until one finishes", host, material);
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
         try {
             maintenanceModeService.mduStartedForMaterial(material);
             mduPerformanceLogger.pickedUpMaterialForMDU(message.trackingId(), material);
@@ -69,6 +87,10 @@ public class MaterialUpdateListener implements GoMessageListener<MaterialUpdateM
             mduPerformanceLogger.postingMessageAboutMDUFailure(message.trackingId(), material);
         } finally {
             maintenanceModeService.mduFinishedForMaterial(material);
+            hostWorkers.finish(host);
+            if (!hostWorkers.isUnlimited()) {
+                mduPerformanceLogger.hostStatistics(message.trackingId(), host, hostWorkers.running(host), hostWorkers.waiting(host), System.currentTimeMillis() - startedAt);
+            }
         }
     }
 }
@@ -17,7 +17,7 @@ package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.server.cronjob.GoDiskSpaceMonitor;
 import com.thoughtworks.go.server.messaging.GoMessageChannel;
-import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
@@ -93,23 +93,40 @@ public class MaterialUpdateListenerFactory {
         int numberOfStandardMaterialListeners = systemEnvironment.getNumberOfMaterialCheckListener();
         int numberOfConfigListeners = systemEnvironment.getNumberOfConfigMaterialCheckListener();
         int numberOfDependencyMaterialCheckListeners = systemEnvironment.getNumberOfDependencyMaterialUpdateListeners();
+        int numberOfPriorityListeners = systemEnvironment.getNumberOfPriorityMaterialUpdateListeners();
+        MaterialHostWorkers hostWorkers = new MaterialHostWorkers(systemEnvironment.getMaterialUpdateHostConcurrency());
 
         for (int i = 0; i < numberOfStandardMaterialListeners; i++) {
-            createWorker(this.queue, this.topic);
+            createWorker(this.queue, this.topic, hostWorkers);
         }
 
         for (int i = 0; i < numberOfConfigListeners; i++) {
-            createWorker(this.configQueue, this.configMaterialPostUpdateQueue);
+            createWorker(this.configQueue, this.configMaterialPostUpdateQueue, hostWorkers);
         }
 
         for (int i = 0; i < numberOfDependencyMaterialCheckListeners; i++) {
-            createWorker(this.dependencyMaterialQueue, this.topic);
+            createWorker(this.dependencyMaterialQueue, this.topic, MaterialHostWorkers.UNLIMITED);
         }
+
+        for (int i = 0; i < numberOfPriorityListeners; i++) {
+            createPriorityWorker(this.queue, this.topic);
+            createPriorityWorker(this.configQueue, this.configMaterialPostUpdateQueue);
+            createPriorityWorker(this.dependencyMaterialQueue, this.topic);
+        }
+    }
+
+    private void createWorker(CoalescingMessageQueue<MaterialUpdateMessage> queue, GoMessageChannel<MaterialUpdateCompletedMessage> topic, MaterialHostWorkers hostWorkers) {
+        queue.addListener(newListener(topic, queue, hostWorkers));
+    }
+
+    // Priority workers are reserved for someone waiting on the update, so they are not held back by the per host limit.
+    private void createPriorityWorker(CoalescingMessageQueue<MaterialUpdateMessage> queue, GoMessageChannel<MaterialUpdateCompletedMessage> topic) {
+        queue.addPriorityListener(newListener(topic, queue, MaterialHostWorkers.UNLIMITED));
     }
 
-    private void createWorker(GoMessageQueue<MaterialUpdateMessage> queue, GoMessageChannel<MaterialUpdateCompletedMessage> topic) {
+    private MaterialUpdateListener newListener(GoMessageChannel<MaterialUpdateCompletedMessage> topic, CoalescingMessageQueue<MaterialUpdateMessage> queue, MaterialHostWorkers hostWorkers) {
         MaterialDatabaseUpdater updater = new MaterialDatabaseUpdater(materialRepository, serverHealthService, transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater,
                 packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, goConfigService);
-        queue.addListener(new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService));
+        return new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService, queue, hostWorkers);
     }
 }
@@ -28,7 +28,7 @@ import com.thoughtworks.go.server.materials.postcommit.PostCommitHookImplementer
 import com.thoughtworks.go.server.materials.postcommit.PostCommitHookMaterialType;
 import com.thoughtworks.go.server.materials.postcommit.PostCommitHookMaterialTypeResolver;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
-import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaintenanceModeService;
@@ -150,6 +150,7 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             }
 
             for (Material material : prunedMaterialList) {
+                updateRequested(material);
                 updateMaterial(material);
             }
 
@@ -166,18 +167,45 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         Predicate<Material> predicate = new MaterialPredicate(branchName, possibleUrls);
         Set<Material> allGitMaterials = allUniquePostCommitSchedulableMaterials.stream().filter(predicate).collect(Collectors.toSet());
 
-        allGitMaterials.forEach(MaterialUpdateService.this::updateMaterial);
+        allGitMaterials.forEach(material -> {
+            updateRequested(material);
+            updateMaterial(material);
+        });
 
         return !allGitMaterials.isEmpty();
     }
 
     public boolean updateMaterial(Material material) {
+        return updateMaterial(material, false);
+    }
+
+    /**
+     * Updates the material on the priority lane of the material update queues, so that someone waiting on the update
+     * (for instance a manual trigger) does not wait behind the updates triggered by the timer.
+     */
+    public boolean updateMaterialWithPriority(Material material) {
+        updateRequested(material);
+        return updateMaterial(material, true);
+    }
+
+    private void updateRequested(Material material) {
+        for (MaterialSource materialSource : materialSources) {
+            materialSource.updateRequested(material);
+        }
+    }
+
+    private boolean updateMaterial(Material material, boolean withPriority) {
         Date inProgressSince = inProgress.putIfAbsent(material, new Date());
         if (inProgressSince == null || !material.isAutoUpdate()) {
             LOGGER.debug("[Material Update] Starting update of material {}", material);
             try {
                 long trackingId = mduPerformanceLogger.materialSentToUpdateQueue(material);
-                queueFor(material).post(new MaterialUpdateMessage(material, trackingId));
+                MaterialUpdateMessage message = new MaterialUpdateMessage(material, trackingId);
+                if (withPriority) {
+                    queueFor(material).postWithPriority(message);
+                } else {
+                    queueFor(material).post(message);
+                }
 
                 return true;
             } catch (RuntimeException e) {
@@ -185,6 +213,9 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
                 throw e;
             }
         } else {
+            if (withPriority) {
+                queueFor(material).prioritize(new MaterialUpdateMessage(material, -1));
+            }
             LOGGER.warn("[Material Update] Skipping update of material {} which has been in-progress since {}", material, inProgressSince);
             long idleTime = getProcessManager().getIdleTimeFor(new MaterialFingerprintTag(material.getFingerprint()));
             if (idleTime > getMaterialUpdateInActiveTimeoutInMillis()) {
@@ -271,7 +302,7 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         return systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_INACTIVE_TIMEOUT) * 60 * 1000L;
     }
 
-    private GoMessageQueue<MaterialUpdateMessage> queueFor(Material material) {
+    private CoalescingMessageQueue<MaterialUpdateMessage> queueFor(Material material) {
         if (isConfigMaterial(material)) {
             return configUpdateQueue;
         }
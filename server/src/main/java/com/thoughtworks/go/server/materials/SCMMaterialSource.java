@@ -22,6 +22,7 @@ import com.thoughtworks.go.config.remote.ConfigRepoConfig;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -36,9 +37,14 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 /**
  * Provides a list of unique SCMMaterials to be updated which will be consumed by MaterialUpdateService
+ * <p>
+ * A material whose update finds no new revision waits twice as long before its next update, up to the max idle
+ * interval. It goes back to the idle interval as soon as it changes, or when an update is requested outside the timer.
+ * Materials which are no longer schedulable are forgotten whenever the config changes.
  */
 
 @Component
@@ -47,18 +53,25 @@ public class SCMMaterialSource extends EntityConfigChangedListener<ConfigRepoCon
 
     private final GoConfigService goConfigService;
     private ConcurrentMap<Material, Long> materialLastUpdateTimeMap = new ConcurrentHashMap<>();
+    private ConcurrentMap<Material, Long> materialUpdateIntervalMap = new ConcurrentHashMap<>();
+    private ConcurrentMap<Material, String> materialLatestRevisionsMap = new ConcurrentHashMap<>();
     private final MaterialConfigConverter materialConfigConverter;
     private final MaterialUpdateService materialUpdateService;
+    private final MaterialRepository materialRepository;
     private final long materialUpdateInterval;
+    private final long maxMaterialUpdateInterval;
     private Set<Material> schedulableMaterials;
 
     @Autowired
     public SCMMaterialSource(GoConfigService goConfigService, SystemEnvironment systemEnvironment,
-                             MaterialConfigConverter materialConfigConverter, MaterialUpdateService materialUpdateService) {
+                             MaterialConfigConverter materialConfigConverter, MaterialUpdateService materialUpdateService,
+                             MaterialRepository materialRepository) {
         this.goConfigService = goConfigService;
         this.materialConfigConverter = materialConfigConverter;
         this.materialUpdateService = materialUpdateService;
+        this.materialRepository = materialRepository;
         this.materialUpdateInterval = systemEnvironment.getMaterialUpdateIdleInterval();
+        this.maxMaterialUpdateInterval = systemEnvironment.getMaterialUpdateMaxIdleInterval();
     }
 
     public void initialize() {
@@ -75,10 +88,16 @@ public class SCMMaterialSource extends EntityConfigChangedListener<ConfigRepoCon
         return materialsWithUpdateIntervalElapsed();
     }
 
+    @Override
+    public void updateRequested(Material material) {
+        materialUpdateIntervalMap.remove(material);
+    }
+
     @Override
     public void onMaterialUpdate(Material material) {
         if (!(material instanceof DependencyMaterial)) {
             updateLastUpdateTimeForScmMaterial(material);
+            updateUpdateIntervalForScmMaterial(material);
         }
     }
 
@@ -116,7 +135,8 @@ public class SCMMaterialSource extends EntityConfigChangedListener<ConfigRepoCon
     boolean hasUpdateIntervalElapsedForScmMaterial(Material material) {
         Long lastMaterialUpdateTime = materialLastUpdateTimeMap.get(material);
         if (lastMaterialUpdateTime != null) {
-            boolean shouldUpdateMaterial = (DateTimeUtils.currentTimeMillis() - lastMaterialUpdateTime) >= materialUpdateInterval;
+            long updateInterval = materialUpdateIntervalMap.getOrDefault(material, materialUpdateInterval);
+            boolean shouldUpdateMaterial = (DateTimeUtils.currentTimeMillis() - lastMaterialUpdateTime) >= updateInterval;
             if (LOGGER.isDebugEnabled() && !shouldUpdateMaterial) {
                 LOGGER.debug("[Material Update] Skipping update of material {} which has been last updated at {}", material, new Date(lastMaterialUpdateTime));
             }
@@ -129,9 +149,31 @@ public class SCMMaterialSource extends EntityConfigChangedListener<ConfigRepoCon
         materialLastUpdateTimeMap.put(material, DateTimeUtils.currentTimeMillis());
     }
 
+    private void updateUpdateIntervalForScmMaterial(Material material) {
+        if (maxMaterialUpdateInterval <= materialUpdateInterval) {
+            return;
+        }
+        String latestRevisions = latestRevisionsOf(material);
+        String previousRevisions = materialLatestRevisionsMap.put(material, latestRevisions);
+        if (latestRevisions.equals(previousRevisions)) {
+            materialUpdateIntervalMap.merge(material, Math.min(materialUpdateInterval * 2, maxMaterialUpdateInterval),
+                    (current, ignored) -> Math.min(current * 2, maxMaterialUpdateInterval));
+        } else {
+            materialUpdateIntervalMap.remove(material);
+        }
+    }
+
+    private String latestRevisionsOf(Material material) {
+        return materialRepository.findLatestModification(material).getRevisions().stream()
+                .map(revision -> revision.getRevision().getRevision())
+                .collect(Collectors.joining(","));
+    }
+
     private void updateSchedulableMaterials(boolean forceLoad) {
         if (forceLoad || schedulableMaterials == null) {
             schedulableMaterials = materialConfigConverter.toMaterials(goConfigService.getSchedulableSCMMaterials());
+            materialUpdateIntervalMap.keySet().retainAll(schedulableMaterials);
+            materialLatestRevisionsMap.keySet().retainAll(schedulableMaterials);
         }
     }
 }
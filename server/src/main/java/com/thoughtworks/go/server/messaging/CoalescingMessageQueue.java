@@ -0,0 +1,353 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging;
+
+import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @understands a queue which holds at most one message per key. A message for a key which is already waiting in the
+ * queue replaces the waiting one, and a message for a key which is being processed is run once more after the current
+ * run completes, no matter how many such messages arrive. The depth of the queue is hence bounded by the number of
+ * distinct keys and not by the rate at which messages are posted.
+ * <p>
+ * Messages travel on one of two lanes. The priority lane has listeners of its own, so a message posted on it does not
+ * wait behind the messages on the normal lane. A key waiting on the normal lane is moved to the priority lane when a
+ * priority message arrives for it.
+ * <p>
+ * A listener which cannot run a message yet may {@link #park(GoMessage)} it. The key then stays in the queue without
+ * being sent anywhere until it is {@link #unpark(GoMessage) unparked}, or until it is moved to the priority lane.
+ */
+public abstract class CoalescingMessageQueue<T extends GoMessage> extends GoMessageQueue<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingMessageQueue.class);
+
+    public enum Lane {
+        NORMAL, PRIORITY
+    }
+
+    private final Map<Object, Entry<T>> entries = new HashMap<>();
+    private final Map<Lane, LaneStatistics> statistics = new EnumMap<>(Lane.class);
+    private MessageSender prioritySender;
+
+    public CoalescingMessageQueue(MessagingService messaging, String queueName) {
+        super(messaging, queueName);
+        for (Lane lane : Lane.values()) {
+            statistics.put(lane, new LaneStatistics());
+        }
+    }
+
+    protected abstract Object keyFor(T message);
+
+    @Override
+    public JMSMessageListenerAdapter addListener(GoMessageListener<T> listener) {
+        return super.addListener(new CoalescingListener(listener, Lane.NORMAL));
+    }
+
+    public JMSMessageListenerAdapter addPriorityListener(GoMessageListener<T> listener) {
+        return messaging.addQueueListener(priorityQueueName(), new CoalescingListener(listener, Lane.PRIORITY));
+    }
+
+    @Override
+    public void post(T message) {
+        if (coalesce(message, Lane.NORMAL)) {
+            super.post(message);
+        }
+    }
+
+    @Override
+    public void post(T message, long timeToLive) {
+        if (coalesce(message, Lane.NORMAL)) {
+            super.post(message, timeToLive);
+        }
+    }
+
+    public void postWithPriority(T message) {
+        if (coalesce(message, Lane.PRIORITY)) {
+            sendOn(Lane.PRIORITY, message);
+        }
+    }
+
+    /**
+     * Moves the message waiting for this key, if there is one, on to the priority lane. Does nothing if the key is not
+     * in the queue or is already being processed.
+     */
+    public void prioritize(T message) {
+        Object key = keyFor(message);
+        T waiting;
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+            if (entry == null || entry.lane == Lane.PRIORITY) {
+                return;
+            }
+            if (entry.processing) {
+                if (entry.parked) {
+                    entry.runAgain = true;
+                    entry.runAgainOn = Lane.PRIORITY;
+                }
+                return;
+            }
+            entry.parked = false;
+            moveToLane(entry, Lane.PRIORITY);
+            waiting = entry.latest;
+        }
+        sendOn(Lane.PRIORITY, waiting);
+    }
+
+    /**
+     * To be called by a listener, while it processes the message, to keep the key in the queue once it returns without
+     * sending the message anywhere.
+     */
+    public void park(T message) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(keyFor(message));
+            if (entry != null && entry.processing) {
+                entry.parked = true;
+            }
+        }
+    }
+
+    /**
+     * Sends the parked message for this key on its lane again.
+     *
+     * @return false if the key is no longer parked, because it was moved to the priority lane in the meantime
+     */
+    public boolean unpark(T message) {
+        T parked;
+        Lane lane;
+        synchronized (entries) {
+            Entry<T> entry = entries.get(keyFor(message));
+            if (entry == null || !entry.parked) {
+                return false;
+            }
+            entry.parked = false;
+            if (entry.processing) {
+                entry.runAgain = true;
+                return true;
+            }
+            parked = entry.latest;
+            lane = entry.lane;
+        }
+        sendOn(lane, parked);
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        super.stop();
+        messaging.removeQueue(priorityQueueName());
+    }
+
+    /**
+     * @return the number of distinct keys either waiting in the queue or being processed
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return per lane, the number of keys waiting to be picked up and how long picked up messages had waited
+     */
+    public Map<String, Object> laneStatistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        synchronized (entries) {
+            for (Map.Entry<Lane, LaneStatistics> entry : statistics.entrySet()) {
+                json.put(entry.getKey().name(), entry.getValue().asJson());
+            }
+        }
+        return json;
+    }
+
+    private String priorityQueueName() {
+        return queueName + "-priority";
+    }
+
+    private void sendOn(Lane lane, T message) {
+        if (lane == Lane.NORMAL) {
+            super.post(message);
+            return;
+        }
+        prioritySender().sendMessage(message);
+    }
+
+    private MessageSender prioritySender() {
+        synchronized (entries) {
+            if (prioritySender == null) {
+                prioritySender = messaging.createQueueSender(priorityQueueName());
+            }
+            return prioritySender;
+        }
+    }
+
+    private boolean coalesce(T message, Lane lane) {
+        Object key = keyFor(message);
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+            if (entry == null) {
+                entries.put(key, new Entry<>(message, lane));
+                statistics.get(lane).waiting++;
+                return true;
+            }
+            entry.latest = message;
+            if (entry.processing) {
+                entry.runAgain = true;
+                entry.runAgainOn = lane == Lane.PRIORITY ? Lane.PRIORITY : entry.runAgainOn;
+                LOGGER.debug("[{}] {} is being processed, it will be run once more after the current run", queueName, key);
+                return false;
+            }
+            if (lane == Lane.PRIORITY && entry.lane == Lane.NORMAL) {
+                LOGGER.debug("[{}] {} is already queued, moving it to the priority lane", queueName, key);
+                entry.parked = false;
+                moveToLane(entry, Lane.PRIORITY);
+                return true;
+            }
+            LOGGER.debug("[{}] {} is already queued, merged with the waiting message", queueName, key);
+            return false;
+        }
+    }
+
+    private void moveToLane(Entry<T> entry, Lane lane) {
+        statistics.get(entry.lane).waiting--;
+        statistics.get(lane).waiting++;
+        entry.lane = lane;
+    }
+
+    /**
+     * @return the message to process, or null when this delivery is stale because the key was moved to the other lane
+     * and has already been picked up from there
+     */
+    private T startProcessing(T message) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(keyFor(message));
+            if (entry == null || entry.processing) {
+                return null;
+            }
+            LaneStatistics laneStatistics = statistics.get(entry.lane);
+            laneStatistics.waiting--;
+            laneStatistics.pickedUp(System.currentTimeMillis() - entry.queuedAt);
+            entry.processing = true;
+            return entry.latest;
+        }
+    }
+
+    private Entry<T> finishProcessing(T message) {
+        Object key = keyFor(message);
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            entry.processing = false;
+            if (entry.parked && entry.runAgainOn == Lane.NORMAL) {
+                entry.runAgain = false;
+                entry.queuedAt = System.currentTimeMillis();
+                statistics.get(entry.lane).waiting++;
+                return null;
+            }
+            entry.parked = false;
+            if (!entry.runAgain) {
+                entries.remove(key);
+                return null;
+            }
+            entry.runAgain = false;
+            entry.lane = entry.runAgainOn;
+            entry.runAgainOn = Lane.NORMAL;
+            entry.queuedAt = System.currentTimeMillis();
+            statistics.get(entry.lane).waiting++;
+            return new Entry<>(entry.latest, entry.lane);
+        }
+    }
+
+    private static class Entry<T> {
+        private T latest;
+        private Lane lane;
+        private long queuedAt;
+        private boolean processing;
+        private boolean parked;
+        private boolean runAgain;
+        private Lane runAgainOn = Lane.NORMAL;
+
+        private Entry(T latest, Lane lane) {
+            this.latest = latest;
+            this.lane = lane;
+            this.queuedAt = System.currentTimeMillis();
+        }
+    }
+
+    private static class LaneStatistics {
+        private int waiting;
+        private long pickedUp;
+        private long totalWaitTimeInMillis;
+        private long maximumWaitTimeInMillis;
+
+        private void pickedUp(long waitTimeInMillis) {
+            pickedUp++;
+            totalWaitTimeInMillis += waitTimeInMillis;
+            maximumWaitTimeInMillis = Math.max(maximumWaitTimeInMillis, waitTimeInMillis);
+        }
+
+        private Map<String, Object> asJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("Waiting", waiting);
+            json.put("Picked up", pickedUp);
+            json.put("Average wait time (ms)", pickedUp == 0 ? 0 : totalWaitTimeInMillis / pickedUp);
+            json.put("Maximum wait time (ms)", maximumWaitTimeInMillis);
+            return json;
+        }
+    }
+
+    private class CoalescingListener implements GoMessageListener<T> {
+        private final GoMessageListener<T> delegate;
+        private final Lane lane;
+
+        private CoalescingListener(GoMessageListener<T> delegate, Lane lane) {
+            this.delegate = delegate;
+            this.lane = lane;
+        }
+
+        @Override
+        public void onMessage(T message) {
+            T latest = startProcessing(message);
+            if (latest == null) {
+                LOGGER.debug("[{}] Ignoring stale {} message {}, it has already been picked up", queueName, lane, message);
+                return;
+            }
+            try {
+                delegate.onMessage(latest);
+            } finally {
+                Entry<T> rerun = finishProcessing(latest);
+                if (rerun != null) {
+                    sendOn(rerun.lane, rerun.latest);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CoalescingListener{" + lane + ", " + delegate + '}';
+        }
+    }
+}
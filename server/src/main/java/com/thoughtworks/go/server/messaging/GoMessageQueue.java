@@ -18,7 +18,7 @@ package com.thoughtworks.go.server.messaging;
 import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
 
 public class GoMessageQueue<T extends GoMessage> implements GoMessageChannel<T> {
-    private MessagingService messaging;
+    protected MessagingService messaging;
     protected String queueName;
     private MessageSender queueSender;
 
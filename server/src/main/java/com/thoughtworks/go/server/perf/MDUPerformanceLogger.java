@@ -52,4 +52,12 @@ public class MDUPerformanceLogger {
         performanceLogger.log("MDU-QUEUE-REMOVE {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
+    public void hostStatistics(long trackingId, String host, int running, int waiting, long durationInMillis) {
+        performanceLogger.log("MDU-HOST {} {} {} {} {}", trackingId, host, running, waiting, durationInMillis);
+    }
+
+    public void savedModifications(String materialFingerprint, int saved, int total) {
+        performanceLogger.log("MDU-SAVE {} {} {}", materialFingerprint, saved, total);
+    }
+
 }
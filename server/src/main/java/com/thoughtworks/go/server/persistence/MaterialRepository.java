@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.persistence;
 
+import com.rits.cloning.Immutable;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.materials.AbstractMaterial;
 import com.thoughtworks.go.config.materials.MaterialConfigs;
@@ -26,6 +27,7 @@ import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialInstance;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -63,6 +65,9 @@ import static org.hibernate.criterion.Restrictions.isNull;
 @Component
 public class MaterialRepository extends HibernateDaoSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(MaterialRepository.class.getName());
+    private static final int MATCHED_REVISIONS_LIMIT = 5;
+    private static final int SEARCH_CANDIDATES_BATCH_SIZE = 20;
+    private static final int SEARCH_SCAN_LIMIT = ModificationSearchIndex.DEFAULT_MAX_SIZE;
 
     private final GoCache goCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
@@ -71,6 +76,8 @@ public class MaterialRepository extends HibernateDaoSupport {
     private final CacheKeyGenerator cacheKeyGenerator;
     private int latestModificationsCacheLimit;
     private MaterialExpansionService materialExpansionService;
+    private final MDUPerformanceLogger mduPerformanceLogger;
+    private final ModifiedFilesLoader modifiedFilesLoader;
 
     @Autowired
     public MaterialRepository(SessionFactory sessionFactory,
@@ -79,15 +86,18 @@ public class MaterialRepository extends HibernateDaoSupport {
                               TransactionSynchronizationManager transactionSynchronizationManager,
                               MaterialConfigConverter materialConfigConverter,
                               MaterialExpansionService materialExpansionService,
-                              Database databaseStrategy) {
+                              Database databaseStrategy,
+                              MDUPerformanceLogger mduPerformanceLogger) {
         this.goCache = goCache;
         this.latestModificationsCacheLimit = latestModificationsCacheLimit;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.materialConfigConverter = materialConfigConverter;
         this.materialExpansionService = materialExpansionService;
         this.queryExtensions = databaseStrategy.getQueryExtensions();
+        this.mduPerformanceLogger = mduPerformanceLogger;
         setSessionFactory(sessionFactory);
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
+        this.modifiedFilesLoader = new ModifiedFilesPager(this);
     }
 
 public List<Modification> getModificationsForPipelineRange(final String pipelineName,
@@ -323,7 +333,7 @@ public MaterialRevisions findMaterialRevisionsForPipeline(long pipelineId) {
             final SimpleExpression idClause = Restrictions.eq("materialInstance", pmr.getMaterialInstance());
             criterions.add(Restrictions.and(idClause, modificationClause));
         }
-        List<Modification> modifications = (List<Modification>) getHibernateTemplate().findByCriteria(buildModificationDetachedQuery(criterions));
+        List<Modification> modifications = withModifiedFilesPreview((List<Modification>) getHibernateTemplate().findByCriteria(buildModificationDetachedQuery(criterions)));
         sortPersistentObjectsById(modifications, false);
         for (Modification modification : modifications) {
             List<String> cacheKeys = pmrModificationsKey(modification, pmrs);
@@ -364,9 +374,9 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
             synchronized (cacheKey) {
                 modifications = (List<Modification>) goCache.get(cacheKey);
                 if (modifications == null) {
-                    modifications = (List<Modification>) getHibernateTemplate().find(
+                    modifications = withModifiedFilesPreview((List<Modification>) getHibernateTemplate().find(
                             "FROM Modification WHERE materialId = ? AND id BETWEEN ? AND ? ORDER BY id DESC",
-                            new Object[]{findMaterialInstance(pmr.getMaterial()).getId(), pmr.getFromModification().getId(), pmr.getToModification().getId()});
+                            new Object[]{findMaterialInstance(pmr.getMaterial()).getId(), pmr.getFromModification().getId(), pmr.getToModification().getId()}));
                     goCache.put(cacheKey, modifications);
                 }
             }
@@ -442,6 +452,7 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
             removeLatestCachedModification(materialInstance, modification);
             removeCachedModificationCountFor(materialInstance);
             removeCachedModificationsFor(materialInstance);
+            addToSearchIndex(materialInstance, Collections.singletonList(modification));
         } catch (Exception e) {
             String message = "Cannot save modification " + modification;
             LOGGER.error(message, e);
@@ -670,8 +681,31 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
     }
 
     private Modifications _findModificationsSince(MaterialInstance materialInstance, long sinceModificationId) {
-        return new Modifications(
-                (List<Modification>) getHibernateTemplate().find("FROM Modification WHERE materialId = ? AND id >= ? ORDER BY id DESC", new Object[]{materialInstance.getId(), sinceModificationId}));
+        return new Modifications(withModifiedFilesPreview(
+                (List<Modification>) getHibernateTemplate().find("FROM Modification WHERE materialId = ? AND id >= ? ORDER BY id DESC", new Object[]{materialInstance.getId(), sinceModificationId})));
+    }
+
+    /**
+     * Modifications are kept in the cache with a capped preview of their modified files, the rest are loaded
+     * through {@link #findModifiedFiles(long, int, int)} when asked for.
+     */
+    private List<Modification> withModifiedFilesPreview(List<Modification> modifications) {
+        int previewSize = new SystemEnvironment().get(SystemEnvironment.MODIFIED_FILES_PREVIEW_SIZE);
+        List<Modification> previews = new ArrayList<>(modifications.size());
+        for (Modification modification : modifications) {
+            previews.add(modification.withModifiedFilesPreview(previewSize, modifiedFilesLoader));
+        }
+        return previews;
+    }
+
+    public List<ModifiedFile> findModifiedFiles(final long modificationId, final int offset, final int limit) {
+        return (List<ModifiedFile>) getHibernateTemplate().execute((HibernateCallback) session -> {
+            Query query = session.createQuery("SELECT f FROM Modification m JOIN m.files f WHERE m.id = ? ORDER BY f.id");
+            query.setLong(0, modificationId);
+            query.setFirstResult(offset);
+            query.setMaxResults(limit);
+            return query.list();
+        });
     }
 
     private void removeLatestCachedModification(final MaterialInstance materialInstance, Modification latest) {
@@ -698,6 +732,27 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         });
     }
 
+    private void addToSearchIndex(final MaterialInstance materialInstance, final List<Modification> modifications) {
+        transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                String key = searchIndexKey(materialInstance);
+                synchronized (key) {
+                    ModificationSearchIndex index = (ModificationSearchIndex) goCache.get(key);
+                    if (index == null) {
+                        return;
+                    }
+                    for (Modification modification : modifications) {
+                        if (!index.add(modification)) {
+                            goCache.remove(key);
+                            return;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     private void removeCachedModificationsFor(final MaterialInstance materialInstance) {
         transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
             @Override
@@ -745,6 +800,9 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
                 query.setLong(0, expandedInstance.getId());
                 return query.uniqueResult();
             });
+            if (modification != null) {
+                modification = modification.withModifiedFilesPreview(new SystemEnvironment().get(SystemEnvironment.MODIFIED_FILES_PREVIEW_SIZE), modifiedFilesLoader);
+            }
             goCache.put(cacheKey, new Modifications(modification));
             return modification;
         }
@@ -762,8 +820,13 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
 
         try {
             checkAndRemoveDuplicates(materialInstance, newChanges, list);
-            for (Modification modification : list) {
-                getHibernateTemplate().saveOrUpdate(modification);
+            int batchSize = new SystemEnvironment().get(SystemEnvironment.MODIFICATIONS_SAVE_BATCH_SIZE);
+            if (batchSize > 0 && list.size() > batchSize) {
+                saveInBatches(materialInstance, list, batchSize);
+            } else {
+                for (Modification modification : list) {
+                    getHibernateTemplate().saveOrUpdate(modification);
+                }
             }
         } catch (Exception e) {
             String message = "Cannot save modification: ";
@@ -775,6 +838,22 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         }
         removeCachedModificationCountFor(materialInstance);
         removeCachedModificationsFor(materialInstance);
+        addToSearchIndex(materialInstance, list);
+    }
+
+    private void saveInBatches(final MaterialInstance materialInstance, final List<Modification> modifications, final int batchSize) {
+        getHibernateTemplate().execute((HibernateCallback) session -> {
+            session.flush();
+            session.doWork(connection -> {
+                ModificationBatchInserter inserter = new ModificationBatchInserter(connection, materialInstance);
+                for (int from = 0; from < modifications.size(); from += batchSize) {
+                    List<Modification> chunk = modifications.subList(from, Math.min(from + batchSize, modifications.size()));
+                    inserter.insert(chunk);
+                    mduPerformanceLogger.savedModifications(materialInstance.getFingerprint(), from + chunk.size(), modifications.size());
+                }
+            });
+            return null;
+        });
     }
 
     private void checkAndRemoveDuplicates(MaterialInstance materialInstance,
@@ -891,19 +970,76 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         return cacheKeyGenerator.generate("hasPipelineEverRunWithModification", pipelineName, materialId, modificationId);
     }
 
+    /**
+     * Search strings of three characters or more are looked up in an index of the latest modifications of the material.
+     * Older modifications are only scanned as far as the {@value #SEARCH_SCAN_LIMIT} modifications just before the
+     * indexed ones, so matches older than that are not found.
+     */
     public List<MatchedRevision> findRevisionsMatching(final MaterialConfig materialConfig, final String searchString) {
+        Material material = materialConfigConverter.toMaterial(materialConfig);
+        if (!ModificationSearchIndex.canSearch(searchString)) {
+            return scanRevisionsMatching(material, searchString);
+        }
+        MaterialInstance materialInstance = findMaterialInstance(material);
+        if (materialInstance == null) {
+            return new ArrayList<>();
+        }
+        ModificationSearchIndex index = searchIndexFor(materialInstance);
+        List<MatchedRevision> matches = new ArrayList<>();
+        long beforeId = Long.MAX_VALUE;
+        while (matches.size() < MATCHED_REVISIONS_LIMIT) {
+            List<Long> candidates = index.candidates(searchString, beforeId, SEARCH_CANDIDATES_BATCH_SIZE);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (Modification modification : loadModifications(materialInstance, candidates)) {
+                if (matches.size() < MATCHED_REVISIONS_LIMIT && ModificationSearchIndex.matches(modification, searchString)) {
+                    matches.add(material.createMatchedRevision(modification, searchString));
+                }
+            }
+            beforeId = candidates.get(candidates.size() - 1);
+        }
+        long indexedFrom = index.indexedFrom();
+        if (matches.size() < MATCHED_REVISIONS_LIMIT && indexedFrom > 0) {
+            long scanBefore = Math.min(beforeId, indexedFrom);
+            long scanFrom = oldestModificationIdToScan(materialInstance, scanBefore);
+            matches.addAll(scanRevisionsMatching(material, searchString, scanFrom, scanBefore, MATCHED_REVISIONS_LIMIT - matches.size()));
+        }
+        return matches;
+    }
+
+    private List<MatchedRevision> scanRevisionsMatching(final Material material, final String searchString) {
+        return scanRevisionsMatching(material, searchString, 0, Long.MAX_VALUE, MATCHED_REVISIONS_LIMIT);
+    }
+
+    private long oldestModificationIdToScan(final MaterialInstance materialInstance, final long beforeId) {
+        Long oldest = (Long) getHibernateTemplate().execute((HibernateCallback) session -> {
+            SQLQuery query = session.createSQLQuery("SELECT id FROM modifications WHERE materialId = :materialId AND id < :before_id ORDER BY id DESC");
+            query.addScalar("id", new LongType());
+            query.setLong("materialId", materialInstance.getId());
+            query.setLong("before_id", beforeId);
+            query.setFirstResult(SEARCH_SCAN_LIMIT - 1);
+            query.setMaxResults(1);
+            return query.uniqueResult();
+        });
+        return oldest == null ? 0 : oldest;
+    }
+
+    private List<MatchedRevision> scanRevisionsMatching(final Material material, final String searchString, final long fromId, final long beforeId, final int limit) {
         return (List<MatchedRevision>) getHibernateTemplate().execute((HibernateCallback) session -> {
             String sql = "SELECT m.*"
                     + " FROM modifications AS m"
                     + " INNER JOIN materials mat ON mat.id = m.materialId"
                     + " WHERE mat.fingerprint = :finger_print"
+                    + " AND m.id >= :from_id AND m.id < :before_id"
                     + " AND (m.revision || ' ' || COALESCE(m.username, '') || ' ' || COALESCE(m.comment, '') LIKE :search_string OR m.pipelineLabel LIKE :search_string)"
                     + " ORDER BY m.id DESC"
-                    + " LIMIT 5";
+                    + " LIMIT " + limit;
             SQLQuery query = session.createSQLQuery(sql);
             query.addEntity("m", Modification.class);
-            Material material = materialConfigConverter.toMaterial(materialConfig);
             query.setString("finger_print", material.getFingerprint());
+            query.setLong("from_id", fromId);
+            query.setLong("before_id", beforeId);
             query.setString("search_string", "%" + searchString + "%");
             final List<MatchedRevision> list = new ArrayList<>();
             for (Modification mod : (List<Modification>) query.list()) {
@@ -913,6 +1049,58 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         });
     }
 
+    private List<Modification> loadModifications(final MaterialInstance materialInstance, final List<Long> ids) {
+        return (List<Modification>) getHibernateTemplate().execute((HibernateCallback) session -> {
+            Query query = session.createQuery("FROM Modification WHERE materialId = :materialId AND id IN (:ids) ORDER BY id DESC");
+            query.setLong("materialId", materialInstance.getId());
+            query.setParameterList("ids", ids);
+            return query.list();
+        });
+    }
+
+    private ModificationSearchIndex searchIndexFor(final MaterialInstance materialInstance) {
+        String key = searchIndexKey(materialInstance);
+        ModificationSearchIndex index = (ModificationSearchIndex) goCache.get(key);
+        if (index == null) {
+            synchronized (key) {
+                index = (ModificationSearchIndex) goCache.get(key);
+                if (index == null) {
+                    index = buildSearchIndex(materialInstance);
+                    goCache.put(key, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    String searchIndexKey(MaterialInstance materialInstance) {
+        return cacheKeyGenerator.generate("searchIndex", materialInstance.getId());
+    }
+
+    private ModificationSearchIndex buildSearchIndex(final MaterialInstance materialInstance) {
+        return (ModificationSearchIndex) getHibernateTemplate().execute((HibernateCallback) session -> {
+            ModificationSearchIndex index = new ModificationSearchIndex();
+            SQLQuery query = session.createSQLQuery("SELECT id, revision, username, comment, pipelineLabel FROM modifications WHERE materialId = :materialId ORDER BY id DESC");
+            query.addScalar("id", new LongType());
+            query.addScalar("revision", new StringType());
+            query.addScalar("username", new StringType());
+            query.addScalar("comment", new StringType());
+            query.addScalar("pipelineLabel", new StringType());
+            query.setLong("materialId", materialInstance.getId());
+            query.setMaxResults(ModificationSearchIndex.DEFAULT_MAX_SIZE);
+            List<Object[]> latest = query.list();
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                Object[] row = latest.get(i);
+                index.add((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+            }
+            if (latest.size() == ModificationSearchIndex.DEFAULT_MAX_SIZE) {
+                index.indexedFrom((Long) latest.get(latest.size() - 1)[0]);
+            }
+            LOGGER.debug("Built search index of {} modifications for material {}", index.size(), materialInstance.getId());
+            return index;
+        });
+    }
+
     public List<Modification> modificationFor(final StageIdentifier stageIdentifier) {
         if (stageIdentifier == null) {
             return null;
@@ -972,7 +1160,7 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
                         return q.list();
                     });
                     if (!modificationsList.isEmpty()) {
-                        modifications = new Modifications(modificationsList);
+                        modifications = new Modifications(withModifiedFilesPreview(modificationsList));
                         goCache.put(key, subKey, modifications);
                     }
                 }
@@ -1025,4 +1213,22 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         MaterialInstance materialInstance = this.findOrCreateFrom(material);
         return new File(new File("pipelines", "flyweight"), materialInstance.getFlyweightName());
     }
+
+    /**
+     * Cached previews hold on to this. It is immutable to the cloner, so that deep clones of cached pipelines and
+     * stages do not copy the repository along with it.
+     */
+    @Immutable
+    private static class ModifiedFilesPager implements ModifiedFilesLoader {
+        private final MaterialRepository materialRepository;
+
+        private ModifiedFilesPager(MaterialRepository materialRepository) {
+            this.materialRepository = materialRepository;
+        }
+
+        @Override
+        public List<ModifiedFile> load(long modificationId, int offset, int limit) {
+            return materialRepository.findModifiedFiles(modificationId, offset, limit);
+        }
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.ModifiedFile;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * @understands inserting a chunk of modifications and their modified files as JDBC batches
+ * <p>
+ * The id columns are identity columns, and not every supported database hands back generated keys for a batch,
+ * so the ids are read back by material (modifications) and modification (modified files) after each insert.
+ * This relies on a material being updated by one MDU at a time.
+ */
+class ModificationBatchInserter {
+    private static final String LAST_MODIFICATION_ID = "SELECT MAX(id) FROM modifications WHERE materialId = ?";
+    private static final String INSERT_MODIFICATION = "INSERT INTO modifications (revision, comment, emailAddress, modifiedTime, userName, pipelineLabel, pipelineId, additionalData, materialId) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MODIFICATION_IDS = "SELECT id, revision FROM modifications WHERE materialId = ? AND id > ? ORDER BY id";
+    private static final String INSERT_MODIFIED_FILE = "INSERT INTO modifiedFiles (modificationId, fileName, folderName, action) VALUES (?, ?, ?, ?)";
+    private static final String MODIFIED_FILE_IDS = "SELECT id, modificationId FROM modifiedFiles WHERE modificationId BETWEEN ? AND ? ORDER BY id";
+
+    private final Connection connection;
+    private final MaterialInstance materialInstance;
+
+    ModificationBatchInserter(Connection connection, MaterialInstance materialInstance) {
+        this.connection = connection;
+        this.materialInstance = materialInstance;
+    }
+
+    void insert(List<Modification> chunk) throws SQLException {
+        long lastId = lastModificationId();
+        insertModifications(chunk);
+        assignModificationIds(chunk, lastId);
+        insertModifiedFiles(chunk);
+        assignModifiedFileIds(chunk);
+    }
+
+    private long lastModificationId() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LAST_MODIFICATION_ID)) {
+            statement.setLong(1, materialInstance.getId());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void insertModifications(List<Modification> chunk) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MODIFICATION)) {
+            for (Modification modification : chunk) {
+                statement.setString(1, modification.getRevision());
+                statement.setString(2, modification.getComment());
+                statement.setString(3, modification.getEmailAddress());
+                statement.setTimestamp(4, modification.getModifiedTime() == null ? null : new Timestamp(modification.getModifiedTime().getTime()));
+                statement.setString(5, modification.getUserName());
+                statement.setString(6, modification.getPipelineLabel());
+                if (modification.getPipelineId() == null) {
+                    statement.setNull(7, Types.BIGINT);
+                } else {
+                    statement.setLong(7, modification.getPipelineId());
+                }
+                statement.setString(8, modification.getAdditionalData());
+                statement.setLong(9, materialInstance.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void assignModificationIds(List<Modification> chunk, long lastId) throws SQLException {
+        int index = 0;
+        try (PreparedStatement statement = connection.prepareStatement(MODIFICATION_IDS)) {
+            statement.setLong(1, materialInstance.getId());
+            statement.setLong(2, lastId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (index >= chunk.size() || !chunk.get(index).getRevision().equals(resultSet.getString(2))) {
+                        throw bomb("Modifications for material " + materialInstance.getFingerprint() + " were inserted concurrently with a batch insert");
+                    }
+                    chunk.get(index++).setId(resultSet.getLong(1));
+                }
+            }
+        }
+        if (index != chunk.size()) {
+            throw bomb("Expected " + chunk.size() + " modifications to be inserted for material " + materialInstance.getFingerprint() + " but found " + index);
+        }
+    }
+
+    private void insertModifiedFiles(List<Modification> chunk) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MODIFIED_FILE)) {
+            for (Modification modification : chunk) {
+                for (ModifiedFile file : modification.getModifiedFiles()) {
+                    file.setModificationId(modification.getId());
+                    statement.setLong(1, modification.getId());
+                    statement.setString(2, file.getFileName());
+                    statement.setString(3, file.getFolderName());
+                    statement.setString(4, file.getAction().name());
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void assignModifiedFileIds(List<Modification> chunk) throws SQLException {
+        Map<Long, List<ModifiedFile>> filesByModificationId = new HashMap<>();
+        for (Modification modification : chunk) {
+            if (!modification.getModifiedFiles().isEmpty()) {
+                filesByModificationId.put(modification.getId(), modification.getModifiedFiles());
+            }
+        }
+        if (filesByModificationId.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> nextFileIndex = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(MODIFIED_FILE_IDS)) {
+            statement.setLong(1, chunk.get(0).getId());
+            statement.setLong(2, chunk.get(chunk.size() - 1).getId());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long modificationId = resultSet.getLong(2);
+                    List<ModifiedFile> files = filesByModificationId.get(modificationId);
+                    if (files == null) {
+                        continue;
+                    }
+                    int index = nextFileIndex.merge(modificationId, 1, Integer::sum) - 1;
+                    files.get(index).setId(resultSet.getLong(1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.thoughtworks.go.domain.materials.Modification;
+
+import java.util.*;
+
+/**
+ * @understands finding the modifications of a material whose revision, user name, comment or pipeline label contain
+ * a search string, without scanning all of them. Every trigram of those fields points to the modifications it occurs
+ * in; candidates have to be checked with {@link #matches(Modification, String)} since the trigrams of a search string
+ * can all occur in a modification without the string itself occurring in it.
+ * <p>
+ * Only the latest modifications are indexed. Once the index is full, the oldest quarter of it is dropped, and
+ * modifications older than {@link #indexedFrom()} have to be searched for some other way.
+ */
+class ModificationSearchIndex {
+    static final int GRAM_SIZE = 3;
+    static final int DEFAULT_MAX_SIZE = 20000;
+
+    private final int maxSize;
+    private long[] ids = new long[16];
+    private int size;
+    private long indexedFrom;
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    ModificationSearchIndex() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    ModificationSearchIndex(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    static boolean canSearch(String searchString) {
+        return searchString != null && searchString.length() >= GRAM_SIZE;
+    }
+
+    static boolean matches(Modification modification, String searchString) {
+        return searchableText(modification.getRevision(), modification.getUserName(), modification.getComment()).contains(searchString)
+                || (modification.getPipelineLabel() != null && modification.getPipelineLabel().contains(searchString));
+    }
+
+    /**
+     * @return false if the modification is not newer than all those already in the index, in which case the index
+     * has to be built again
+     */
+    synchronized boolean add(long id, String revision, String userName, String comment, String pipelineLabel) {
+        if (size > 0 && id <= ids[size - 1]) {
+            return false;
+        }
+        if (size == maxSize) {
+            dropOldest(Math.max(1, maxSize / 4));
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int position = size++;
+        ids[position] = id;
+        addGrams(position, searchableText(revision, userName, comment));
+        addGrams(position, pipelineLabel);
+        return true;
+    }
+
+    synchronized boolean add(Modification modification) {
+        return add(modification.getId(), modification.getRevision(), modification.getUserName(), modification.getComment(), modification.getPipelineLabel());
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the id from which on all modifications added are still indexed
+     */
+    synchronized long indexedFrom() {
+        return indexedFrom;
+    }
+
+    /**
+     * Marks modifications older than <code>id</code> as never having been added, as when the index is built from the
+     * latest modifications only.
+     */
+    synchronized void indexedFrom(long id) {
+        indexedFrom = Math.max(indexedFrom, id);
+    }
+
+    /**
+     * @return ids of up to <code>limit</code> modifications older than <code>beforeId</code> which may contain the
+     * search string, newest first
+     */
+    synchronized List<Long> candidates(String searchString, long beforeId, int limit) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= searchString.length(); i++) {
+            Postings list = postings.get(gram(searchString, i));
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.get(0);
+
+        List<Long> candidates = new ArrayList<>();
+        for (int i = shortest.size - 1; i >= 0 && candidates.size() < limit; i--) {
+            int position = shortest.positions[i];
+            if (ids[position] >= beforeId) {
+                continue;
+            }
+            if (containedInAll(lists, position)) {
+                candidates.add(ids[position]);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean containedInAll(List<Postings> lists, int position) {
+        for (int i = 1; i < lists.size(); i++) {
+            Postings list = lists.get(i);
+            if (Arrays.binarySearch(list.positions, 0, list.size, position) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dropOldest(int count) {
+        indexedFrom = ids[count - 1] + 1;
+        ids = Arrays.copyOfRange(ids, count, ids.length);
+        size -= count;
+        postings.values().removeIf(list -> list.dropBelow(count));
+    }
+
+    private void addGrams(int position, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            postings.computeIfAbsent(gram(text, i), key -> new Postings()).add(position);
+        }
+    }
+
+    private static long gram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    private static String searchableText(String revision, String userName, String comment) {
+        return revision + " " + (userName == null ? "" : userName) + " " + (comment == null ? "" : comment);
+    }
+
+    private static class Postings {
+        private int[] positions = new int[2];
+        private int size;
+
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        /**
+         * @return true if no positions are left once those below <code>count</code> are dropped and the others shifted
+         * down by it
+         */
+        boolean dropBelow(int count) {
+            int from = Arrays.binarySearch(positions, 0, size, count);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            int remaining = size - from;
+            for (int i = 0; i < remaining; i++) {
+                positions[i] = positions[from + i] - count;
+            }
+            size = remaining;
+            return size == 0;
+        }
+    }
+}
@@ -214,10 +214,7 @@ public void updatePipelineTimeline(final PipelineTimeline pipelineTimeline, fina
     }
 
     private void addEntriesToPipelineTimeline(List<PipelineTimelineEntry> newEntries, PipelineTimeline pipelineTimeline, List<PipelineTimelineEntry> tempEntriesForRollback) {
-        for (PipelineTimelineEntry newEntry : newEntries) {
-            tempEntriesForRollback.add(newEntry);
-            pipelineTimeline.add(newEntry);
-        }
+        tempEntriesForRollback.addAll(pipelineTimeline.addAll(newEntries));
     }
 
     public long saveSelectedPipelines(PipelineSelections pipelineSelections) {
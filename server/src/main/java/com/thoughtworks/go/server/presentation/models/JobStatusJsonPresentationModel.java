@@ -71,6 +71,8 @@ public class JobStatusJsonPresentationModel {
         jsonParams.put("current_status", instance.displayStatusWithResult());
         jsonParams.put("current_build_duration", instance.getCurrentBuildDuration());
         jsonParams.put("last_build_duration", Long.toString(this.durationBean.getDuration()));
+        jsonParams.put("expected_build_duration_p50", Long.toString(this.durationBean.getExpectedDurationP50()));
+        jsonParams.put("expected_build_duration_p90", Long.toString(this.durationBean.getExpectedDurationP90()));
         jsonParams.put("id", Long.toString(getBuildInstanceId()));
         jsonParams.put("is_completed", valueOf(instance.isCompleted()));
         jsonParams.put("name", getName());
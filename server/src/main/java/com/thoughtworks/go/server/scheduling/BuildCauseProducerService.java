@@ -331,7 +331,7 @@ public class BuildCauseProducerService {
                     }
                 } else {
                     for (Material material : pendingMaterials.values()) {
-                        materialUpdateService.updateMaterial(material);
+                        materialUpdateService.updateMaterialWithPriority(material);
                     }
                 }
 
@@ -384,7 +384,7 @@ public class BuildCauseProducerService {
                                 Material newMaterial = materialConfigConverter.toMaterial(materialConfig);
                                 pendingMaterials.putIfAbsent(materialConfig.getFingerprint(), newMaterial);
                                 // and force update of it
-                                materialUpdateService.updateMaterial(newMaterial);
+                                materialUpdateService.updateMaterialWithPriority(newMaterial);
                                 LOGGER.info("new material {} in {} was added after manual-trigger. Scheduled update for it.", newMaterial.getDisplayName(), pipelineConfig.name());
                             }
                         }
@@ -17,15 +17,20 @@ package com.thoughtworks.go.server.scheduling;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.CoalescingMessageQueue;
 import com.thoughtworks.go.server.messaging.MessagingService;
 
 @Component
-public class ScheduleCheckQueue extends GoMessageQueue<ScheduleCheckMessage> {
+public class ScheduleCheckQueue extends CoalescingMessageQueue<ScheduleCheckMessage> {
 
     @Autowired
     public ScheduleCheckQueue(MessagingService messaging) {
         super(messaging, "schedule-check");
     }
 
+    @Override
+    protected Object keyFor(ScheduleCheckMessage message) {
+        return message.getPipelineName();
+    }
+
 }
\ No newline at end of file
@@ -15,10 +15,10 @@
  */
 package com.thoughtworks.go.server.scheduling;
 
-import java.util.concurrent.ConcurrentSkipListSet;
-
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -26,10 +26,15 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class TriggerMonitor {
-    ConcurrentSkipListSet<CaseInsensitiveString> triggeredPipelines = new ConcurrentSkipListSet<>();
+    private final PipelineStateTable pipelineStateTable;
+
+    @Autowired
+    public TriggerMonitor(PipelineStateTable pipelineStateTable) {
+        this.pipelineStateTable = pipelineStateTable;
+    }
 
     public boolean isAlreadyTriggered(CaseInsensitiveString pipelineName) {
-        return triggeredPipelines.contains(pipelineName);
+        return pipelineStateTable.isTriggering(pipelineName);
     }
 
     public boolean markPipelineAsAlreadyTriggered(PipelineConfig pipelineConfig) {
@@ -37,14 +42,14 @@ public class TriggerMonitor {
     }
 
     public boolean markPipelineAsAlreadyTriggered(CaseInsensitiveString pipelineName) {
-        return triggeredPipelines.add(pipelineName);
+        return pipelineStateTable.markTriggering(pipelineName);
     }
 
     public void markPipelineAsCanBeTriggered(PipelineConfig pipelineConfig) {
-        triggeredPipelines.remove(pipelineConfig.name());
+        pipelineStateTable.clearTriggering(pipelineConfig.name());
     }
 
     public void clear_for_test() {
-        triggeredPipelines.clear();
+        pipelineStateTable.clearWhichIsEvilAndShouldNotBeUsedInRealWorld();
     }
 }
@@ -43,6 +43,16 @@ public class CheckConnectionSubprocessExecutionContext implements SubprocessExec
         throw new UnsupportedOperationException(" This is an unexpected call. Perform this action only on the server.");
     }
 
+    @Override
+    public Boolean isGitRemoteBranchPreCheck() {
+        throw new UnsupportedOperationException(" This is an unexpected call. Perform this action only on the server.");
+    }
+
+    @Override
+    public Boolean isGitSharedObjectStore() {
+        throw new UnsupportedOperationException(" This is an unexpected call. Perform this action only on the server.");
+    }
+
     @Override
     public boolean isServer() {
         throw new UnsupportedOperationException("This is an unexpected call.");
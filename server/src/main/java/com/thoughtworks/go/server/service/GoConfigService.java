@@ -64,7 +64,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.StringReader;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static com.thoughtworks.go.config.validation.GoConfigValidity.*;
 import static com.thoughtworks.go.i18n.LocalizedMessage.forbiddenToEditPipeline;
@@ -91,6 +90,7 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
     private InstanceFactory instanceFactory;
     private SystemEnvironment systemEnvironment;
     private MagicalGoConfigXmlLoader xmlLoader;
+    private volatile CruiseConfigIndex configIndex;
 
     @Autowired
     public GoConfigService(GoConfigDao goConfigDao,
@@ -255,6 +255,16 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
         return goConfigDao.load();
     }
 
+    private CruiseConfigIndex configIndex() {
+        CruiseConfig current = cruiseConfig();
+        CruiseConfigIndex index = configIndex;
+        if (index == null || !index.isFor(current)) {
+            index = new CruiseConfigIndex(current);
+            configIndex = index;
+        }
+        return index;
+    }
+
     public StageConfig stageConfigNamed(String pipelineName, String stageName) {
         return getCurrentConfig().stageConfigByName(new CaseInsensitiveString(pipelineName), new CaseInsensitiveString(stageName));
     }
@@ -541,11 +551,12 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
     }
 
     public String findGroupNameByPipeline(final CaseInsensitiveString pipelineName) {
-        return getCurrentConfig().getGroups().findGroupNameByPipeline(pipelineName);
+        PipelineConfigs group = findGroupByPipeline(pipelineName);
+        return group == null ? null : group.getGroup();
     }
 
     public PipelineConfigs findGroupByPipeline(CaseInsensitiveString pipelineName) {
-        return getCurrentConfig().getGroups().findGroupByPipeline(pipelineName);
+        return configIndex().groupOf(pipelineName);
     }
 
     public void populateAdminModel(Map<String, String> model) {
@@ -667,12 +678,14 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
     }
 
     public List<CaseInsensitiveString> pipelinesWithMaterial(String fingerprint) {
-        ArrayList<CaseInsensitiveString> pipelineNames = new ArrayList<>();
-        getAllPipelineConfigs().forEach(pipeline -> {
-            pipeline.materialConfigs().stream().filter(materialConfig -> materialConfig.getFingerprint().equals(fingerprint)).findFirst().ifPresent(expectedMaterialConfig -> pipelineNames.add(pipeline.name()));
+        return new ArrayList<>(configIndex().pipelinesWithMaterial(fingerprint));
+    }
 
-        });
-        return pipelineNames;
+    public List<CaseInsensitiveString> pipelinesAssociatedWithTemplate(CaseInsensitiveString templateName) {
+        if (templateName == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(configIndex().pipelinesAssociatedWithTemplate(templateName));
     }
 
     public List<PackageDefinition> getPackages() {
@@ -829,13 +842,7 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
     }
 
     public List<PipelineConfig> downstreamPipelinesOf(String pipelineName) {
-        List<PipelineConfig> dependencies = new ArrayList<>();
-        for (PipelineConfig config : getAllPipelineConfigs()) {
-            if (config.dependsOn(new CaseInsensitiveString(pipelineName))) {
-                dependencies.add(config);
-            }
-        }
-        return dependencies;
+        return new ArrayList<>(configIndex().downstreamPipelinesOf(new CaseInsensitiveString(pipelineName)));
     }
 
     public boolean hasVariableInScope(String pipelineName, String variableName) {
@@ -1076,14 +1083,7 @@ public class GoConfigService implements Initializer, CruiseConfigProvider {
     }
 
     public PipelineConfig findPipelineByName(CaseInsensitiveString pipelineName) {
-        List<PipelineConfig> pipelineConfigs = getAllPipelineConfigs()
-                .stream()
-                .filter((pipelineConfig) -> pipelineConfig.getName().equals(pipelineName))
-                .collect(Collectors.toList());
-        if (!pipelineConfigs.isEmpty()) {
-            return pipelineConfigs.get(0);
-        }
-        return null;
+        return configIndex().pipelineNamed(pipelineName);
     }
 
     public SecretConfig getSecretConfigById(String secretConfigId) {
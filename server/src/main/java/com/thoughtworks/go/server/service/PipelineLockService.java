@@ -20,12 +20,12 @@ import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.domain.Pipeline;
 import com.thoughtworks.go.domain.PipelineIdentifier;
-import com.thoughtworks.go.domain.PipelineState;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.dao.PipelineStateDao;
 import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.transaction.AfterCompletionCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,12 +44,14 @@ public class PipelineLockService implements ConfigChangedListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelineLockService.class);
     private final GoConfigService goConfigService;
     private PipelineStateDao pipelineStateDao;
+    private final PipelineStateTable pipelineStateTable;
     private List<PipelineLockStatusChangeListener> listeners = new ArrayList<>();
 
     @Autowired
-    public PipelineLockService(GoConfigService goConfigService, PipelineStateDao pipelineStateDao) {
+    public PipelineLockService(GoConfigService goConfigService, PipelineStateDao pipelineStateDao, PipelineStateTable pipelineStateTable) {
         this.goConfigService = goConfigService;
         this.pipelineStateDao = pipelineStateDao;
+        this.pipelineStateTable = pipelineStateTable;
     }
 
     public void initialize() {
@@ -67,6 +69,9 @@ public class PipelineLockService implements ConfigChangedListener {
                         break;
                     }
                 }
+                if (!goConfigService.hasPipelineNamed(pipelineConfig.name())) {
+                    pipelineStateTable.forget(pipelineConfig.name());
+                }
             }
         };
     }
@@ -75,6 +80,7 @@ public class PipelineLockService implements ConfigChangedListener {
         if (goConfigService.isLockable(pipeline.getName())) {
             pipelineStateDao.lockPipeline(pipeline, (AfterCompletionCallback) status -> {
                 if(status == TransactionSynchronization.STATUS_COMMITTED) {
+                    pipelineStateTable.locked(pipeline.getName());
                     notifyListeners(PipelineLockStatusChangeListener.Event.lock(pipeline.getName()));
                 }
             });
@@ -82,16 +88,11 @@ public class PipelineLockService implements ConfigChangedListener {
     }
 
     public boolean isLocked(String pipelineName) {
-        return lockedPipeline(pipelineName) != null;
+        return pipelineStateTable.isLocked(pipelineName, () -> pipelineStateDao.pipelineStateFor(pipelineName));
     }
 
     public StageIdentifier lockedPipeline(String pipelineName) {
-        PipelineState pipelineState = pipelineStateDao.pipelineStateFor(pipelineName);
-        if (pipelineState != null && pipelineState.isLocked()) {
-            return pipelineState.getLockedBy();
-        } else {
-            return null;
-        }
+        return pipelineStateTable.lockedBy(pipelineName, () -> pipelineStateDao.pipelineStateFor(pipelineName));
     }
 
     public void unlock(String pipelineName) {
@@ -99,6 +100,7 @@ public class PipelineLockService implements ConfigChangedListener {
             if (status != TransactionSynchronization.STATUS_COMMITTED) {
                 return;
             }
+            pipelineStateTable.unlocked(pipelineName);
             notifyListeners(PipelineLockStatusChangeListener.Event.unLock(pipelineName));
         });
     }
@@ -118,6 +120,7 @@ public class PipelineLockService implements ConfigChangedListener {
                 unlock(lockedPipeline);
             }
         }
+        pipelineStateTable.retainOnly(newCruiseConfig::hasPipelineNamed);
     }
 
     public void registerListener(PipelineLockStatusChangeListener lockStatusChangeListener) {
@@ -23,6 +23,7 @@ import com.thoughtworks.go.domain.PipelinePauseInfo;
 import com.thoughtworks.go.i18n.LocalizedMessage;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.newsecurity.utils.SessionUtils;
 import com.thoughtworks.go.server.service.result.DefaultLocalizedOperationResult;
@@ -46,15 +47,17 @@ public class PipelinePauseService {
     private PipelineSqlMapDao pipelineSqlMapDao;
     private final GoConfigService goConfigService;
     private final SecurityService securityService;
+    private final PipelineStateTable pipelineStateTable;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelinePauseService.class);
     private List<PipelinePauseChangeListener> listeners = new ArrayList<>();
 
     @Autowired
-    public PipelinePauseService(PipelineSqlMapDao pipelineSqlMapDao, GoConfigService goConfigService, SecurityService securityService) {
+    public PipelinePauseService(PipelineSqlMapDao pipelineSqlMapDao, GoConfigService goConfigService, SecurityService securityService, PipelineStateTable pipelineStateTable) {
         this.pipelineSqlMapDao = pipelineSqlMapDao;
         this.goConfigService = goConfigService;
         this.securityService = securityService;
+        this.pipelineStateTable = pipelineStateTable;
     }
 
     public void pause(String pipelineName, String pauseCause, Username userName) {
@@ -83,7 +86,7 @@ public class PipelinePauseService {
     }
 
     private boolean isPipelinePaused(String pipelineName) {
-        return pipelineSqlMapDao.pauseState(pipelineName).isPaused();
+        return pipelinePauseInfo(pipelineName).isPaused();
     }
 
     public void unpause(String pipelineName) {
@@ -113,8 +116,7 @@ public class PipelinePauseService {
     }
 
     public PipelinePauseInfo pipelinePauseInfo(String pipelineName) {
-        PipelinePauseInfo pipelinePauseInfo = pipelineSqlMapDao.pauseState(pipelineName);
-        return pipelinePauseInfo == null ? PipelinePauseInfo.notPaused() : pipelinePauseInfo;
+        return pipelineStateTable.pauseInfo(pipelineName, () -> pipelineSqlMapDao.pauseState(pipelineName));
     }
 
     public boolean isPaused(String pipelineName) {
@@ -128,6 +130,7 @@ public class PipelinePauseService {
             String pauseByDisplayName = pauseBy.getDisplayName();
             String sanitizedPauseBy = pauseByDisplayName.substring(0, Math.min(255, pauseByDisplayName.length()));
             pipelineSqlMapDao.pause(pipelineName, sanitizedPauseCause, sanitizedPauseBy);
+            pipelineStateTable.pauseInfoChanged(pipelineName, pipelineSqlMapDao.pauseState(pipelineName));
             LOGGER.info("[Pipeline Pause] Pipeline [{}] is paused by [{}] because [{}]", pipelineName, pauseBy, pauseCause);
             notifyListeners(PipelinePauseChangeListener.Event.pause(pipelineName, pauseBy));
         }
@@ -156,6 +159,7 @@ public class PipelinePauseService {
         String mutextPipelineName = mutexForPausePipeline(pipelineName);
         synchronized (mutextPipelineName) {
             pipelineSqlMapDao.unpause(pipelineName);
+            pipelineStateTable.pauseInfoChanged(pipelineName, PipelinePauseInfo.notPaused());
             LOGGER.info("[Pipeline Unpause] Pipeline [{}] is unpaused by [{}]", pipelineName, unpausedBy);
             notifyListeners(PipelinePauseChangeListener.Event.unPause(pipelineName, unpausedBy));
         }
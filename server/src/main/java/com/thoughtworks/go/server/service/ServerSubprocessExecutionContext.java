@@ -49,6 +49,16 @@ public class ServerSubprocessExecutionContext implements SubprocessExecutionCont
         return systemEnvironment.get(SystemEnvironment.GO_SERVER_SHALLOW_CLONE);
     }
 
+    @Override
+    public Boolean isGitRemoteBranchPreCheck() {
+        return systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_BRANCH_PRE_CHECK);
+    }
+
+    @Override
+    public Boolean isGitSharedObjectStore() {
+        return systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_SHARED_OBJECT_STORE);
+    }
+
     @Override
     public boolean isServer() {
         return true;
@@ -148,6 +148,9 @@ public class StageNotificationService {
         public void visit(Modification modification) {
             sectionSeperator();
             material.emailContent(emailBody, modification);
+            if (modification.hasMoreModifiedFiles()) {
+                emailBody.append('\n').append(String.format("Showing %s of %s modified files", modification.getModifiedFiles().size(), modification.getModifiedFilesCount()));
+            }
         }
 
         private void sectionSeperator() {
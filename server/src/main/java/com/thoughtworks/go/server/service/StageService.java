@@ -246,7 +246,13 @@ public class StageService implements StageFinder {
         }
 
         Long duration = stageDao.getDurationOfLastSuccessfulOnAgent(pipelineName, stageName, job);
-        return new DurationBean(job.getId(), duration == null ? 0L : duration);
+        Long p50 = stageDao.getDurationPercentile(pipelineName, stageName, job.getName(), 50);
+        Long p90 = stageDao.getDurationPercentile(pipelineName, stageName, job.getName(), 90);
+        return new DurationBean(job.getId(), zeroIfNull(duration), zeroIfNull(p50), zeroIfNull(p90));
+    }
+
+    private static long zeroIfNull(Long duration) {
+        return duration == null ? 0L : duration;
     }
 
     public Stage mostRecentPassed(String pipelineName, String stageName) {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.materials.ConfigMaterialUpdateQueue;
+import com.thoughtworks.go.server.materials.DependencyMaterialUpdateQueue;
+import com.thoughtworks.go.server.materials.MaterialUpdateQueue;
+import com.thoughtworks.go.server.scheduling.ScheduleCheckQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class MessageQueueInformationProvider implements ServerInfoProvider {
+    private final MaterialUpdateQueue materialUpdateQueue;
+    private final ConfigMaterialUpdateQueue configMaterialUpdateQueue;
+    private final DependencyMaterialUpdateQueue dependencyMaterialUpdateQueue;
+    private final ScheduleCheckQueue scheduleCheckQueue;
+
+    @Autowired
+    public MessageQueueInformationProvider(MaterialUpdateQueue materialUpdateQueue, ConfigMaterialUpdateQueue configMaterialUpdateQueue,
+                                           DependencyMaterialUpdateQueue dependencyMaterialUpdateQueue, ScheduleCheckQueue scheduleCheckQueue) {
+        this.materialUpdateQueue = materialUpdateQueue;
+        this.configMaterialUpdateQueue = configMaterialUpdateQueue;
+        this.dependencyMaterialUpdateQueue = dependencyMaterialUpdateQueue;
+        this.scheduleCheckQueue = scheduleCheckQueue;
+    }
+
+    @Override
+    public double priority() {
+        return 12.2;
+    }
+
+    @Override
+    public Map<String, Object> asJson() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Material update queue", materialUpdateQueue.laneStatistics());
+        json.put("Config material update queue", configMaterialUpdateQueue.laneStatistics());
+        json.put("Dependency material update queue", dependencyMaterialUpdateQueue.laneStatistics());
+        json.put("Schedule check queue", scheduleCheckQueue.laneStatistics());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Message Queues";
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.remote.ConfigRepoConfig;
+import com.thoughtworks.go.config.remote.ConfigReposConfig;
+import com.thoughtworks.go.plugin.configrepo.contract.CREnvironment;
+import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
+import com.thoughtworks.go.plugin.configrepo.contract.ErrorCollection;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigRepoParseResultCacheTest {
+    @TempDir
+    File cacheDir;
+    private ConfigRepoParseResultCache cache;
+    private CRParseResult parseResult;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConfigRepoParseResultCache(cacheDir, true);
+        parseResult = new CRParseResult(Collections.singletonList(new CREnvironment("UAT")), new ArrayList<>(), new ErrorCollection());
+    }
+
+    @Test
+    void shouldReturnTheResultCachedForTheSameKey() {
+        cache.put("fingerprint", "key", parseResult);
+
+        CRParseResult cached = cache.get("fingerprint", "key");
+
+        assertThat(cached.getEnvironments()).extracting(CREnvironment::getName).containsExactly("UAT");
+        assertThat(cached.hasErrors()).isFalse();
+    }
+
+    @Test
+    void shouldNotReturnTheResultCachedForOtherParseInputs() {
+        cache.put("fingerprint", "key", parseResult);
+
+        assertThat(cache.get("fingerprint", "other-key")).isNull();
+        assertThat(cache.get("other-fingerprint", "key")).isNull();
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestResultOfAConfigRepo() {
+        cache.put("fingerprint", "key", parseResult);
+        cache.put("fingerprint", "newer-key", new CRParseResult(new ArrayList<>(), new ArrayList<>(), new ErrorCollection()));
+
+        assertThat(cache.get("fingerprint", "key")).isNull();
+        assertThat(cache.get("fingerprint", "newer-key").getEnvironments()).isEmpty();
+    }
+
+    @Test
+    void shouldNotCacheWhenTurnedOff() {
+        ConfigRepoParseResultCache turnedOff = new ConfigRepoParseResultCache(cacheDir, false);
+
+        turnedOff.put("fingerprint", "key", parseResult);
+
+        assertThat(turnedOff.get("fingerprint", "key")).isNull();
+        assertThat(cacheDir.list()).isEmpty();
+    }
+
+    @Test
+    void shouldDiscardAnUnreadableResult() throws Exception {
+        cache.put("fingerprint", "key", parseResult);
+        File file = cacheDir.listFiles()[0];
+        FileUtils.writeStringToFile(file, "not gzipped", "UTF-8");
+
+        assertThat(cache.get("fingerprint", "key")).isNull();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void shouldDropResultsOfConfigReposWhichAreNoLongerConfigured() {
+        ConfigRepoConfig configRepo = ConfigRepoConfig.createConfigRepoConfig(git("http://my.git"), "myplugin", "id");
+        String fingerprint = configRepo.getRepo().getFingerprint();
+        cache.put(fingerprint, "key", parseResult);
+        cache.put("removed-fingerprint", "key", parseResult);
+
+        cache.onChangedRepoConfigWatchList(new ConfigReposConfig(configRepo));
+
+        assertThat(cache.get(fingerprint, "key")).isNotNull();
+        assertThat(cache.get("removed-fingerprint", "key")).isNull();
+        assertThat(cacheDir.list()).hasSize(1);
+    }
+}
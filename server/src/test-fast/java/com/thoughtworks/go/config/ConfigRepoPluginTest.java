@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.domain.config.Configuration;
+import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoExtension;
+import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
+import com.thoughtworks.go.plugin.configrepo.contract.CREnvironment;
+import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
+import com.thoughtworks.go.plugin.configrepo.contract.ErrorCollection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ConfigRepoPluginTest {
+    @TempDir
+    File cacheDir;
+    private ConfigRepoExtension extension;
+    private ConfigConverter configConverter;
+    private PluginDescriptor descriptor;
+    private ConfigRepoPlugin plugin;
+    private File checkoutDir = new File("checkout");
+
+    @BeforeEach
+    void setUp() {
+        extension = mock(ConfigRepoExtension.class);
+        configConverter = mock(ConfigConverter.class);
+        descriptor = mock(PluginDescriptor.class);
+        when(descriptor.version()).thenReturn("1");
+        when(extension.pluginDescriptorFor("plugin-id")).thenReturn(descriptor);
+        when(extension.parseDirectory(eq("plugin-id"), anyString(), any()))
+                .thenReturn(new CRParseResult(Collections.singletonList(new CREnvironment("UAT")), new ArrayList<>(), new ErrorCollection()));
+        plugin = new ConfigRepoPlugin(configConverter, extension, "plugin-id", new ConfigRepoParseResultCache(cacheDir, true));
+    }
+
+    @Test
+    void shouldNotAskThePluginAgainToParseARevisionItHasAlreadyParsed() {
+        plugin.load(checkoutDir, contextFor("rev1"));
+        plugin.load(checkoutDir, contextFor("rev1"));
+
+        verify(extension, times(1)).parseDirectory(eq("plugin-id"), anyString(), any());
+        verify(configConverter, times(2)).toPartialConfig(any(CRParseResult.class), any(PartialConfigLoadContext.class));
+    }
+
+    @Test
+    void shouldAskThePluginToParseANewRevision() {
+        plugin.load(checkoutDir, contextFor("rev1"));
+        plugin.load(checkoutDir, contextFor("rev2"));
+
+        verify(extension, times(2)).parseDirectory(eq("plugin-id"), anyString(), any());
+    }
+
+    @Test
+    void shouldAskThePluginToParseAgainOnceThePluginIsUpgraded() {
+        plugin.load(checkoutDir, contextFor("rev1"));
+        when(descriptor.version()).thenReturn("2");
+        plugin.load(checkoutDir, contextFor("rev1"));
+
+        verify(extension, times(2)).parseDirectory(eq("plugin-id"), anyString(), any());
+    }
+
+    @Test
+    void shouldNotCacheContentWhichIsNotACheckoutOfARevision() {
+        plugin.load(checkoutDir, contextFor(null));
+        plugin.load(checkoutDir, contextFor(null));
+
+        verify(extension, times(2)).parseDirectory(eq("plugin-id"), anyString(), any());
+    }
+
+    private PartialConfigLoadContext contextFor(String revision) {
+        PartialConfigLoadContext context = mock(PartialConfigLoadContext.class);
+        when(context.configuration()).thenReturn(new Configuration());
+        when(context.configMaterial()).thenReturn(git("http://my.git"));
+        when(context.revision()).thenReturn(revision);
+        return context;
+    }
+}
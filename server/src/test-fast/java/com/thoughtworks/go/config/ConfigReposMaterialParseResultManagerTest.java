@@ -39,6 +39,7 @@ import org.mockito.Mock;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
 import static com.thoughtworks.go.config.ConfigReposMaterialParseResultManager.ConfigRepoReparseListener;
 import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
@@ -253,6 +254,25 @@ class ConfigReposMaterialParseResultManagerTest {
         assertThat(listenerArgumentCaptor.getValue()).isInstanceOf(ConfigRepoReparseListener.class);
     }
 
+    @Test
+    void shouldReportParseProgressAndParseTimesPerPlugin() {
+        manager.parseQueued();
+        manager.parseQueued();
+        manager.parseStarted();
+        manager.parseFinished();
+        manager.parseStarted();
+        manager.recordParseTime("yaml", 200);
+        manager.recordParseTime("yaml", 7000);
+        manager.recordParseTime("json", 60000);
+
+        Map<String, Object> statistics = manager.parseStatistics();
+
+        assertThat(statistics).containsEntry("Waiting", 0).containsEntry("Running", 1).containsEntry("Completed", 1L);
+        Map<String, Map<String, Long>> parseTimes = (Map<String, Map<String, Long>>) statistics.get("Parse times by plugin");
+        assertThat(parseTimes.get("yaml")).containsEntry("Under 1s", 1L).containsEntry("5s to 15s", 1L).containsEntry("Over 1m", 0L);
+        assertThat(parseTimes.get("json")).containsEntry("Over 1m", 1L).containsEntry("15s to 1m", 0L);
+    }
+
     @Nested
     class ConfigRepoReparseListenerTest {
         @ParameterizedTest
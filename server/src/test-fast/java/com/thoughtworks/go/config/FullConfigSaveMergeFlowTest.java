@@ -174,7 +174,7 @@ public class FullConfigSaveMergeFlowTest {
         when(timeProvider.currentTime()).thenReturn(currentTime);
         when(loader.loadConfigHolder(nullable(String.class), any(MagicalGoConfigXmlLoader.Callback.class)))
                 .thenReturn(new GoConfigHolder(new BasicCruiseConfig(), new BasicCruiseConfig()));
-        doNothing().when(configRepository).checkin(revisionArgumentCaptor.capture());
+        doNothing().when(configRepository).checkinLater(revisionArgumentCaptor.capture());
 
         flow.execute(updateConfigCommand, partials, "test_user");
 
@@ -197,7 +197,7 @@ public class FullConfigSaveMergeFlowTest {
 
         flow.execute(updateConfigCommand, partials, null);
 
-        inOrder.verify(configRepository).checkin(any(GoConfigRevision.class));
+        inOrder.verify(configRepository).checkinLater(any(GoConfigRevision.class));
         inOrder.verify(fileWriter).writeToConfigXmlFile(any(String.class));
         inOrder.verify(cachedGoPartials).markAsValid(partials);
     }
@@ -112,7 +112,7 @@ public class FullConfigSaveNormalFlowTest {
 
         when(writer.toString(document)).thenReturn(configAsXml);
         when(timeProvider.currentTime()).thenReturn(currentTime);
-        doNothing().when(configRepository).checkin(revisionArgumentCaptor.capture());
+        doNothing().when(configRepository).checkinLater(revisionArgumentCaptor.capture());
 
         flow.execute(updateConfigCommand, partials, "test_user");
 
@@ -134,7 +134,7 @@ public class FullConfigSaveNormalFlowTest {
 
         flow.execute(updateConfigCommand, partials, null);
 
-        inOrder.verify(configRepository).checkin(any(GoConfigRevision.class));
+        inOrder.verify(configRepository).checkinLater(any(GoConfigRevision.class));
         inOrder.verify(fileWriter).writeToConfigXmlFile(any(String.class));
         inOrder.verify(cachedGoPartials).markAsValid(partials);
     }
@@ -37,6 +37,7 @@ import org.junit.Test;
 import java.io.File;
 
 import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -87,6 +88,20 @@ public class GoRepoConfigDataSourceTest {
         verify(plugin, times(1)).load(eq(folder), any(PartialConfigLoadContext.class));
     }
 
+    @Test
+    public void shouldParseRightAwayAndThenCallBackWhenParseThreadsAreTurnedOff() {
+        ScmMaterialConfig material = git("http://my.git");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id")));
+        configWatchList.onConfigChange(cruiseConfig);
+        Runnable whenDone = mock(Runnable.class);
+
+        repoConfigDataSource.parseLater(material, folder, getModificationFor("7a8f"), whenDone);
+
+        verify(plugin, times(1)).load(eq(folder), any(PartialConfigLoadContext.class));
+        verify(whenDone).run();
+        assertThat(repoConfigDataSource.parseStatistics().get("Parse times by plugin").toString(), containsString("myplugin"));
+    }
+
     @Test
     public void shouldAssignConfigOrigin() throws Exception {
         ScmMaterialConfig material = git("http://my.git");
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.server.service.ConfigRepoService;
+import com.thoughtworks.go.serverhealth.ServerHealthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PartialConfigParseExecutorTest {
+    private LinkedList<Runnable> started;
+    private List<String> parsed;
+    private List<String> completed;
+    private ConfigReposMaterialParseResultManager parseResultManager;
+
+    @BeforeEach
+    void setUp() {
+        started = new LinkedList<>();
+        parsed = new ArrayList<>();
+        completed = new ArrayList<>();
+        parseResultManager = new ConfigReposMaterialParseResultManager(mock(ServerHealthService.class), mock(ConfigRepoService.class));
+    }
+
+    @Test
+    void shouldLimitParsesRunningAtOnceForAPlugin() {
+        PartialConfigParseExecutor executor = executor(4, 1);
+
+        submit(executor, "repo1", "yaml", "repo1");
+        submit(executor, "repo2", "yaml", "repo2");
+        submit(executor, "repo3", "json", "repo3");
+
+        assertThat(started).hasSize(2);
+        runStarted();
+        runStarted();
+        assertThat(parsed).containsExactly("repo1", "repo3");
+        assertThat(started).hasSize(1);
+        runStarted();
+        assertThat(parsed).containsExactly("repo1", "repo3", "repo2");
+    }
+
+    @Test
+    void shouldLimitParsesRunningAtOnceToTheNumberOfThreads() {
+        PartialConfigParseExecutor executor = executor(1, 0);
+
+        submit(executor, "repo1", "yaml", "repo1");
+        submit(executor, "repo2", "json", "repo2");
+
+        assertThat(started).hasSize(1);
+        assertThat(parseResultManager.parseStatistics()).containsEntry("Waiting", 1).containsEntry("Running", 1);
+        runStarted();
+        runStarted();
+        assertThat(parsed).containsExactly("repo1", "repo2");
+        assertThat(parseResultManager.parseStatistics()).containsEntry("Waiting", 0).containsEntry("Running", 0).containsEntry("Completed", 2L);
+    }
+
+    @Test
+    void shouldFoldAParseIntoTheWaitingParseOfTheSameRepo() {
+        PartialConfigParseExecutor executor = executor(1, 0);
+
+        submit(executor, "repo1", "yaml", "repo1");
+        submit(executor, "repo2", "yaml", "repo2@r1");
+        submit(executor, "repo2", "yaml", "repo2@r2");
+        runStarted();
+        runStarted();
+
+        assertThat(parsed).containsExactly("repo1", "repo2@r2");
+        assertThat(completed).containsExactly("repo1", "repo2@r1", "repo2@r2");
+        assertThat(started).isEmpty();
+    }
+
+    @Test
+    void shouldNotParseARepoWhileItIsAlreadyBeingParsed() {
+        PartialConfigParseExecutor executor = executor(2, 0);
+
+        submit(executor, "repo1", "yaml", "repo1@r1");
+        submit(executor, "repo1", "yaml", "repo1@r2");
+
+        assertThat(started).hasSize(1);
+        runStarted();
+        assertThat(started).hasSize(1);
+        runStarted();
+        assertThat(parsed).containsExactly("repo1@r1", "repo1@r2");
+    }
+
+    @Test
+    void shouldReportCompletionEvenWhenParseFails() {
+        PartialConfigParseExecutor executor = executor(1, 0);
+
+        executor.submit("repo1", "yaml", () -> {
+            throw new RuntimeException("boom");
+        }, () -> completed.add("repo1"));
+        runStarted();
+
+        assertThat(completed).containsExactly("repo1");
+    }
+
+    private PartialConfigParseExecutor executor(int threads, int parsesPerPlugin) {
+        return new PartialConfigParseExecutor(threads, parsesPerPlugin, started::add, parseResultManager);
+    }
+
+    private void submit(PartialConfigParseExecutor executor, String fingerprint, String pluginId, String parse) {
+        executor.submit(fingerprint, pluginId, () -> parsed.add(parse), () -> completed.add(parse));
+    }
+
+    private void runStarted() {
+        started.removeFirst().run();
+    }
+}
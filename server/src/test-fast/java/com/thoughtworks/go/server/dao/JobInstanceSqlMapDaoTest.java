@@ -15,7 +15,6 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.server.cache.GoCache;
@@ -45,8 +44,6 @@ import static org.mockito.MockitoAnnotations.initMocks;
 class JobInstanceSqlMapDaoTest {
     private JobInstanceSqlMapDao jobInstanceSqlMapDao;
     @Mock
-    private Cache cache;
-    @Mock
     private TransactionSynchronizationManager transactionSynchronizationManager;
     private GoCache goCache;
     @Mock
@@ -71,7 +68,7 @@ class JobInstanceSqlMapDaoTest {
         initMocks(this);
         goCache = new StubGoCache(new TestTransactionSynchronizationManager());
         jobInstanceSqlMapDao = new JobInstanceSqlMapDao(environmentVariableDao, goCache, transactionTemplate, null,
-                cache, transactionSynchronizationManager, systemEnvironment, null, resourceRepository,
+                transactionSynchronizationManager, systemEnvironment, null, resourceRepository,
                 artifactPlanRepository, clusterProfileService, jobAgentMetadataDao);
         jobInstanceSqlMapDao.setSqlMapClientTemplate(template);
     }
@@ -16,7 +16,6 @@
 package com.thoughtworks.go.server.dashboard;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
-import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineTemplateConfig;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.GoDashboardService;
@@ -45,13 +44,11 @@ public class GoDashboardTemplateConfigChangeHandlerTest {
 
     @Test
     public void shouldRefreshAllPipelinesAssociatedWithATemplateInCacheWhenATemplateChanges() throws Exception {
-        CruiseConfig cruiseConfig = mock(CruiseConfig.class);
         PipelineTemplateConfig templateConfig = new PipelineTemplateConfig(new CaseInsensitiveString("template1"));
         CaseInsensitiveString pipeline1 = new CaseInsensitiveString("p1");
         CaseInsensitiveString pipeline2 = new CaseInsensitiveString("p2");
 
-        when(goConfigService.currentCruiseConfig()).thenReturn(cruiseConfig);
-        when(cruiseConfig.pipelinesAssociatedWithTemplate(templateConfig.name())).thenReturn(a(pipeline1, pipeline2));
+        when(goConfigService.pipelinesAssociatedWithTemplate(templateConfig.name())).thenReturn(a(pipeline1, pipeline2));
 
         handler.call(templateConfig);
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.JobInstance;
+import com.thoughtworks.go.domain.JobResult;
+import com.thoughtworks.go.helper.JobInstanceMother;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobDurationStatisticsTest {
+    private JobDurationStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new JobDurationStatistics(5, 2);
+    }
+
+    @Test
+    void shouldRememberDurationOfLastSuccessfulRunOnAgent() {
+        statistics.record("up42", "build", completed("unit", JobResult.Passed, "agent-1", 30));
+        statistics.record("up42", "build", completed("unit", JobResult.Passed, "agent-1", 45));
+
+        Long duration = statistics.lastSuccessfulOnAgent("up42", "build", job("unit", "agent-1"), () -> {
+            throw new AssertionError("should not load from the database");
+        });
+
+        assertThat(duration).isEqualTo(45L);
+    }
+
+    @Test
+    void shouldIgnoreJobsThatDidNotPass() {
+        statistics.record("up42", "build", completed("unit", JobResult.Failed, "agent-1", 30));
+        statistics.record("up42", "build", completed("unit", JobResult.Cancelled, "agent-1", 30));
+
+        assertThat(statistics.percentile("up42", "build", "unit", 50)).isNull();
+    }
+
+    @Test
+    void shouldLoadAndRememberDurationOnFirstLookupForAnAgent() {
+        AtomicInteger loads = new AtomicInteger();
+
+        statistics.lastSuccessfulOnAgent("up42", "build", job("unit", "agent-1"), () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Long duration = statistics.lastSuccessfulOnAgent("up42", "build", job("unit", "agent-1"), () -> {
+            loads.incrementAndGet();
+            return 10L;
+        });
+
+        assertThat(duration).isNull();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldForgetLeastRecentlyUsedAgentDurationsBeyondTheLimit() {
+        AtomicInteger loads = new AtomicInteger();
+        for (String agent : new String[]{"agent-1", "agent-2", "agent-1", "agent-3", "agent-1", "agent-2"}) {
+            statistics.lastSuccessfulOnAgent("up42", "build", job("unit", agent), () -> {
+                loads.incrementAndGet();
+                return null;
+            });
+        }
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldSeedWindowWithLoadedDuration() {
+        statistics.lastSuccessfulOnAgent("up42", "build", job("unit", "agent-1"), () -> 20L);
+
+        assertThat(statistics.percentile("up42", "build", "unit", 90)).isEqualTo(20L);
+    }
+
+    @Test
+    void shouldComputePercentilesOverTheRollingWindowAcrossAgents() {
+        for (int seconds : new int[]{1000, 10, 20, 30, 40, 50}) {
+            statistics.record("up42", "build", completed("unit", JobResult.Passed, "agent-" + seconds, seconds));
+        }
+
+        assertThat(statistics.percentile("up42", "build", "unit", 50)).isEqualTo(30L);
+        assertThat(statistics.percentile("up42", "build", "unit", 90)).isEqualTo(50L);
+        assertThat(statistics.percentile("up42", "build", "unit", 100)).isEqualTo(50L);
+    }
+
+    @Test
+    void shouldTreatNamesCaseInsensitivelyForPercentiles() {
+        statistics.record("UP42", "Build", completed("Unit", JobResult.Passed, "agent-1", 30));
+
+        assertThat(statistics.percentile("up42", "build", "unit", 50)).isEqualTo(30L);
+    }
+
+    @Test
+    void shouldRejectInvalidPercentiles() {
+        assertThatThrownBy(() -> statistics.percentile("up42", "build", "unit", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> statistics.percentile("up42", "build", "unit", 101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private JobInstance completed(String jobName, JobResult result, String agentUuid, int durationInSeconds) {
+        Date startedBuilding = new Date(1_000_000L);
+        JobInstance job = JobInstanceMother.completed(jobName, result, new Date(startedBuilding.getTime() + durationInSeconds * 1000L), startedBuilding);
+        job.setAgentUuid(agentUuid);
+        return job;
+    }
+
+    private JobInstance job(String jobName, String agentUuid) {
+        JobInstance job = JobInstanceMother.building(jobName);
+        job.setAgentUuid(agentUuid);
+        return job;
+    }
+}
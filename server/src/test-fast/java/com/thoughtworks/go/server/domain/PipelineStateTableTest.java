@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.domain.PipelinePauseInfo;
+import com.thoughtworks.go.domain.PipelineState;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.StageIdentifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineStateTableTest {
+    private PipelineStateTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new PipelineStateTable();
+    }
+
+    @Test
+    void shouldLoadLockStateOnlyOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<PipelineState> loader = () -> {
+            loads.incrementAndGet();
+            return lockedBy(new StageIdentifier("up42", 1, "1", "build", "1"));
+        };
+
+        assertThat(table.isLocked("up42", loader)).isTrue();
+        assertThat(table.isLocked("UP42", loader)).isTrue();
+        assertThat(table.lockedBy("up42", loader)).isEqualTo(new StageIdentifier("up42", 1, "1", "build", "1"));
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLoadLockStateOnceItIsKnown() {
+        table.unlocked("up42");
+
+        assertThat(table.isLocked("up42", () -> {
+            throw new AssertionError("should not load from the database");
+        })).isFalse();
+    }
+
+    @Test
+    void shouldLookUpLockHolderAgainWhenAStageOfThePipelineChanges() {
+        table.locked("up42");
+        assertThat(table.lockedBy("up42", () -> lockedBy(new StageIdentifier("up42", 1, "1", "build", "1")))).isEqualTo(new StageIdentifier("up42", 1, "1", "build", "1"));
+
+        Stage stage = new Stage();
+        stage.setIdentifier(new StageIdentifier("up42", 1, "1", "test", "1"));
+        table.stageStatusChanged(stage);
+
+        assertThat(table.isLocked("up42", () -> {
+            throw new AssertionError("lock state should still be known");
+        })).isTrue();
+        assertThat(table.lockedBy("up42", () -> lockedBy(new StageIdentifier("up42", 1, "1", "test", "1")))).isEqualTo(new StageIdentifier("up42", 1, "1", "test", "1"));
+    }
+
+    @Test
+    void shouldNotOverwriteAKnownLockStateWithAnOlderLoad() {
+        table.isLocked("up42", () -> {
+            table.locked("up42");
+            return null;
+        });
+
+        assertThat(table.isLocked("up42", () -> null)).isTrue();
+    }
+
+    @Test
+    void shouldTreatMissingPauseInfoAsNotPaused() {
+        assertThat(table.pauseInfo("up42", () -> null)).isEqualTo(PipelinePauseInfo.notPaused());
+    }
+
+    @Test
+    void shouldRememberPauseInfo() {
+        table.pauseInfoChanged("up42", PipelinePauseInfo.paused("cause", "admin"));
+
+        assertThat(table.pauseInfo("Up42", () -> {
+            throw new AssertionError("should not load from the database");
+        })).isEqualTo(PipelinePauseInfo.paused("cause", "admin"));
+    }
+
+    @Test
+    void shouldMarkPipelineAsTriggeringOnlyOnce() {
+        CaseInsensitiveString pipelineName = new CaseInsensitiveString("up42");
+
+        assertThat(table.markTriggering(pipelineName)).isTrue();
+        assertThat(table.markTriggering(pipelineName)).isFalse();
+        assertThat(table.isTriggering(pipelineName)).isTrue();
+
+        table.clearTriggering(pipelineName);
+
+        assertThat(table.isTriggering(pipelineName)).isFalse();
+    }
+
+    @Test
+    void shouldForgetPipelinesWhichAreNoLongerInConfig() {
+        table.locked("up42");
+        table.pauseInfoChanged("deleted", PipelinePauseInfo.paused("cause", "admin"));
+        AtomicInteger loads = new AtomicInteger();
+
+        table.retainOnly(pipelineName -> pipelineName.equals(new CaseInsensitiveString("up42")));
+
+        assertThat(table.isLocked("up42", () -> {
+            throw new AssertionError("should not load from the database");
+        })).isTrue();
+        assertThat(table.pauseInfo("deleted", () -> {
+            loads.incrementAndGet();
+            return PipelinePauseInfo.notPaused();
+        })).isEqualTo(PipelinePauseInfo.notPaused());
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepTheTriggeringMarkOfAForgottenPipelineUntilItIsCleared() {
+        CaseInsensitiveString pipelineName = new CaseInsensitiveString("deleted");
+        table.unlocked("deleted");
+        table.markTriggering(pipelineName);
+
+        table.forget(pipelineName);
+
+        assertThat(table.isTriggering(pipelineName)).isTrue();
+        assertThat(table.isLocked("deleted", () -> lockedBy(new StageIdentifier("deleted", 1, "1", "build", "1")))).isTrue();
+    }
+
+    private PipelineState lockedBy(StageIdentifier stageIdentifier) {
+        PipelineState pipelineState = new PipelineState(stageIdentifier.getPipelineName(), stageIdentifier);
+        pipelineState.lock(1);
+        return pipelineState;
+    }
+}
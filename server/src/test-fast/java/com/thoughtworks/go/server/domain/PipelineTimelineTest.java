@@ -259,6 +259,33 @@ public class PipelineTimelineTest {
         assertThat(timeline.instanceFor(new CaseInsensitiveString("pipeline"), 1), is(second));
     }
 
+    @Test
+    public void shouldSkipEntriesAlreadyAddedByAConcurrentUpdate() {
+        PipelineTimeline timeline = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
+        timeline.addAll(Arrays.asList(first, second));
+
+        PipelineTimelineEntry secondLoadedAgain = PipelineMaterialModificationMother.modification(2, materials, Arrays.asList(now, now.plusMinutes(2), now.plusMinutes(1), now.plusMinutes(2)), 2, "222", "pipeline");
+        List<PipelineTimelineEntry> added = timeline.addAll(Arrays.asList(secondLoadedAgain, third));
+
+        assertThat(added, is(Arrays.asList(third)));
+        assertThat(timeline.instanceCount(new CaseInsensitiveString("pipeline")), is(3));
+        assertThat(secondLoadedAgain.hasBeenUpdated(), is(false));
+        assertThat(timeline.maximumId(), is(3L));
+    }
+
+    @Test
+    public void shouldNotChangeEntriesAlreadyHandedOutToReadersWhenTimelineIsUpdated() {
+        PipelineTimeline timeline = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
+        timeline.add(first);
+        timeline.add(fourth);
+        Collection<PipelineTimelineEntry> entriesBeforeUpdate = timeline.getEntriesFor("pipeline");
+
+        timeline.add(third);
+
+        assertThat(entriesBeforeUpdate.size(), is(2));
+        assertThat(timeline.getEntriesFor("pipeline").size(), is(3));
+    }
+
     private void stubPipelineRepository(final PipelineTimeline timeline, boolean restub, final PipelineTimelineEntry... entries) {
         repositoryEntries = entries;
         if (restub) {
@@ -28,6 +28,7 @@ import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.MaterialService;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.File;
 import java.util.Date;
@@ -63,6 +64,10 @@ public class ConfigMaterialUpdateListenerTest {
         mods = revisions(material, svnModification);
 
         when(materialRepository.findLatestModification(material)).thenReturn(mods);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(3).run();
+            return null;
+        }).when(repoConfigDataSource).parseLater(any(), any(), any(), any());
 
         configUpdater = new ConfigMaterialUpdateListener(repoConfigDataSource, materialRepository, materialChecker,
                 topic, materialService, new TestSubprocessExecutionContext());
@@ -80,6 +85,19 @@ public class ConfigMaterialUpdateListenerTest {
         verify(topic, times(1)).post(message);
     }
 
+    @Test
+    public void shouldPostMaterialUpdateCompletedMessageFurtherOnlyOnceTheParseIsDone() {
+        doNothing().when(repoConfigDataSource).parseLater(any(), any(), any(), any());
+        MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
+        this.configUpdater.onMessage(message);
+
+        verify(topic, never()).post(message);
+        ArgumentCaptor<Runnable> whenDone = ArgumentCaptor.forClass(Runnable.class);
+        verify(repoConfigDataSource).parseLater(eq(material.config()), eq(folder), eq(svnModification), whenDone.capture());
+        whenDone.getValue().run();
+        verify(topic, times(1)).post(message);
+    }
+
     @Test
     public void shouldCheckoutMaterialToASpecificRevision() {
         MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
@@ -94,7 +112,7 @@ public class ConfigMaterialUpdateListenerTest {
         MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
         this.configUpdater.onMessage(message);
 
-        verify(repoConfigDataSource, times(1)).onCheckoutComplete(material.config(), folder, svnModification);
+        verify(repoConfigDataSource, times(1)).parseLater(eq(material.config()), eq(folder), eq(svnModification), any(Runnable.class));
         verify(topic, times(1)).post(message);
     }
 
@@ -103,7 +121,7 @@ public class ConfigMaterialUpdateListenerTest {
         MaterialUpdateFailedMessage message = new MaterialUpdateFailedMessage(material, 123, new RuntimeException("bla"));
         this.configUpdater.onMessage(message);
 
-        verify(repoConfigDataSource, times(0)).onCheckoutComplete(material.config(), folder, getModificationFor("1"));
+        verify(repoConfigDataSource, times(0)).parseLater(eq(material.config()), eq(folder), eq(getModificationFor("1")), any(Runnable.class));
         verify(topic, times(1)).post(message);
     }
 
@@ -115,7 +133,7 @@ public class ConfigMaterialUpdateListenerTest {
         MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
         this.configUpdater.onMessage(message);
 
-        verify(repoConfigDataSource, times(0)).onCheckoutComplete(material.config(), folder, getModificationFor("1"));
+        verify(repoConfigDataSource, times(0)).parseLater(eq(material.config()), eq(folder), eq(getModificationFor("1")), any(Runnable.class));
         // but pass message further anyway
         verify(topic, times(1)).post(message);
     }
@@ -132,7 +150,7 @@ public class ConfigMaterialUpdateListenerTest {
         MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
         this.configUpdater.onMessage(message);
 
-        verify(repoConfigDataSource, times(1)).onCheckoutComplete(material.config(), folder, svnModification);
+        verify(repoConfigDataSource, times(1)).parseLater(eq(material.config()), eq(folder), eq(svnModification), any(Runnable.class));
         verify(topic, times(1)).post(message);
     }
 
@@ -149,7 +167,7 @@ public class ConfigMaterialUpdateListenerTest {
         MaterialUpdateSuccessfulMessage message = new MaterialUpdateSuccessfulMessage(material, 123);
         this.configUpdater.onMessage(message);
 
-        verify(repoConfigDataSource).onCheckoutComplete(material.config(), folder, modification);
+        verify(repoConfigDataSource).parseLater(eq(material.config()), eq(folder), eq(modification), any(Runnable.class));
         verify(topic, times(1)).post(message);
     }
 
@@ -26,6 +26,7 @@ import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -42,6 +43,8 @@ public class DependencyMaterialUpdateNotifierTest {
     private MaterialConfigConverter materialConfigConverter;
     private MaterialUpdateService materialUpdateService;
     private ServerHealthService serverHealthService;
+    private MaterialDatabaseUpdater materialDatabaseUpdater;
+    private SystemEnvironment systemEnvironment;
     private Material dependencyMaterial = MaterialsMother.dependencyMaterial();
 
     @Before
@@ -50,12 +53,15 @@ public class DependencyMaterialUpdateNotifierTest {
         materialConfigConverter = mock(MaterialConfigConverter.class);
         materialUpdateService = mock(MaterialUpdateService.class);
         serverHealthService = mock(ServerHealthService.class);
+        materialDatabaseUpdater = mock(MaterialDatabaseUpdater.class);
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(SystemEnvironment.DEPENDENCY_MATERIAL_REVISION_ON_STAGE_PASS)).thenReturn(true);
     }
 
     @Test
     public void shouldListenToConfigChange() {
         EntityConfigChangedListener entityConfigChangedListener = mock(EntityConfigChangedListener.class);
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier = spy(notifier);
 
         when(notifier.pipelineConfigChangedListener()).thenReturn(entityConfigChangedListener);
@@ -68,7 +74,7 @@ public class DependencyMaterialUpdateNotifierTest {
 
     @Test
     public void shouldListenToMaterialUpdateMessage() {
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
 
         notifier.initialize();
 
@@ -77,7 +83,7 @@ public class DependencyMaterialUpdateNotifierTest {
 
     @Test
     public void configLoadShouldScheduleAllDependencyMaterialsForUpdateThrough_onConfigChangeCallback() {
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         Set<DependencyMaterialConfig> schedulableMaterialConfigs = new HashSet<>(Arrays.asList((DependencyMaterialConfig) dependencyMaterial.config()));
@@ -96,7 +102,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
         when(materialConfigConverter.toMaterial(dependencyMaterialForP1S1.config())).thenReturn(dependencyMaterialForP1S1);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         DependencyMaterial dependencyMaterialForP2S2 = MaterialsMother.dependencyMaterial("p2", "s2");
@@ -115,7 +121,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         notifier.onConfigChange(mock(CruiseConfig.class));
@@ -133,7 +139,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         notifier.stageStatusChanged(stage);
@@ -143,7 +149,7 @@ public class DependencyMaterialUpdateNotifierTest {
 
     @Test
     public void shouldDoNothingOnStageChangeIfStageDoesNotRepresentADependencyMaterial() {
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         Stage pipeline2Stage2 = StageMother.passedStageInstance("Stage2", "plan", "Pipeline2");
@@ -161,7 +167,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         notifier.stageStatusChanged(stage);
@@ -180,7 +186,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
         when(materialUpdateService.updateMaterial(dependencyMaterial)).thenReturn(true, false);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         notifier.stageStatusChanged(stage);
@@ -200,7 +206,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
         when(materialUpdateService.updateMaterial(dependencyMaterial)).thenThrow(new RuntimeException("some error")).thenReturn(true);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.initialize();
 
         notifier.onMaterialUpdate(dependencyMaterial);
@@ -217,7 +223,7 @@ public class DependencyMaterialUpdateNotifierTest {
         when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
         when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
 
-        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService);
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
         notifier.disableUpdates();
         notifier.initialize();
 
@@ -225,4 +231,64 @@ public class DependencyMaterialUpdateNotifierTest {
 
         verify(materialUpdateService, never()).updateMaterial(dependencyMaterial);
     }
+
+    @Test
+    public void shouldRecordPassedStageAsRevisionOfTheMaterialOnceStarted() throws Exception {
+        Stage stage = StageMother.passedStageInstance("Stage1", "plan", "Pipeline1");
+        DependencyMaterial dependencyMaterial = MaterialsMother.dependencyMaterial(stage.getIdentifier().getPipelineName(), stage.getName());
+        Set<DependencyMaterialConfig> schedulableMaterialConfigs = new HashSet<>(Arrays.asList((DependencyMaterialConfig) dependencyMaterial.config()));
+
+        when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
+        when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
+        when(materialDatabaseUpdater.insertRevisionForPassedStage(dependencyMaterial, stage)).thenReturn(true);
+
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
+        notifier.initialize();
+        notifier.startDaemon();
+
+        notifier.stageStatusChanged(stage);
+
+        verify(materialDatabaseUpdater, timeout(5000)).insertRevisionForPassedStage(dependencyMaterial, stage);
+        //updated only during initialization
+        verify(materialUpdateService, times(1)).updateMaterial(dependencyMaterial);
+    }
+
+    @Test
+    public void shouldUpdateMaterialWhenPassedStageCannotBeRecordedAsItsRevision() throws Exception {
+        Stage stage = StageMother.passedStageInstance("Stage1", "plan", "Pipeline1");
+        DependencyMaterial dependencyMaterial = MaterialsMother.dependencyMaterial(stage.getIdentifier().getPipelineName(), stage.getName());
+        Set<DependencyMaterialConfig> schedulableMaterialConfigs = new HashSet<>(Arrays.asList((DependencyMaterialConfig) dependencyMaterial.config()));
+
+        when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
+        when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
+        when(materialDatabaseUpdater.insertRevisionForPassedStage(dependencyMaterial, stage)).thenReturn(false);
+
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
+        notifier.initialize();
+        notifier.startDaemon();
+
+        notifier.stageStatusChanged(stage);
+
+        verify(materialUpdateService, timeout(5000).times(2)).updateMaterial(dependencyMaterial);
+    }
+
+    @Test
+    public void shouldUpdateMaterialOnStageChangeWhenRecordingRevisionsOnStagePassIsTurnedOff() throws Exception {
+        Stage stage = StageMother.passedStageInstance("Stage1", "plan", "Pipeline1");
+        DependencyMaterial dependencyMaterial = MaterialsMother.dependencyMaterial(stage.getIdentifier().getPipelineName(), stage.getName());
+        Set<DependencyMaterialConfig> schedulableMaterialConfigs = new HashSet<>(Arrays.asList((DependencyMaterialConfig) dependencyMaterial.config()));
+
+        when(goConfigService.getSchedulableDependencyMaterials()).thenReturn(schedulableMaterialConfigs);
+        when(materialConfigConverter.toMaterial(dependencyMaterial.config())).thenReturn(dependencyMaterial);
+        when(systemEnvironment.get(SystemEnvironment.DEPENDENCY_MATERIAL_REVISION_ON_STAGE_PASS)).thenReturn(false);
+
+        notifier = new DependencyMaterialUpdateNotifier(goConfigService, materialConfigConverter, materialUpdateService, serverHealthService, materialDatabaseUpdater, systemEnvironment);
+        notifier.initialize();
+        notifier.startDaemon();
+
+        notifier.stageStatusChanged(stage);
+
+        verify(materialUpdateService, times(2)).updateMaterial(dependencyMaterial);
+        verify(materialDatabaseUpdater, never()).insertRevisionForPassedStage(any(DependencyMaterial.class), any(Stage.class));
+    }
 }
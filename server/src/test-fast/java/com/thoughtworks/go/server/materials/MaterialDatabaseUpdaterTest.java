@@ -16,12 +16,17 @@
 package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.materials.dependency.DependencyMaterial;
 import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.helper.MaterialsMother;
+import com.thoughtworks.go.helper.StageMother;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
+import com.thoughtworks.go.server.transaction.TransactionCallback;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
@@ -36,8 +41,8 @@ import java.util.Collections;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class MaterialDatabaseUpdaterTest {
@@ -103,4 +108,33 @@ public class MaterialDatabaseUpdaterTest {
 
         verify(healthService).update(ServerHealthState.errorWithHtml(message, "Unknown error", HealthStateType.general(HealthStateScope.forMaterial(material))));
     }
+
+    @Test
+    public void shouldRecordPassedStageAsRevisionOfADependencyMaterialWhichHasBeenUpdatedBefore() throws Exception {
+        Stage stage = StageMother.passedStageInstance("stage", "job", "pipeline");
+        DependencyMaterial material = MaterialsMother.dependencyMaterial("pipeline", "stage");
+        when(materialRepository.findMaterialInstance(material)).thenReturn(mock(MaterialInstance.class));
+        runTransactionCallbacks();
+
+        assertThat(materialDatabaseUpdater.insertRevisionForPassedStage(material, stage), is(true));
+
+        verify(dependencyMaterialUpdater).insertRevisionForPassedStage(material, stage);
+    }
+
+    @Test
+    public void shouldNotRecordPassedStageAsRevisionOfADependencyMaterialWhichHasNeverBeenUpdated() throws Exception {
+        Stage stage = StageMother.passedStageInstance("stage", "job", "pipeline");
+        DependencyMaterial material = MaterialsMother.dependencyMaterial("pipeline", "stage");
+        when(materialRepository.findMaterialInstance(material)).thenReturn(null);
+        runTransactionCallbacks();
+
+        assertThat(materialDatabaseUpdater.insertRevisionForPassedStage(material, stage), is(false));
+
+        verify(dependencyMaterialUpdater, never()).insertRevisionForPassedStage(material, stage);
+    }
+
+    private void runTransactionCallbacks() throws Exception {
+        when(transactionTemplate.executeWithExceptionHandling(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> ((TransactionCallback) invocation.getArgument(0)).doInTransaction(null));
+    }
 }
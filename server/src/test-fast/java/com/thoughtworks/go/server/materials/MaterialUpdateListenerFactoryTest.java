@@ -106,4 +106,20 @@ public class MaterialUpdateListenerFactoryTest {
 
         verify(dependencyMaterialQueue, new Times(noOfDependencyMaterialCheckListeners)).addListener(any(GoMessageListener.class));
     }
+
+    @Test
+    public void shouldCreateReservedPriorityConsumersForEachMaterialQueue() {
+        when(systemEnvironment.getNumberOfPriorityMaterialUpdateListeners()).thenReturn(1);
+
+        MaterialUpdateListenerFactory factory = new MaterialUpdateListenerFactory(topic, queue, configQueue,
+                materialRepository, systemEnvironment, healthService, diskSpaceMonitor,
+                transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater,
+                packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, mduPerformanceLogger,
+                dependencyMaterialQueue, maintenanceModeService, configMaterialPostUpdateQueue, goConfigService);
+        factory.init();
+
+        verify(queue, new Times(1)).addPriorityListener(any(GoMessageListener.class));
+        verify(configQueue, new Times(1)).addPriorityListener(any(GoMessageListener.class));
+        verify(dependencyMaterialQueue, new Times(1)).addPriorityListener(any(GoMessageListener.class));
+    }
 }
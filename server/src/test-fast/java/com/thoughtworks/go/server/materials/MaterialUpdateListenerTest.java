@@ -18,16 +18,22 @@ package com.thoughtworks.go.server.materials;
 import com.thoughtworks.go.config.materials.svn.SvnMaterial;
 import com.thoughtworks.go.helper.MaterialsMother;
 import com.thoughtworks.go.server.cronjob.GoDiskSpaceMonitor;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.MessageSender;
+import com.thoughtworks.go.server.messaging.MessagingService;
 import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.MaintenanceModeService;
 import com.thoughtworks.go.server.transaction.TransactionCallback;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
 public class MaterialUpdateListenerTest {
@@ -65,6 +71,73 @@ public class MaterialUpdateListenerTest {
         verifyZeroInteractions(updater);
     }
 
+    @Test
+    public void shouldParkMaterialWithoutWaitingWhenAllWorkersAllowedForItsHostAreBusy() {
+        MaterialUpdateQueue queue = mock(MaterialUpdateQueue.class);
+        MaterialHostWorkers hostWorkers = new MaterialHostWorkers(1);
+        String host = MaterialHost.of(MATERIAL);
+        hostWorkers.tryStart(host, () -> {
+        }, () -> true);
+        materialUpdateListener = new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService, queue, hostWorkers);
+        MaterialUpdateMessage message = new MaterialUpdateMessage(MATERIAL, 0);
+
+        materialUpdateListener.onMessage(message);
+
+        verifyZeroInteractions(updater);
+        verifyZeroInteractions(topic);
+        verify(queue).park(message);
+        verify(queue, never()).unpark(any());
+        assertThat(hostWorkers.waiting(host), is(1));
+
+        hostWorkers.finish(host);
+
+        verify(queue).unpark(message);
+        assertThat(hostWorkers.waiting(host), is(0));
+    }
+
+    @Test
+    public void shouldUpdateAParkedMaterialOnThePriorityLaneWhenItIsTriggeredManually() {
+        MessagingService messaging = mock(MessagingService.class);
+        MessageSender sender = mock(MessageSender.class);
+        MessageSender prioritySender = mock(MessageSender.class);
+        when(messaging.createQueueSender("material-update-required")).thenReturn(sender);
+        when(messaging.createQueueSender("material-update-required-priority")).thenReturn(prioritySender);
+        MaterialUpdateQueue queue = new MaterialUpdateQueue(messaging);
+        MaterialHostWorkers hostWorkers = new MaterialHostWorkers(1);
+        String host = MaterialHost.of(MATERIAL);
+        hostWorkers.tryStart(host, () -> {
+        }, () -> true);
+        queue.addListener(new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService, queue, hostWorkers));
+        ArgumentCaptor<GoMessageListener> captor = ArgumentCaptor.forClass(GoMessageListener.class);
+        verify(messaging).addQueueListener(eq("material-update-required"), captor.capture());
+        GoMessageListener<MaterialUpdateMessage> listener = captor.getValue();
+        MaterialUpdateMessage message = new MaterialUpdateMessage(MATERIAL, 0);
+
+        queue.post(message);
+        listener.onMessage(message);
+        queue.prioritize(new MaterialUpdateMessage(MATERIAL, -1));
+        hostWorkers.finish(host);
+
+        verifyZeroInteractions(updater);
+        verify(prioritySender).sendMessage(message);
+        verify(sender, times(1)).sendMessage(message);
+        assertThat(queue.size(), is(1));
+        assertThat(hostWorkers.waiting(host), is(0));
+    }
+
+    @Test
+    public void shouldReportHostStatisticsWhenWorkersPerHostAreLimited() throws Exception {
+        MaterialUpdateQueue queue = mock(MaterialUpdateQueue.class);
+        MaterialHostWorkers hostWorkers = new MaterialHostWorkers(2);
+        materialUpdateListener = new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService, queue, hostWorkers);
+
+        materialUpdateListener.onMessage(new MaterialUpdateMessage(MATERIAL, 42));
+
+        verify(updater).updateMaterial(MATERIAL);
+        verify(mduPerformanceLogger).hostStatistics(eq(42L), eq(MaterialHost.of(MATERIAL)), eq(0), eq(0), anyLong());
+        verify(queue, never()).post(any());
+    }
+
     @Test
     public void shouldUpdateMaterialOnMessage() throws Exception {
         setupTransactionTemplateStub();
@@ -150,6 +150,13 @@ public class MaterialUpdateServiceTest {
         Mockito.verifyZeroInteractions(queue);
     }
 
+    @Test
+    void shouldTellMaterialSourcesAboutUpdatesRequestedOutsideTheTimer() {
+        service.updateMaterialWithPriority(svnMaterial);
+
+        verify(scmMaterialSource).updateRequested(svnMaterial);
+    }
+
     @Nested
     class updateMaterial {
 
@@ -18,10 +18,14 @@ package com.thoughtworks.go.server.materials;
 import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.config.remote.ConfigRepoConfig;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.helper.MaterialsMother;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
@@ -34,6 +38,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -49,6 +54,7 @@ public class SCMMaterialSourceTest {
     private SystemEnvironment systemEnvironment;
     private MaterialConfigConverter materialConfigConverter;
     private MaterialUpdateService materialUpdateService;
+    private MaterialRepository materialRepository;
     private Material svnMaterial = MaterialsMother.svnMaterial();
     private Material gitMaterial = MaterialsMother.gitMaterial("http://my.repo");
 
@@ -60,7 +66,10 @@ public class SCMMaterialSourceTest {
         materialConfigConverter = mock(MaterialConfigConverter.class);
         materialUpdateService = mock(MaterialUpdateService.class);
 
-        source = new SCMMaterialSource(goConfigService, systemEnvironment, materialConfigConverter, materialUpdateService);
+        materialRepository = mock(MaterialRepository.class);
+        when(materialRepository.findLatestModification(any(Material.class))).thenReturn(new MaterialRevisions());
+
+        source = new SCMMaterialSource(goConfigService, systemEnvironment, materialConfigConverter, materialUpdateService, materialRepository);
     }
 
     @After
@@ -191,6 +200,97 @@ public class SCMMaterialSourceTest {
         assertTrue(materials.contains(gitMaterial));
     }
 
+    @Test
+    public void shouldWaitTwiceAsLongBeforeUpdatingAMaterialWhichHasNotChanged() {
+        long now = DateTimeUtils.currentTimeMillis();
+        schedulable(gitMaterial);
+
+        freezeTime(now);
+        source.onMaterialUpdate(gitMaterial);
+        source.onMaterialUpdate(gitMaterial);
+
+        freezeTime(now + 90000);
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(false));
+
+        freezeTime(now + 120000);
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(true));
+        resetTime();
+    }
+
+    @Test
+    public void shouldNotWaitLongerThanTheMaxIdleIntervalBeforeUpdatingAMaterial() {
+        long now = DateTimeUtils.currentTimeMillis();
+        schedulable(gitMaterial);
+
+        freezeTime(now);
+        for (int i = 0; i < 10; i++) {
+            source.onMaterialUpdate(gitMaterial);
+        }
+
+        freezeTime(now + systemEnvironment.getMaterialUpdateMaxIdleInterval());
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(true));
+        resetTime();
+    }
+
+    @Test
+    public void shouldGoBackToTheIdleIntervalWhenAMaterialChanges() {
+        long now = DateTimeUtils.currentTimeMillis();
+        schedulable(gitMaterial);
+
+        freezeTime(now);
+        source.onMaterialUpdate(gitMaterial);
+        source.onMaterialUpdate(gitMaterial);
+        when(materialRepository.findLatestModification(gitMaterial)).thenReturn(new MaterialRevisions(new MaterialRevision(gitMaterial, new Modification("user", "comment", null, new Date(), "rev-1"))));
+        source.onMaterialUpdate(gitMaterial);
+
+        freezeTime(now + 60000);
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(true));
+        resetTime();
+    }
+
+    @Test
+    public void shouldGoBackToTheIdleIntervalWhenAnUpdateIsRequestedOutsideTheTimer() {
+        long now = DateTimeUtils.currentTimeMillis();
+        schedulable(gitMaterial);
+
+        freezeTime(now);
+        source.onMaterialUpdate(gitMaterial);
+        source.onMaterialUpdate(gitMaterial);
+        source.updateRequested(gitMaterial);
+
+        freezeTime(now + 60000);
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(true));
+        resetTime();
+    }
+
+    @Test
+    public void shouldForgetTheUpdateIntervalOfAMaterialRemovedFromConfig() {
+        long now = DateTimeUtils.currentTimeMillis();
+        schedulable(gitMaterial);
+
+        freezeTime(now);
+        source.onMaterialUpdate(gitMaterial);
+        source.onMaterialUpdate(gitMaterial);
+
+        schedulable(svnMaterial);
+        source.onConfigChange(mock(CruiseConfig.class));
+        schedulable(gitMaterial);
+        source.onConfigChange(mock(CruiseConfig.class));
+
+        freezeTime(now + 60000);
+        assertThat(source.materialsForUpdate().contains(gitMaterial), is(true));
+        resetTime();
+    }
+
+    private void schedulable(Material... materials) {
+        Set<MaterialConfig> schedulableMaterialConfigs = new HashSet<>();
+        for (Material material : materials) {
+            schedulableMaterialConfigs.add(material.config());
+        }
+        when(goConfigService.getSchedulableSCMMaterials()).thenReturn(schedulableMaterialConfigs);
+        when(materialConfigConverter.toMaterials(schedulableMaterialConfigs)).thenReturn(new HashSet<>(Arrays.asList(materials)));
+    }
+
     private void freezeTime(Long millis) {
         DateTimeUtils.setCurrentMillisFixed(millis);
     }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CoalescingMessageQueueTest {
+    private MessagingService messagingService;
+    private MessageSender sender;
+    private KeyedQueue queue;
+    private GoMessageListener<KeyedMessage> listener;
+
+    @Before
+    public void setUp() throws Exception {
+        messagingService = mock(MessagingService.class);
+        sender = mock(MessageSender.class);
+        queueWithListener(mock(GoMessageListener.class));
+    }
+
+    @Test
+    public void shouldSendOnlyOneMessagePerKeyWhileItIsWaitingInTheQueue() {
+        queue.post(new KeyedMessage("up42", 1));
+        queue.post(new KeyedMessage("up42", 2));
+        queue.post(new KeyedMessage("up42", 3));
+        queue.post(new KeyedMessage("down42", 4));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 1));
+        verify(sender).sendMessage(new KeyedMessage("down42", 4));
+        verifyNoMoreInteractions(sender);
+        assertThat(queue.size(), is(2));
+    }
+
+    @Test
+    public void shouldHandTheLatestMergedMessageToTheListener() {
+        List<KeyedMessage> processed = new ArrayList<>();
+        KeyedQueue queue = queueWithListener(processed::add);
+
+        queue.post(new KeyedMessage("up42", 1));
+        queue.post(new KeyedMessage("up42", 2));
+        listener.onMessage(new KeyedMessage("up42", 1));
+
+        assertThat(processed, contains(new KeyedMessage("up42", 2)));
+        assertThat(queue.size(), is(0));
+    }
+
+    @Test
+    public void shouldRunOnceMoreAfterProcessingWhenMessagesArriveForAKeyBeingProcessed() {
+        KeyedQueue queue = queueWithListener(message -> {
+            this.queue.post(new KeyedMessage("up42", 2));
+            this.queue.post(new KeyedMessage("up42", 3));
+        });
+
+        queue.post(new KeyedMessage("up42", 1));
+        listener.onMessage(new KeyedMessage("up42", 1));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 1));
+        verify(sender).sendMessage(new KeyedMessage("up42", 3));
+        verifyNoMoreInteractions(sender);
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test
+    public void shouldAcceptNewMessagesForAKeyOnceItHasBeenProcessedEvenIfTheListenerFails() {
+        KeyedQueue queue = queueWithListener(message -> {
+            throw new RuntimeException("boom");
+        });
+        queue.post(new KeyedMessage("up42", 1));
+
+        try {
+            listener.onMessage(new KeyedMessage("up42", 1));
+        } catch (RuntimeException expected) {
+        }
+        queue.post(new KeyedMessage("up42", 2));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 1));
+        verify(sender).sendMessage(new KeyedMessage("up42", 2));
+    }
+
+    @Test
+    public void shouldSendPriorityMessagesOnThePriorityQueue() {
+        MessageSender prioritySender = mock(MessageSender.class);
+        when(messagingService.createQueueSender("keyed-priority")).thenReturn(prioritySender);
+
+        queue.postWithPriority(new KeyedMessage("up42", 1));
+        queue.postWithPriority(new KeyedMessage("up42", 2));
+
+        verify(prioritySender).sendMessage(new KeyedMessage("up42", 1));
+        verifyNoMoreInteractions(prioritySender);
+        verifyZeroInteractions(sender);
+    }
+
+    @Test
+    public void shouldCreateThePrioritySenderOnlyOnceWhenPostedToConcurrently() throws Exception {
+        when(messagingService.createQueueSender("keyed-priority")).thenReturn(mock(MessageSender.class));
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            KeyedMessage message = new KeyedMessage("up" + i, i);
+            threads.add(new Thread(() -> queue.postWithPriority(message)));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        verify(messagingService, times(1)).createQueueSender("keyed-priority");
+    }
+
+    @Test
+    public void shouldMoveAWaitingMessageToThePriorityLaneAndProcessItOnlyOnce() {
+        List<KeyedMessage> processed = new ArrayList<>();
+        KeyedQueue queue = queueWithListener(processed::add);
+        MessageSender prioritySender = mock(MessageSender.class);
+        when(messagingService.createQueueSender("keyed-priority")).thenReturn(prioritySender);
+        ArgumentCaptor<GoMessageListener> captor = ArgumentCaptor.forClass(GoMessageListener.class);
+        queue.addPriorityListener(processed::add);
+        verify(messagingService).addQueueListener(eq("keyed-priority"), captor.capture());
+        GoMessageListener<KeyedMessage> priorityListener = captor.getValue();
+
+        queue.post(new KeyedMessage("up42", 1));
+        queue.prioritize(new KeyedMessage("up42", 2));
+        priorityListener.onMessage(new KeyedMessage("up42", 1));
+        listener.onMessage(new KeyedMessage("up42", 1));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 1));
+        verify(prioritySender).sendMessage(new KeyedMessage("up42", 1));
+        assertThat(processed, contains(new KeyedMessage("up42", 1)));
+        assertThat(queue.size(), is(0));
+    }
+
+    @Test
+    public void shouldKeepAParkedKeyInTheQueueUntilItIsUnparked() {
+        KeyedQueue queue = queueWithListener(message -> this.queue.park(message));
+
+        queue.post(new KeyedMessage("up42", 1));
+        listener.onMessage(new KeyedMessage("up42", 1));
+        queue.post(new KeyedMessage("up42", 2));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 1));
+        verifyNoMoreInteractions(sender);
+        assertThat(queue.size(), is(1));
+
+        assertThat(queue.unpark(new KeyedMessage("up42", 2)), is(true));
+        assertThat(queue.unpark(new KeyedMessage("up42", 2)), is(false));
+
+        verify(sender).sendMessage(new KeyedMessage("up42", 2));
+    }
+
+    @Test
+    public void shouldReportWaitingMessagesPerLane() {
+        when(messagingService.createQueueSender("keyed-priority")).thenReturn(mock(MessageSender.class));
+
+        queue.post(new KeyedMessage("up42", 1));
+        queue.post(new KeyedMessage("down42", 2));
+        queue.postWithPriority(new KeyedMessage("down42", 3));
+
+        assertThat(((Map) queue.laneStatistics().get("NORMAL")).get("Waiting"), is(1));
+        assertThat(((Map) queue.laneStatistics().get("PRIORITY")).get("Waiting"), is(1));
+    }
+
+    private KeyedQueue queueWithListener(GoMessageListener<KeyedMessage> delegate) {
+        reset(messagingService);
+        when(messagingService.createQueueSender("keyed")).thenReturn(sender);
+        queue = new KeyedQueue(messagingService);
+        ArgumentCaptor<GoMessageListener> captor = ArgumentCaptor.forClass(GoMessageListener.class);
+        queue.addListener(delegate);
+        verify(messagingService).addQueueListener(eq("keyed"), captor.capture());
+        listener = captor.getValue();
+        return queue;
+    }
+
+    private static class KeyedQueue extends CoalescingMessageQueue<KeyedMessage> {
+        KeyedQueue(MessagingService messaging) {
+            super(messaging, "keyed");
+        }
+
+        @Override
+        protected Object keyFor(KeyedMessage message) {
+            return message.key;
+        }
+    }
+
+    private static class KeyedMessage implements GoMessage {
+        private final String key;
+        private final int sequence;
+
+        KeyedMessage(String key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            KeyedMessage that = (KeyedMessage) o;
+            return sequence == that.sequence && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + sequence;
+        }
+
+        @Override
+        public String toString() {
+            return key + "#" + sequence;
+        }
+    }
+}
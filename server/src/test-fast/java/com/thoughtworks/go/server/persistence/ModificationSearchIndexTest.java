@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.thoughtworks.go.domain.materials.Modification;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ModificationSearchIndexTest {
+    private ModificationSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new ModificationSearchIndex();
+        index.add(1, "40c95a3c", "pavan", "fix the build", null);
+        index.add(2, "c30c4711", null, "break the build", null);
+        index.add(3, "pipeline/12/stage/1", null, null, "my-random-label");
+        index.add(4, "a8d7e612", "turn_her", null, null);
+    }
+
+    @Test
+    public void shouldReturnModificationsContainingAllTrigramsOfTheSearchStringNewestFirst() {
+        assertThat(index.candidates("build", Long.MAX_VALUE, 10), contains(2L, 1L));
+        assertThat(index.candidates("pavan fix", Long.MAX_VALUE, 10), contains(1L));
+        assertThat(index.candidates("random", Long.MAX_VALUE, 10), contains(3L));
+        assertThat(index.candidates("turn_her", Long.MAX_VALUE, 10), contains(4L));
+    }
+
+    @Test
+    public void shouldReturnOnlyCandidatesOlderThanTheGivenIdUpToTheLimit() {
+        assertThat(index.candidates("build", Long.MAX_VALUE, 1), contains(2L));
+        assertThat(index.candidates("build", 2, 10), contains(1L));
+    }
+
+    @Test
+    public void shouldReturnNothingWhenATrigramOfTheSearchStringIsNotIndexed() {
+        assertThat(index.candidates("rebuild", Long.MAX_VALUE, 10), is(empty()));
+        assertThat(index.candidates("Build", Long.MAX_VALUE, 10), is(empty()));
+    }
+
+    @Test
+    public void shouldRefuseModificationsOlderThanTheLatestIndexedOne() {
+        assertThat(index.add(4, "deadbeef", "bob", "again", null), is(false));
+        assertThat(index.add(5, "deadbeef", "bob", "again", null), is(true));
+        assertThat(index.size(), is(5));
+    }
+
+    @Test
+    public void shouldDropTheOldestQuarterOfModificationsOnceFull() {
+        ModificationSearchIndex index = new ModificationSearchIndex(8);
+        for (int id = 1; id <= 8; id++) {
+            index.add(id, "rev" + id, "pavan", "fix the build", null);
+        }
+        assertThat(index.indexedFrom(), is(0L));
+
+        index.add(9, "rev9", "pavan", "fix the build", null);
+
+        assertThat(index.size(), is(7));
+        assertThat(index.indexedFrom(), is(3L));
+        assertThat(index.candidates("build", Long.MAX_VALUE, 10), contains(9L, 8L, 7L, 6L, 5L, 4L, 3L));
+        assertThat(index.candidates("rev1", Long.MAX_VALUE, 10), is(empty()));
+        assertThat(index.candidates("rev4", Long.MAX_VALUE, 10), contains(4L));
+    }
+
+    @Test
+    public void shouldOnlyMoveTheStartOfTheIndexedModificationsForward() {
+        index.indexedFrom(3);
+        index.indexedFrom(2);
+
+        assertThat(index.indexedFrom(), is(3L));
+    }
+
+    @Test
+    public void shouldMatchModificationsOnlyIfTheSearchStringOccursInThem() {
+        Modification modification = new Modification("pavan", "fix the build", null, new Date(), "40c95a3c");
+
+        assertThat(ModificationSearchIndex.matches(modification, "pavan fix"), is(true));
+        assertThat(ModificationSearchIndex.matches(modification, "the build"), is(true));
+        assertThat(ModificationSearchIndex.matches(modification, "fix build"), is(false));
+    }
+
+    @Test
+    public void shouldSearchOnlyStringsLongEnoughToHaveATrigram() {
+        assertThat(ModificationSearchIndex.canSearch("ab"), is(false));
+        assertThat(ModificationSearchIndex.canSearch(""), is(false));
+        assertThat(ModificationSearchIndex.canSearch(null), is(false));
+        assertThat(ModificationSearchIndex.canSearch("abc"), is(true));
+    }
+}
@@ -84,6 +84,21 @@ public class JobStatusJsonPresentationModelTest {
                 "}");
     }
 
+    @Test
+    public void shouldShowExpectedDurationPercentiles() {
+        JobInstance instance = building("test", new DateTime().minusSeconds(5).toDate());
+
+        JobStatusJsonPresentationModel presenter = new JobStatusJsonPresentationModel(instance, mock(Agent.class),
+                new DurationBean(instance.getId(), 10L, 12L, 40L));
+        Map json = presenter.toJsonHash();
+
+        assertThatJson(new Gson().toJson(json)).when(IGNORING_EXTRA_FIELDS).isEqualTo("{\n" +
+                "  \"last_build_duration\": \"10\",\n" +
+                "  \"expected_build_duration_p50\": \"12\",\n" +
+                "  \"expected_build_duration_p90\": \"40\"\n" +
+                "}");
+    }
+
     @Test
     public void shouldReturnNotYetAssignedIfAgentUuidIsNull() throws Exception {
         JobInstance instance = building("Plan1");
@@ -41,6 +41,7 @@ import com.thoughtworks.go.helper.MaterialsMother;
 import com.thoughtworks.go.helper.ModificationsMother;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.server.domain.PipelineConfigDependencyGraph;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.materials.*;
 import com.thoughtworks.go.server.perf.SchedulingPerformanceLogger;
@@ -112,7 +113,7 @@ public class BuildCauseProducerServiceTest {
     @Before
     public void setUp() throws Exception {
         initMocks(this);
-        triggerMonitor = new TriggerMonitor();
+        triggerMonitor = new TriggerMonitor(new PipelineStateTable());
         healthStateType = HealthStateType.general(HealthStateScope.forPipeline(CaseInsensitiveString.str(pipelineConfig.name())));
         when(goConfigService.pipelineConfigNamed(pipelineConfig.name())).thenReturn(pipelineConfig);
 
@@ -166,7 +167,7 @@ public class BuildCauseProducerServiceTest {
         buildCauseProducerService.manualSchedulePipeline(Username.ANONYMOUS, pipelineConfig.name(), new ScheduleOptions(), result);
         assertThat(result.getServerHealthState().isSuccess(), is(true));
 
-        verify(mockMaterialUpdateService, times(2)).updateMaterial(any(Material.class));
+        verify(mockMaterialUpdateService, times(2)).updateMaterialWithPriority(any(Material.class));
         verify(mockMaterialUpdateStatusNotifier).registerListenerFor(eq(pipelineConfig),
                 any(MaterialUpdateStatusListener.class));
     }
@@ -190,7 +191,7 @@ public class BuildCauseProducerServiceTest {
         assertThat(result.canContinue(), is(false));
         assertThat(result.message(), is("Failed to force pipeline: pipeline"));
 
-        verify(mockMaterialUpdateService, never()).updateMaterial(any(Material.class));
+        verify(mockMaterialUpdateService, never()).updateMaterialWithPriority(any(Material.class));
         verify(mockMaterialUpdateStatusNotifier, never()).registerListenerFor(eq(pipelineConfig),
                 any(MaterialUpdateStatusListener.class));
     }
@@ -263,7 +264,7 @@ public class BuildCauseProducerServiceTest {
     @Test
     public void shouldNotCheckForModificationsUnableToTriggerManualPipeline() throws Exception {
         buildCauseProducerService.manualSchedulePipeline(Username.ANONYMOUS, pipelineConfig.name(), new ScheduleOptions(), errorResult());
-        verify(mockMaterialUpdateService, never()).updateMaterial(any(Material.class));
+        verify(mockMaterialUpdateService, never()).updateMaterialWithPriority(any(Material.class));
         verify(mockMaterialUpdateStatusNotifier, never()).registerListenerFor(eq(pipelineConfig),
                 any(MaterialUpdateStatusListener.class));
     }
@@ -385,7 +386,7 @@ public class BuildCauseProducerServiceTest {
         buildCauseProducerService.manualSchedulePipeline(Username.ANONYMOUS, pipelineConfig.name(),
                 new ScheduleOptions(new HashMap<>(), new HashMap<>(), new HashMap<>()),
                 new ServerHealthStateOperationResult());
-        verify(mockMaterialUpdateService, times(1)).updateMaterial(any(Material.class));
+        verify(mockMaterialUpdateService, times(1)).updateMaterialWithPriority(any(Material.class));
         MaterialUpdateStatusListener statusListener = extractMaterialListenerInstanceFromRegisterCall();
         statusListener.onMaterialUpdate(new MaterialUpdateFailedMessage(materials[0], 0, new Exception("Cannot connect to repo")));
         verify(mockMaterialUpdateStatusNotifier).removeListenerFor(pipelineConfig);
@@ -474,8 +475,8 @@ public class BuildCauseProducerServiceTest {
 
         verify(goConfigService, times(2)).pipelineConfigNamed(pipelineConfig.name());
 
-        verify(mockMaterialUpdateService, times(1)).updateMaterial(material1);
-        verify(mockMaterialUpdateService, times(1)).updateMaterial(material2);
+        verify(mockMaterialUpdateService, times(1)).updateMaterialWithPriority(material1);
+        verify(mockMaterialUpdateService, times(1)).updateMaterialWithPriority(material2);
 
         statusListener.onMaterialUpdate(new MaterialUpdateSuccessfulMessage(material2, 0));
 
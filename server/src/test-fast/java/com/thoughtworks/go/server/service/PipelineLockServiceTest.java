@@ -31,6 +31,7 @@ import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.dao.PipelineStateDao;
 import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
 import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener.Event;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.transaction.AfterCompletionCallback;
 import com.thoughtworks.go.util.LogFixture;
 import org.junit.Before;
@@ -58,7 +59,7 @@ public class PipelineLockServiceTest {
     public void setup() throws Exception {
         pipelineStateDao = mock(PipelineStateDao.class);
         goConfigService = mock(GoConfigService.class);
-        pipelineLockService = new PipelineLockService(goConfigService, pipelineStateDao);
+        pipelineLockService = new PipelineLockService(goConfigService, pipelineStateDao, new PipelineStateTable());
         pipelineLockService.initialize();
     }
 
@@ -91,6 +92,39 @@ public class PipelineLockServiceTest {
         assertThat(pipelineLockService.isLocked("twist"), is(false));
     }
 
+    @Test
+    public void shouldRememberLockStateWithoutGoingBackToTheDatabase() throws Exception {
+        when(pipelineStateDao.pipelineStateFor("mingle")).thenReturn(null);
+
+        assertThat(pipelineLockService.isLocked("mingle"), is(false));
+        assertThat(pipelineLockService.isLocked("MINGLE"), is(false));
+
+        verify(pipelineStateDao, times(1)).pipelineStateFor("mingle");
+    }
+
+    @Test
+    public void shouldUpdateLockStateOnceLockAndUnlockAreCommitted() throws Exception {
+        when(goConfigService.isLockable("mingle")).thenReturn(true);
+        when(pipelineStateDao.pipelineStateFor("mingle")).thenReturn(null);
+        Answer commit = invocation -> {
+            AfterCompletionCallback callback = (AfterCompletionCallback) invocation.getArguments()[1];
+            callback.execute(TransactionSynchronization.STATUS_COMMITTED);
+            return null;
+        };
+        doAnswer(commit).when(pipelineStateDao).lockPipeline(any(Pipeline.class), any(AfterCompletionCallback.class));
+        doAnswer(commit).when(pipelineStateDao).unlockPipeline(eq("mingle"), any(AfterCompletionCallback.class));
+
+        assertThat(pipelineLockService.isLocked("mingle"), is(false));
+
+        pipelineLockService.lockIfNeeded(PipelineMother.firstStageBuildingAndSecondStageScheduled("mingle", asList("dev", "ft"), asList("test")));
+        assertThat(pipelineLockService.isLocked("mingle"), is(true));
+
+        pipelineLockService.unlock("mingle");
+        assertThat(pipelineLockService.isLocked("mingle"), is(false));
+
+        verify(pipelineStateDao, times(1)).pipelineStateFor("mingle");
+    }
+
     @Test
     public void shouldUnlockPipelineIrrespectiveOfItBeingLockable() throws Exception {
         pipelineLockService.unlock("mingle");
@@ -215,6 +249,22 @@ public class PipelineLockServiceTest {
         verify(pipelineStateDao, never()).unlockPipeline("locked_pipeline");
     }
 
+    @Test
+    public void shouldForgetTheStateOfAPipelineWhenItIsDeleted() throws Exception {
+        EntityConfigChangedListener<PipelineConfig> changedListener = getPipelineConfigEntityConfigChangedListener();
+        PipelineConfig pipelineConfig = mock(PipelineConfig.class);
+
+        when(pipelineStateDao.lockedPipelines()).thenReturn(asList());
+        when(pipelineConfig.name()).thenReturn(new CaseInsensitiveString("deleted_pipeline"));
+        when(goConfigService.hasPipelineNamed(new CaseInsensitiveString("deleted_pipeline"))).thenReturn(false);
+        assertThat(pipelineLockService.isLocked("deleted_pipeline"), is(false));
+
+        changedListener.onEntityConfigChange(pipelineConfig);
+        pipelineLockService.isLocked("deleted_pipeline");
+
+        verify(pipelineStateDao, times(2)).pipelineStateFor("deleted_pipeline");
+    }
+
     @Test
     public void shouldRegisterItselfAsAConfigChangeListener() throws Exception {
         verify(goConfigService).register(pipelineLockService);
@@ -22,6 +22,7 @@ import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
 import com.thoughtworks.go.server.domain.PipelinePauseChangeListener.Event;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult;
 import com.thoughtworks.go.util.LogFixture;
@@ -55,7 +56,7 @@ public class PipelinePauseServiceTest {
         goConfigDao = mock(GoConfigDao.class);
         goConfigService = new GoConfigService(goConfigDao, null, (GoConfigMigration) null, null, null, null, null, null, null, null);
         securityService = mock(SecurityService.class);
-        pipelinePauseService = new PipelinePauseService(pipelineDao, goConfigService, securityService);
+        pipelinePauseService = new PipelinePauseService(pipelineDao, goConfigService, securityService, new PipelineStateTable());
         when(pipelineDao.pauseState(VALID_PIPELINE)).thenReturn(new PipelinePauseInfo(false, "", VALID_USER.getUsername().toString()));
     }
 
@@ -100,6 +101,29 @@ public class PipelinePauseServiceTest {
         assertThat(result.httpCode(), is(SC_OK));
     }
 
+    @Test
+    public void shouldRememberPauseStateWithoutGoingBackToTheDatabase() throws Exception {
+        assertThat(pipelinePauseService.isPaused(VALID_PIPELINE), is(false));
+        assertThat(pipelinePauseService.isPaused(VALID_PIPELINE.toUpperCase()), is(false));
+
+        verify(pipelineDao, times(1)).pauseState(VALID_PIPELINE);
+        verify(pipelineDao, never()).pauseState(VALID_PIPELINE.toUpperCase());
+    }
+
+    @Test
+    public void shouldUpdatePauseStateOnPauseAndUnpause() throws Exception {
+        setUpValidPipelineWithAuth();
+        assertThat(pipelinePauseService.isPaused(VALID_PIPELINE), is(false));
+
+        when(pipelineDao.pauseState(VALID_PIPELINE)).thenReturn(new PipelinePauseInfo(true, "cause", VALID_USER.getUsername().toString()));
+        pipelinePauseService.pause(VALID_PIPELINE, "cause", VALID_USER, new HttpLocalizedOperationResult());
+        assertThat(pipelinePauseService.pipelinePauseInfo(VALID_PIPELINE), is(new PipelinePauseInfo(true, "cause", VALID_USER.getUsername().toString())));
+
+        pipelinePauseService.unpause(VALID_PIPELINE, VALID_USER, new HttpLocalizedOperationResult());
+        assertThat(pipelinePauseService.isPaused(VALID_PIPELINE), is(false));
+        verify(pipelineDao).unpause(VALID_PIPELINE);
+    }
+
     @Test
     public void shouldUnPausePipeline() throws Exception {
 
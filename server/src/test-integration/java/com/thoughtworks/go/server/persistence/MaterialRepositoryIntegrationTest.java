@@ -49,6 +49,7 @@ import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.dao.DatabaseAccessHelper;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.database.DatabaseStrategy;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.service.InstanceFactory;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
@@ -56,6 +57,7 @@ import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.server.util.Pagination;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TestUtils;
 import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.json.JsonHelper;
@@ -216,7 +218,7 @@ public class MaterialRepositoryIntegrationTest {
         MaterialRevision second = saveOneScmModification(material, "user2", "file2");
 
         goCache.clear();
-        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mock(MDUPerformanceLogger.class));
 
         repo.findModificationsSince(material, first);
         assertThat(repo.cachedModifications(repo.findMaterialInstance(material)), is(nullValue()));
@@ -241,7 +243,7 @@ public class MaterialRepositoryIntegrationTest {
                 TestUtils.sleepQuietly(200); // sleep so we can have multiple threads enter the critical section
                 return value;
             }
-        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mock(MDUPerformanceLogger.class));
 
         Thread thread1 = new Thread(new Runnable() {
             @Override
@@ -355,7 +357,7 @@ public class MaterialRepositoryIntegrationTest {
         final Material svn = MaterialsMother.svnMaterial("url", null, "username", "password", false, null);
 
         HibernateTemplate mockTemplate = mock(HibernateTemplate.class);
-        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy) {
+        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mock(MDUPerformanceLogger.class)) {
             @Override
             public MaterialInstance findMaterialInstance(Material material) {
                 MaterialInstance result = super.findMaterialInstance(material);
@@ -642,7 +644,7 @@ public class MaterialRepositoryIntegrationTest {
         GoCache spyGoCache = spy(goCache);
         when(spyGoCache.get(any(String.class))).thenCallRealMethod();
         Mockito.doCallRealMethod().when(spyGoCache).put(any(String.class), any(Object.class));
-        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mock(MDUPerformanceLogger.class));
 
         pipelineSqlMapDao.save(pipeline);
 
@@ -961,6 +963,28 @@ public class MaterialRepositoryIntegrationTest {
         assertThat(revisions.size(), is(0));
     }
 
+    @Test
+    public void shouldFindRevisionsSavedAfterTheSearchIndexWasBuiltAndReturnOnlyTheLatestFive() throws Exception {
+        ScmMaterial material = material();
+        repo.saveOrUpdate(material.createMaterialInstance());
+        saveOneScmModification("40c95a3c41f54b5fb3107982cf2acd08783f102a", material, "pavan", "meet_you_in_hell.txt", "fixed the build");
+
+        assertThat(repo.findRevisionsMatching(material.config(), "the build").size(), is(1));
+
+        List<String> revisionsFixingTheBuild = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            revisionsFixingTheBuild.add(saveOneScmModification("rev" + i, material, "pavan", "file" + i + ".txt", "fixed the build again").getLatestRevisionString());
+        }
+        saveOneScmModification("rev7", material, "pavan", "file7.txt", "broke the tests");
+
+        List<MatchedRevision> revisions = repo.findRevisionsMatching(material.config(), "the build again");
+        assertThat(revisions.size(), is(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(revisions.get(i).getLongRevision(), is(revisionsFixingTheBuild.get(5 - i)));
+        }
+        assertThat(repo.findRevisionsMatching(material.config(), "the tests").size(), is(1));
+    }
+
     @Test
     public void shouldFindLatestRevision() throws Exception {
         ScmMaterial material = material();
@@ -1316,6 +1340,68 @@ public class MaterialRepositoryIntegrationTest {
         assertThat(repo.getTotalModificationsFor(materialInstance), is(new Long(count + 1)));
     }
 
+    @Test
+    public void shouldSaveModificationsAndModifiedFilesInBatchesWhenThereAreMoreThanTheBatchSize() {
+        new SystemEnvironment().set(SystemEnvironment.MODIFICATIONS_SAVE_BATCH_SIZE, 2);
+        try {
+            final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+            final ArrayList<Modification> modifications = getModifications(5);
+            modifications.get(0).createModifiedFile("foo.txt", "src", ModifiedAction.added);
+            modifications.get(0).createModifiedFile("bar.txt", null, ModifiedAction.modified);
+            modifications.get(3).createModifiedFile("baz.txt", "test", ModifiedAction.deleted);
+            transactionTemplate.execute(new TransactionCallback() {
+                @Override
+                public Object doInTransaction(TransactionStatus status) {
+                    repo.saveModifications(materialInstance, modifications);
+                    return null;
+                }
+            });
+
+            assertThat(repo.getTotalModificationsFor(materialInstance), is(5L));
+            for (Modification modification : modifications) {
+                assertThat(modification.hasId(), is(true));
+                Modification fromDb = repo.findModificationWithRevision(materialInstance.toOldMaterial(null, null, null), modification.getRevision());
+                assertThat(fromDb.getId(), is(modification.getId()));
+                assertThat(fromDb.getModifiedFiles(), is(modification.getModifiedFiles()));
+            }
+            Modifications fromDb = repo.getModificationsFor(materialInstance, Pagination.pageByNumber(1, 10, 10));
+            assertThat(fromDb.get(0).getRevision(), is("r0"));
+            assertThat(fromDb.get(4).getRevision(), is("r4"));
+        } finally {
+            new SystemEnvironment().reset(SystemEnvironment.MODIFICATIONS_SAVE_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldCacheOnlyAPreviewOfTheModifiedFilesAndLoadTheOthersInPages() {
+        new SystemEnvironment().set(SystemEnvironment.MODIFIED_FILES_PREVIEW_SIZE, 2);
+        try {
+            final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+            final ArrayList<Modification> modifications = getModifications(1);
+            for (int i = 0; i < 5; i++) {
+                modifications.get(0).createModifiedFile("file" + i, "src", ModifiedAction.added);
+            }
+            transactionTemplate.execute(new TransactionCallback() {
+                @Override
+                public Object doInTransaction(TransactionStatus status) {
+                    repo.saveModifications(materialInstance, modifications);
+                    return null;
+                }
+            });
+
+            Modification fromDb = repo.getModificationsFor(materialInstance, Pagination.pageByNumber(1, 10, 10)).get(0);
+
+            List<ModifiedFile> savedFiles = modifications.get(0).getModifiedFiles();
+            assertThat(fromDb.getModifiedFiles(), is(savedFiles.subList(0, 2)));
+            assertThat(fromDb.getModifiedFilesCount(), is(5));
+            assertThat(fromDb.getModifiedFiles(2, 2), is(savedFiles.subList(2, 4)));
+            assertThat(fromDb.getAllModifiedFiles(), is(savedFiles));
+            assertThat(repo.findModifiedFiles(fromDb.getId(), 4, 10), is(savedFiles.subList(4, 5)));
+        } finally {
+            new SystemEnvironment().reset(SystemEnvironment.MODIFIED_FILES_PREVIEW_SIZE);
+        }
+    }
+
     private ArrayList<Modification> getModifications(int count) {
         final ArrayList<Modification> modifications = new ArrayList<>();
         for (int i = 0; i < count; i++) {
@@ -27,6 +27,7 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialRevision;
 import com.thoughtworks.go.helper.*;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.domain.PipelineStateTable;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.persistence.AgentDao;
@@ -94,6 +95,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
     private String md5 = "md5-test";
     private InstanceFactory instanceFactory;
     private JobAgentMetadataDao jobAgentMetadataDao;
+    private PipelineStateTable pipelineStateTable;
 
     @Deprecated // Should not be creating a new spring context for every test
     public DatabaseAccessHelper() throws AmbiguousTableNameException {
@@ -136,7 +138,8 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
                                 GoCache goCache,
                                 PipelineService pipelineService, InstanceFactory instanceFactory,
                                 JobAgentMetadataDao jobAgentMetadataDao,
-                                AgentDao agentDao) throws AmbiguousTableNameException {
+                                AgentDao agentDao,
+                                PipelineStateTable pipelineStateTable) throws AmbiguousTableNameException {
         this.dataSource = dataSource;
         this.sqlMapClient = sqlMapClient;
         this.stageDao = stageDao;
@@ -151,6 +154,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
         this.pipelineDao = (PipelineSqlMapDao) pipelineDao;
         this.materialRepository = materialRepository;
         this.agentDao = agentDao;
+        this.pipelineStateTable = pipelineStateTable;
         setSessionFactory(sessionFactory);
         initialize(dataSource);
     }
@@ -202,6 +206,12 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
     public void onTearDown() throws Exception {
         databaseTester.onTearDown();
         goCache.clear();
+        if (pipelineStateTable != null) {
+            pipelineStateTable.clearWhichIsEvilAndShouldNotBeUsedInRealWorld();
+        }
+        if (stageDao instanceof StageSqlMapDao) {
+            ((StageSqlMapDao) stageDao).clearDurationStatisticsWhichIsEvilAndShouldNotBeUsedInRealWorld();
+        }
     }
 
     public TransactionTemplate txTemplate() {